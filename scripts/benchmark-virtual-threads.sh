@@ -0,0 +1,139 @@
+#!/usr/bin/env bash
+# Compare throughput and p99 latency with platform vs virtual threads while
+# outbound calls are slow.
+#
+# Starts a latency-injecting stand-in for Mapbox and OpenWeatherMap
+# (scripts/benchmark/latency-stub.py, every call delayed BENCH_STUB_DELAY_MS),
+# then starts the packaged app twice against it and the same MariaDB/Redis
+# (configured via the usual environment variables): once with
+# VIRTUAL_THREADS_ENABLED=false and once with true. Each run drives two k6
+# scenarios (scripts/benchmark/scenarios.js):
+#   nearby  GET /api/v1/restaurants/nearby around random points
+#   order   POST /api/v1/orders/delivery-fee then POST /api/v1/orders (COD);
+#           the order creation is what is measured
+# Results go to build/benchmark/<timestamp>/summary.txt; no reference numbers
+# are checked in, since they depend on the machine and the backing services.
+#
+# Requirements: java 21, python3, curl, jq, k6 (https://k6.io)
+#
+# Usage:
+#   ./gradlew bootJar
+#   BENCH_USERNAME=customer@gmail.com BENCH_PASSWORD=secret scripts/benchmark-virtual-threads.sh
+#
+# Optional environment:
+#   BENCH_STUB_DELAY_MS  delay of every Mapbox/weather call (default 200)
+#   BENCH_STUB_PORT      port of the latency stub (default 18089)
+#   BENCH_CENTER_LAT/LNG centre of the random points (default: seeded restaurants)
+#   BENCH_RESTAURANT_ID  restaurant to order from (default 1)
+#   BENCH_DISH_ID        dish to order, must belong to the restaurant (default 1)
+#   BENCH_CONCURRENCY    concurrent virtual users (default 200)
+#   BENCH_DURATION       load duration per scenario (default 60s)
+#   BENCH_WARMUP         warm-up duration per scenario, not measured (default 20s)
+#   BENCH_PORT           port the app listens on (default 8080)
+#   BENCH_JAR            app jar (default: build/libs/*-SNAPSHOT.jar)
+
+set -euo pipefail
+
+: "${BENCH_USERNAME:?set BENCH_USERNAME}"
+: "${BENCH_PASSWORD:?set BENCH_PASSWORD}"
+BENCH_STUB_DELAY_MS="${BENCH_STUB_DELAY_MS:-200}"
+BENCH_STUB_PORT="${BENCH_STUB_PORT:-18089}"
+BENCH_CENTER_LAT="${BENCH_CENTER_LAT:-10.8837}"
+BENCH_CENTER_LNG="${BENCH_CENTER_LNG:-106.7806}"
+BENCH_RESTAURANT_ID="${BENCH_RESTAURANT_ID:-1}"
+BENCH_DISH_ID="${BENCH_DISH_ID:-1}"
+BENCH_CONCURRENCY="${BENCH_CONCURRENCY:-200}"
+BENCH_DURATION="${BENCH_DURATION:-60s}"
+BENCH_WARMUP="${BENCH_WARMUP:-20s}"
+BENCH_PORT="${BENCH_PORT:-8080}"
+BENCH_JAR="${BENCH_JAR:-$(ls build/libs/*-SNAPSHOT.jar | grep -v plain | head -n 1)}"
+
+SCRIPT_DIR="$(cd "$(dirname "$0")" && pwd)"
+BASE_URL="http://localhost:${BENCH_PORT}"
+STUB_URL="http://127.0.0.1:${BENCH_STUB_PORT}"
+RESULTS_DIR="build/benchmark/$(date +%Y%m%d-%H%M%S)"
+mkdir -p "$RESULTS_DIR"
+
+APP_PID=""
+STUB_PID=""
+stop_app() {
+    if [[ -n "$APP_PID" ]] && kill -0 "$APP_PID" 2>/dev/null; then
+        kill "$APP_PID"
+        wait "$APP_PID" 2>/dev/null || true
+    fi
+    APP_PID=""
+}
+cleanup() {
+    stop_app
+    if [[ -n "$STUB_PID" ]]; then
+        kill "$STUB_PID" 2>/dev/null || true
+    fi
+}
+trap cleanup EXIT
+
+echo "▶ Starting latency stub on ${STUB_URL} (${BENCH_STUB_DELAY_MS} ms per call)"
+STUB_DELAY_MS="$BENCH_STUB_DELAY_MS" python3 "$SCRIPT_DIR/benchmark/latency-stub.py" "$BENCH_STUB_PORT" &
+STUB_PID=$!
+
+scenario() {
+    local label="$1" name="$2" token="$3" customer_id="$4"
+    local k6_env=(
+        -e BASE_URL="$BASE_URL" -e TOKEN="$token" -e SCENARIO="$name"
+        -e CENTER_LAT="$BENCH_CENTER_LAT" -e CENTER_LNG="$BENCH_CENTER_LNG"
+        -e CUSTOMER_ID="$customer_id" -e RESTAURANT_ID="$BENCH_RESTAURANT_ID" -e DISH_ID="$BENCH_DISH_ID"
+        -e VUS="$BENCH_CONCURRENCY"
+    )
+
+    k6 run --quiet "${k6_env[@]}" -e DURATION="$BENCH_WARMUP" "$SCRIPT_DIR/benchmark/scenarios.js" >/dev/null
+    k6 run --quiet "${k6_env[@]}" -e DURATION="$BENCH_DURATION" \
+        --summary-export "$RESULTS_DIR/k6-${label}-${name}.json" \
+        "$SCRIPT_DIR/benchmark/scenarios.js" >"$RESULTS_DIR/k6-${label}-${name}.txt"
+
+    local report="$RESULTS_DIR/k6-${label}-${name}.json"
+    local rps p99 failed
+    rps=$(jq -r '.metrics.measured_requests.rate' "$report")
+    p99=$(jq -r '.metrics.measured_duration["p(99)"]' "$report")
+    failed=$(jq -r '.metrics.measured_failed.value * 100' "$report")
+    printf '%-9s %-7s %10.1f req/s   p99 %8.1f ms   failed %5.1f%%\n' \
+        "$label" "$name" "$rps" "$p99" "$failed" | tee -a "$RESULTS_DIR/summary.txt"
+}
+
+run() {
+    local virtual="$1"
+    local label="platform"
+    [[ "$virtual" == "true" ]] && label="virtual"
+
+    echo "▶ Starting app with VIRTUAL_THREADS_ENABLED=${virtual}"
+    VIRTUAL_THREADS_ENABLED="$virtual" java -jar "$BENCH_JAR" --server.port="$BENCH_PORT" \
+        --mapbox.base-url="$STUB_URL" --openweathermap.base-url="${STUB_URL}/data/2.5" \
+        >"$RESULTS_DIR/app-${label}.log" 2>&1 &
+    APP_PID=$!
+
+    for _ in $(seq 1 120); do
+        if curl -s -o /dev/null "$BASE_URL/v3/api-docs"; then
+            break
+        fi
+        sleep 1
+    done
+
+    local token customer_id
+    token=$(curl -s -X POST "$BASE_URL/api/v1/auth/login" \
+        -H 'Content-Type: application/json' \
+        -d "{\"username\":\"${BENCH_USERNAME}\",\"password\":\"${BENCH_PASSWORD}\"}" | jq -r '.data.access_token')
+    if [[ -z "$token" || "$token" == "null" ]]; then
+        echo "Login failed, see $RESULTS_DIR/app-${label}.log" >&2
+        exit 1
+    fi
+    customer_id=$(curl -s "$BASE_URL/api/v1/auth/account" -H "Authorization: Bearer ${token}" \
+        | jq -r '.data.user.id')
+
+    scenario "$label" nearby "$token" "$customer_id"
+    scenario "$label" order "$token" "$customer_id"
+
+    stop_app
+}
+
+run false
+run true
+
+echo "Full reports in $RESULTS_DIR"
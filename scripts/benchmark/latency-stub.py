@@ -0,0 +1,69 @@
+#!/usr/bin/env python3
+"""Stand-in for Mapbox and OpenWeatherMap that answers after a fixed delay.
+
+Simulates slow outbound I/O for scripts/benchmark-virtual-threads.sh: every
+request sleeps STUB_DELAY_MS (default 200) before returning a fixed, valid
+response, so request threads in the app stay blocked on the provider call.
+
+Usage: STUB_DELAY_MS=200 latency-stub.py <port>
+"""
+import json
+import os
+import sys
+import time
+from http.server import BaseHTTPRequestHandler, ThreadingHTTPServer
+from urllib.parse import parse_qs, urlparse
+
+DELAY_SECONDS = int(os.environ.get("STUB_DELAY_MS", "200")) / 1000.0
+DISTANCE_METERS = 2500.0
+DURATION_SECONDS = 540.0
+
+
+def matrix(path, query):
+    coordinates = path.rsplit("/", 1)[1].split(";")
+
+    def count(name):
+        value = query.get(name, ["all"])[0]
+        return len(coordinates) if value == "all" else len(value.split(";"))
+
+    return {
+        "code": "Ok",
+        "distances": [[DISTANCE_METERS] * count("destinations") for _ in range(count("sources"))],
+    }
+
+
+class Handler(BaseHTTPRequestHandler):
+    protocol_version = "HTTP/1.1"
+
+    def do_GET(self):
+        time.sleep(DELAY_SECONDS)
+        url = urlparse(self.path)
+        query = parse_qs(url.query)
+        if url.path.startswith("/directions-matrix/"):
+            body = matrix(url.path, query)
+        elif url.path.startswith("/directions/"):
+            body = {"code": "Ok", "routes": [{"distance": DISTANCE_METERS, "duration": DURATION_SECONDS}]}
+        elif url.path.endswith("/weather"):
+            body = {
+                "weather": [{"id": 800, "main": "Clear", "description": "clear sky"}],
+                "main": {"temp": 30.0, "humidity": 70},
+                "wind": {"speed": 3.0},
+            }
+        else:
+            self.send_error(404)
+            return
+        payload = json.dumps(body).encode("utf-8")
+        self.send_response(200)
+        self.send_header("Content-Type", "application/json")
+        self.send_header("Content-Length", str(len(payload)))
+        self.end_headers()
+        self.wfile.write(payload)
+
+    def log_message(self, format, *args):
+        pass
+
+
+if __name__ == "__main__":
+    server = ThreadingHTTPServer(("127.0.0.1", int(sys.argv[1])), Handler)
+    server.daemon_threads = True
+    server.serve_forever()
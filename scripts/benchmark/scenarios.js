@@ -0,0 +1,80 @@
+// k6 load scenarios for scripts/benchmark-virtual-threads.sh
+//
+// SCENARIO=nearby  GET nearby restaurants around a random point
+// SCENARIO=order   price the delivery (POST /orders/delivery-fee), then create a
+//                  COD order (POST /orders); only the order creation is measured
+//
+// Points are jittered by up to ~2 km around CENTER_LAT/CENTER_LNG so route
+// lookups miss the route cache and go out to the (delayed) Mapbox stub.
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter, Rate, Trend } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL;
+const SCENARIO = __ENV.SCENARIO || 'nearby';
+const CENTER_LAT = parseFloat(__ENV.CENTER_LAT || '10.8837');
+const CENTER_LNG = parseFloat(__ENV.CENTER_LNG || '106.7806');
+const CUSTOMER_ID = parseInt(__ENV.CUSTOMER_ID || '0', 10);
+const RESTAURANT_ID = parseInt(__ENV.RESTAURANT_ID || '1', 10);
+const DISH_ID = parseInt(__ENV.DISH_ID || '1', 10);
+
+export const options = {
+    vus: parseInt(__ENV.VUS || '200', 10),
+    duration: __ENV.DURATION || '60s',
+    summaryTrendStats: ['avg', 'p(50)', 'p(99)'],
+};
+
+const measuredDuration = new Trend('measured_duration', true);
+const measuredRequests = new Counter('measured_requests');
+const measuredFailed = new Rate('measured_failed');
+
+const headers = {
+    Authorization: `Bearer ${__ENV.TOKEN}`,
+    'Content-Type': 'application/json',
+};
+
+function jitter() {
+    return (Math.random() - 0.5) * 0.04;
+}
+
+function record(response, expectedStatus) {
+    const ok = check(response, { [`status ${expectedStatus}`]: (r) => r.status === expectedStatus });
+    measuredDuration.add(response.timings.duration);
+    measuredRequests.add(1);
+    measuredFailed.add(!ok);
+}
+
+export default function () {
+    const lat = (CENTER_LAT + jitter()).toFixed(6);
+    const lng = (CENTER_LNG + jitter()).toFixed(6);
+
+    if (SCENARIO === 'nearby') {
+        const response = http.get(
+            `${BASE_URL}/api/v1/restaurants/nearby?latitude=${lat}&longitude=${lng}&page=1&size=20`,
+            { headers, tags: { name: 'nearby' } });
+        record(response, 200);
+        return;
+    }
+
+    const fee = http.post(`${BASE_URL}/api/v1/orders/delivery-fee`,
+        JSON.stringify({ restaurantId: RESTAURANT_ID, deliveryLatitude: Number(lat), deliveryLongitude: Number(lng) }),
+        { headers, tags: { name: 'delivery-fee' } });
+    if (!check(fee, { 'delivery fee 200': (r) => r.status === 200 })) {
+        measuredFailed.add(true);
+        return;
+    }
+
+    const order = {
+        customer: { id: CUSTOMER_ID },
+        restaurant: { id: RESTAURANT_ID },
+        deliveryAddress: 'Benchmark address',
+        deliveryLatitude: Number(lat),
+        deliveryLongitude: Number(lng),
+        deliveryFee: fee.json('data.deliveryFee'),
+        paymentMethod: 'COD',
+        orderItems: [{ dish: { id: DISH_ID }, quantity: 1 }],
+    };
+    const response = http.post(`${BASE_URL}/api/v1/orders`, JSON.stringify(order),
+        { headers, tags: { name: 'create-order' } });
+    record(response, 201);
+}
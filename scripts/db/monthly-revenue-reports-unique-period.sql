@@ -0,0 +1,44 @@
+-- One-off migration for idx_monthly_revenue_restaurant_period (MariaDB).
+--
+-- The month close upserts reports on the unique (restaurant_id, month, year)
+-- index. Schema update cannot create that index while duplicate reports exist,
+-- so run this once, during a deploy window, before the month close next runs:
+--
+--   mariadb -h <host> -u <user> -p <database> < scripts/db/monthly-revenue-reports-unique-period.sql
+--
+-- The newest report (highest id) of each restaurant and period is kept; the
+-- older duplicates are copied to monthly_revenue_reports_duplicates before they
+-- are deleted, so the cleanup can be audited and reverted.
+
+START TRANSACTION;
+
+CREATE TABLE IF NOT EXISTS monthly_revenue_reports_duplicates AS
+SELECT r.*, NOW() AS removed_at
+FROM monthly_revenue_reports r
+WHERE 1 = 0;
+
+INSERT INTO monthly_revenue_reports_duplicates
+SELECT older.*, NOW()
+FROM monthly_revenue_reports older
+WHERE EXISTS (
+    SELECT 1
+    FROM monthly_revenue_reports newer
+    WHERE newer.restaurant_id = older.restaurant_id
+        AND newer.month = older.month
+        AND newer.year = older.year
+        AND newer.id > older.id
+);
+
+DELETE older
+FROM monthly_revenue_reports older
+JOIN monthly_revenue_reports newer
+    ON newer.restaurant_id = older.restaurant_id
+    AND newer.month = older.month
+    AND newer.year = older.year
+    AND newer.id > older.id;
+
+COMMIT;
+
+-- DDL commits implicitly, so it runs after the cleanup is committed
+CREATE UNIQUE INDEX IF NOT EXISTS idx_monthly_revenue_restaurant_period
+    ON monthly_revenue_reports (restaurant_id, month, year);
@@ -13,7 +13,7 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableScheduling
-@EnableAsync // Enable async support for ChatMessageService async database writes
+@EnableAsync
 public class FoodDeliveryApplication {
 
 	public static void main(String[] args) {
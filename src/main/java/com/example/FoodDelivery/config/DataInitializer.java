@@ -33,7 +33,6 @@ public class DataInitializer implements CommandLineRunner {
         private final PermissionRepository permissionRepository;
         private final PasswordEncoder passwordEncoder;
         private final WalletService walletService;
-        private final WalletRepository walletRepository;
         private final DriverProfileRepository driverProfileRepository;
         private final SystemConfigurationRepository systemConfigurationRepository;
         private final DataSource dataSource;
@@ -44,7 +43,6 @@ public class DataInitializer implements CommandLineRunner {
                         PermissionRepository permissionRepository,
                         PasswordEncoder passwordEncoder,
                         WalletService walletService,
-                        WalletRepository walletRepository,
                         DriverProfileRepository driverProfileRepository,
                         SystemConfigurationRepository systemConfigurationRepository,
                         DataSource dataSource) {
@@ -53,7 +51,6 @@ public class DataInitializer implements CommandLineRunner {
                 this.permissionRepository = permissionRepository;
                 this.passwordEncoder = passwordEncoder;
                 this.walletService = walletService;
-                this.walletRepository = walletRepository;
                 this.driverProfileRepository = driverProfileRepository;
                 this.systemConfigurationRepository = systemConfigurationRepository;
                 this.dataSource = dataSource;
@@ -453,12 +450,8 @@ public class DataInitializer implements CommandLineRunner {
         }
 
         private void createWalletWithBalance(User user, BigDecimal balance) {
-                walletService.createWalletForUser(user);
-                Wallet wallet = walletRepository.findByUserId(user.getId())
-                                .orElseThrow(() -> new RuntimeException(
-                                                "Wallet not found for user: " + user.getEmail()));
-                wallet.setBalance(balance);
-                walletRepository.save(wallet);
+                // Opening balance: balance and sequence columns are not updatable
+                walletService.createWalletForUser(user, balance);
         }
 
         private SystemConfiguration createConfig(String key, String value, String description, User updatedBy) {
@@ -0,0 +1,53 @@
+package com.example.FoodDelivery.config;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Outbound HTTP clients for external providers (Mapbox, OpenWeatherMap).
+ * All providers share one JDK HttpClient, which keeps connections alive and
+ * reuses them across requests; each provider gets its own read timeout.
+ */
+@Configuration
+public class HttpClientConfiguration {
+
+    @Value("${outbound.http.connect-timeout-ms:3000}")
+    private long connectTimeoutMs;
+
+    @Value("${mapbox.read-timeout-ms:5000}")
+    private long mapboxReadTimeoutMs;
+
+    @Value("${openweathermap.read-timeout-ms:3000}")
+    private long weatherReadTimeoutMs;
+
+    @Bean
+    public HttpClient outboundHttpClient() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Bean
+    public RestTemplate mapboxRestTemplate(HttpClient outboundHttpClient) {
+        return createRestTemplate(outboundHttpClient, mapboxReadTimeoutMs);
+    }
+
+    @Bean
+    public RestTemplate weatherRestTemplate(HttpClient outboundHttpClient) {
+        return createRestTemplate(outboundHttpClient, weatherReadTimeoutMs);
+    }
+
+    private RestTemplate createRestTemplate(HttpClient httpClient, long readTimeoutMs) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return new RestTemplate(requestFactory);
+    }
+}
@@ -45,7 +45,11 @@ public class WebSocketAuthInterceptor implements HandshakeInterceptor {
                     if (email != null && !email.isEmpty()) {
                         // Store email in session attributes for later use
                         attributes.put("email", email);
-                        attributes.put("userId", jwt.getClaim("user"));
+                        // Numeric user ID, so message handlers never look the user up per frame
+                        Object userClaim = jwt.getClaim("user");
+                        if (userClaim instanceof Map<?, ?> user && user.get("id") instanceof Number id) {
+                            attributes.put("userId", id.longValue());
+                        }
                         log.info("WebSocket authenticated for user: {}", email);
                         return true; // Allow connection
                     }
@@ -9,10 +9,9 @@ import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
-import com.example.FoodDelivery.domain.Order;
 import com.example.FoodDelivery.domain.res.websocket.ChatMessage;
 import com.example.FoodDelivery.service.ChatMessageService;
-import com.example.FoodDelivery.service.OrderService;
+import com.example.FoodDelivery.service.OrderChatParticipantService;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -26,14 +25,14 @@ import lombok.extern.slf4j.Slf4j;
 public class ChatController {
 
     private final SimpMessagingTemplate messagingTemplate;
-    private final OrderService orderService;
+    private final OrderChatParticipantService orderChatParticipantService;
     private final ChatMessageService chatMessageService;
 
     public ChatController(SimpMessagingTemplate messagingTemplate,
-            OrderService orderService,
+            OrderChatParticipantService orderChatParticipantService,
             ChatMessageService chatMessageService) {
         this.messagingTemplate = messagingTemplate;
-        this.orderService = orderService;
+        this.orderChatParticipantService = orderChatParticipantService;
         this.chatMessageService = chatMessageService;
     }
 
@@ -62,25 +61,24 @@ public class ChatController {
         message.setTimestamp(Instant.now());
         message.setOrderId(orderId);
 
-        // Verify order exists
-        Order order = orderService.getOrderById(orderId);
-        if (order == null) {
+        // Verify order exists (participants are cached per active order)
+        OrderChatParticipantService.Participants participants = orderChatParticipantService
+                .getParticipants(orderId);
+        if (participants == null) {
             log.error("Order {} not found", orderId);
             return;
         }
 
         // Check authorization - only driver and customer of the order can chat
-        if (!isUserAuthorizedForOrder(authenticatedUser, order)) {
+        if (!participants.isChatParticipant(authenticatedUser)) {
             log.warn("Unauthorized chat access: user '{}' tried to access order {} chat",
                     authenticatedUser, orderId);
             return;
         }
 
         // Get emails for both parties
-        String customerEmail = order.getCustomer() != null ? order.getCustomer().getEmail() : null;
-        String driverEmail = order.getDriver() != null && order.getDriver().getDriverProfile() != null
-                ? order.getDriver().getEmail()
-                : null;
+        String customerEmail = participants.getCustomerEmail();
+        String driverEmail = participants.isDriverHasProfile() ? participants.getDriverEmail() : null;
 
         // Send to customer via user-specific queue (if not the sender)
         if (customerEmail != null) {
@@ -126,12 +124,9 @@ public class ChatController {
             return;
         }
 
-        Order order = orderService.getOrderById(orderId);
-        if (order == null) {
-            return;
-        }
-
-        if (!isUserAuthorizedForOrder(authenticatedUser, order)) {
+        OrderChatParticipantService.Participants participants = orderChatParticipantService
+                .getParticipants(orderId);
+        if (participants == null || !participants.isChatParticipant(authenticatedUser)) {
             return;
         }
 
@@ -140,10 +135,10 @@ public class ChatController {
 
         if ("DRIVER".equals(message.getSenderType())) {
             // Driver is typing, notify customer
-            targetEmail = order.getCustomer() != null ? order.getCustomer().getEmail() : null;
+            targetEmail = participants.getCustomerEmail();
         } else if ("CUSTOMER".equals(message.getSenderType())) {
             // Customer is typing, notify driver
-            targetEmail = order.getDriver() != null ? order.getDriver().getEmail() : null;
+            targetEmail = participants.getDriverEmail();
         }
 
         if (targetEmail != null) {
@@ -154,28 +149,4 @@ public class ChatController {
             log.debug("Sent typing indicator to {} for order {}", targetEmail, orderId);
         }
     }
-
-    /**
-     * Check if the authenticated user is authorized to access this order's chat
-     * Only the customer and driver of the order can access the chat
-     */
-    private boolean isUserAuthorizedForOrder(String authenticatedUserEmail, Order order) {
-        if (authenticatedUserEmail == null) {
-            return false;
-        }
-
-        // Check if user is the customer
-        if (order.getCustomer() != null &&
-                authenticatedUserEmail.equals(order.getCustomer().getEmail())) {
-            return true;
-        }
-
-        // Check if user is the driver
-        if (order.getDriver() != null &&
-                authenticatedUserEmail.equals(order.getDriver().getEmail())) {
-            return true;
-        }
-
-        return false;
-    }
 }
@@ -1,16 +1,18 @@
 package com.example.FoodDelivery.controller;
 
+import java.security.Principal;
 import java.time.Instant;
+import java.util.Map;
 
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.stereotype.Controller;
 
 import com.example.FoodDelivery.domain.User;
 import com.example.FoodDelivery.domain.res.websocket.DriverLocationUpdate;
-import com.example.FoodDelivery.service.RedisGeoService;
+import com.example.FoodDelivery.service.DriverLocationIngestionService;
 import com.example.FoodDelivery.service.UserService;
-import com.example.FoodDelivery.util.error.IdInvalidException;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -18,71 +20,69 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class DriverLocationController {
 
-    private final RedisGeoService redisGeoService;
+    private static final String USER_ID_ATTRIBUTE = "userId";
+
+    private final DriverLocationIngestionService driverLocationIngestionService;
     private final UserService userService;
-    private final com.example.FoodDelivery.repository.OrderRepository orderRepository;
-    private final com.example.FoodDelivery.service.WebSocketService webSocketService;
 
     public DriverLocationController(
-            RedisGeoService redisGeoService,
-            UserService userService,
-            com.example.FoodDelivery.repository.OrderRepository orderRepository,
-            com.example.FoodDelivery.service.WebSocketService webSocketService) {
-        this.redisGeoService = redisGeoService;
+            DriverLocationIngestionService driverLocationIngestionService,
+            UserService userService) {
+        this.driverLocationIngestionService = driverLocationIngestionService;
         this.userService = userService;
-        this.orderRepository = orderRepository;
-        this.webSocketService = webSocketService;
     }
 
     /**
      * Handle driver location updates
      * Driver sends location via: /app/driver/location
-     * Location is stored in Redis GEO for real-time tracking
+     * Pings are coalesced per driver and written to Redis GEO in batches; the
+     * customer of the driver's active order receives throttled updates
      */
     @MessageMapping("/driver/location")
-    public void updateDriverLocation(@Payload DriverLocationUpdate locationUpdate) {
-        // Get authenticated driver
-        String currentUserEmail = com.example.FoodDelivery.util.SecurityUtil.getCurrentUserLogin()
-                .orElse(null);
-
-        if (currentUserEmail == null) {
-            log.error("User not authenticated");
-            return;
-        }
-
-        User driver = this.userService.handleGetUserByUsername(currentUserEmail);
-
-        if (driver == null) {
-            log.error("Driver not found: {}", currentUserEmail);
+    public void updateDriverLocation(@Payload DriverLocationUpdate locationUpdate,
+            SimpMessageHeaderAccessor headerAccessor,
+            Principal principal) {
+        Long driverId = resolveDriverId(headerAccessor, principal);
+        if (driverId == null) {
             return;
         }
 
         // Set timestamp
         locationUpdate.setTimestamp(Instant.now());
 
-        // Save location to Redis GEO
-        redisGeoService.updateDriverLocation(
-                driver.getId(),
-                locationUpdate.getLatitude(),
-                locationUpdate.getLongitude());
+        driverLocationIngestionService.submit(driverId, locationUpdate);
 
-        log.debug("📍 Driver {} location updated in Redis GEO: lat={}, lng={}",
-                driver.getId(),
+        log.debug("📍 Driver {} location received: lat={}, lng={}",
+                driverId,
                 locationUpdate.getLatitude(),
                 locationUpdate.getLongitude());
+    }
+
+    /**
+     * Driver ID from the WebSocket session, resolved from the principal only once
+     * per session when the handshake did not provide it
+     */
+    private Long resolveDriverId(SimpMessageHeaderAccessor headerAccessor, Principal principal) {
+        Map<String, Object> sessionAttributes = headerAccessor.getSessionAttributes();
+        if (sessionAttributes != null && sessionAttributes.get(USER_ID_ATTRIBUTE) instanceof Long userId) {
+            return userId;
+        }
+
+        String currentUserEmail = principal != null ? principal.getName() : null;
+        if (currentUserEmail == null) {
+            log.error("User not authenticated");
+            return null;
+        }
+
+        User driver = this.userService.handleGetUserByUsername(currentUserEmail);
+        if (driver == null) {
+            log.error("Driver not found: {}", currentUserEmail);
+            return null;
+        }
 
-        // Broadcast to customer if driver has active order
-        try {
-            java.util.List<String> activeStatuses = java.util.List.of("DRIVER_ASSIGNED", "On the way to restaurant",
-                    "Arrived at restaurant", "Picked up order", "DELIVERING", "Arrived at delivery location");
-            com.example.FoodDelivery.domain.Order activeOrder = orderRepository
-                    .findFirstByDriverIdAndOrderStatusIn(driver.getId(), activeStatuses);
-
-            if (activeOrder != null && activeOrder.getCustomer() != null) {
-                webSocketService.sendDriverLocationToCustomer(activeOrder.getCustomer().getEmail(), locationUpdate);
-            }
-        } catch (Exception e) {
-            log.error("Failed to broadcast driver location to customer", e);
+        if (sessionAttributes != null) {
+            sessionAttributes.put(USER_ID_ATTRIBUTE, driver.getId());
         }
+        return driver.getId();
     }
 }
@@ -4,7 +4,10 @@ import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -12,6 +15,7 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.example.FoodDelivery.domain.res.file.ResUploadFileDTO;
+import com.example.FoodDelivery.domain.res.file.ResUploadTicketDTO;
 import com.example.FoodDelivery.service.CloudinaryService;
 import com.example.FoodDelivery.util.annotation.ApiMessage;
 import com.example.FoodDelivery.util.error.StorageException;
@@ -29,32 +33,59 @@ public class FileController {
     @ApiMessage("Upload single file")
     public ResponseEntity<ResUploadFileDTO> uploadFile(
             @RequestParam(name = "file", required = false) MultipartFile file,
-            @RequestParam(name = "folder", required = false) String folder)
+            @RequestParam(name = "folder", required = false) String folder,
+            @RequestParam(name = "thumbnail", defaultValue = "false") boolean thumbnail)
             throws StorageException {
-        // Validate file
+        validateFile(file);
+
+        // Upload to Cloudinary
+        ResUploadTicketDTO uploaded = this.cloudinaryService.uploadFile(file, resolveFolder(folder), thumbnail);
+
+        ResUploadFileDTO res = new ResUploadFileDTO(uploaded.getFileName(), uploaded.getThumbnailUrl(),
+                Instant.now());
+
+        return ResponseEntity.ok().body(res);
+    }
+
+    @PostMapping("/files/async")
+    @ApiMessage("Submit file upload")
+    public ResponseEntity<ResUploadTicketDTO> submitFileUpload(
+            @RequestParam(name = "file", required = false) MultipartFile file,
+            @RequestParam(name = "folder", required = false) String folder,
+            @RequestParam(name = "thumbnail", defaultValue = "false") boolean thumbnail)
+            throws StorageException {
+        validateFile(file);
+        ResUploadTicketDTO ticket = this.cloudinaryService.submitUpload(file, resolveFolder(folder), thumbnail);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ticket);
+    }
+
+    @GetMapping("/files/uploads/{ticketId}")
+    @ApiMessage("Get file upload status")
+    public ResponseEntity<ResUploadTicketDTO> getFileUpload(@PathVariable("ticketId") String ticketId)
+            throws StorageException {
+        return ResponseEntity.ok(this.cloudinaryService.getUploadTicket(ticketId));
+    }
+
+    private void validateFile(MultipartFile file) throws StorageException {
         if (file == null || file.isEmpty()) {
             throw new StorageException("File is empty. Please upload a valid file.");
         }
 
         String fileName = file.getOriginalFilename();
         List<String> allowedExtensions = Arrays.asList("pdf", "jpg", "jpeg", "png", "doc", "docx");
-        boolean isValid = allowedExtensions.stream()
+        boolean isValid = fileName != null && allowedExtensions.stream()
                 .anyMatch(item -> fileName.toLowerCase().endsWith("." + item));
 
         if (!isValid) {
             throw new StorageException("Invalid file type. Allowed types are: " + String.join(", ", allowedExtensions));
         }
+    }
 
+    private String resolveFolder(String folder) {
         // Use "general" as default folder if not provided
         if (folder == null || folder.trim().isEmpty()) {
-            folder = "general";
+            return "general";
         }
-
-        // Upload to Cloudinary
-        String uploadedFileUrl = this.cloudinaryService.uploadFile(file, folder);
-
-        ResUploadFileDTO res = new ResUploadFileDTO(uploadedFileUrl, Instant.now());
-
-        return ResponseEntity.ok().body(res);
+        return folder;
     }
 }
@@ -55,6 +55,15 @@ public class MonthlyRevenueReportController {
         return ResponseEntity.status(HttpStatus.CREATED).body(report);
     }
 
+    @PostMapping("/monthly-revenue-reports/generate-all")
+    @ApiMessage("Generate monthly revenue reports for all restaurants")
+    public ResponseEntity<List<MonthlyRevenueReport>> generateAllMonthlyRevenueReports(
+            @RequestParam Integer month,
+            @RequestParam Integer year) throws IdInvalidException {
+        monthlyRevenueReportService.generateMonthlyRevenueReports(month, year);
+        return ResponseEntity.ok(monthlyRevenueReportService.getMonthlyRevenueReportsByMonthAndYear(month, year));
+    }
+
     @PostMapping("/monthly-revenue-reports/{id}/regenerate")
     @ApiMessage("Regenerate monthly revenue report")
     public ResponseEntity<MonthlyRevenueReport> regenerateMonthlyRevenueReport(@PathVariable("id") Long id)
@@ -8,6 +8,7 @@ import org.springframework.web.bind.annotation.*;
 
 import com.example.FoodDelivery.domain.res.report.*;
 import com.example.FoodDelivery.service.RestaurantReportService;
+import com.example.FoodDelivery.service.RestaurantRevenueRollupService;
 import com.example.FoodDelivery.util.annotation.ApiMessage;
 import com.example.FoodDelivery.util.error.IdInvalidException;
 
@@ -16,9 +17,12 @@ import com.example.FoodDelivery.util.error.IdInvalidException;
 public class RestaurantReportController {
 
     private final RestaurantReportService restaurantReportService;
+    private final RestaurantRevenueRollupService restaurantRevenueRollupService;
 
-    public RestaurantReportController(RestaurantReportService restaurantReportService) {
+    public RestaurantReportController(RestaurantReportService restaurantReportService,
+            RestaurantRevenueRollupService restaurantRevenueRollupService) {
         this.restaurantReportService = restaurantReportService;
+        this.restaurantRevenueRollupService = restaurantRevenueRollupService;
     }
 
     /**
@@ -97,4 +101,19 @@ public class RestaurantReportController {
         ReviewSummaryDTO summary = restaurantReportService.getReviewSummary(restaurantId);
         return ResponseEntity.ok(summary);
     }
+
+    /**
+     * Rebuild a restaurant's daily revenue rollup from its orders (admin)
+     * The rollup is dropped and refilled by the background sweep; reports stay
+     * exact in between
+     *
+     * @param restaurantId Restaurant ID
+     * @return Number of orders queued for the sweep
+     */
+    @PostMapping("/revenue-rollup/rebuild")
+    @ApiMessage("Rebuild daily revenue rollup for restaurant")
+    public ResponseEntity<Integer> rebuildRevenueRollup(@RequestParam Long restaurantId) {
+        int released = restaurantRevenueRollupService.rebuild(restaurantId);
+        return ResponseEntity.ok(released);
+    }
 }
@@ -1,87 +1,77 @@
 package com.example.FoodDelivery.controller;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
-
-import com.example.FoodDelivery.domain.DishCategory;
-import com.example.FoodDelivery.domain.Restaurant;
-import com.example.FoodDelivery.repository.DishCategoryRepository;
-import com.example.FoodDelivery.repository.RestaurantRepository;
+import org.springframework.web.context.request.WebRequest;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
+import com.example.FoodDelivery.service.SitemapService;
 
 @RestController
 public class SitemapController {
 
-    private final RestaurantRepository restaurantRepository;
-    private final DishCategoryRepository dishCategoryRepository;
+    private final SitemapService sitemapService;
 
-    public SitemapController(RestaurantRepository restaurantRepository,
-            DishCategoryRepository dishCategoryRepository) {
-        this.restaurantRepository = restaurantRepository;
-        this.dishCategoryRepository = dishCategoryRepository;
+    public SitemapController(SitemapService sitemapService) {
+        this.sitemapService = sitemapService;
     }
 
+    /**
+     * Sitemap index pointing to /sitemap-{page}.xml files
+     */
     @GetMapping(value = "/sitemap.xml", produces = MediaType.APPLICATION_XML_VALUE)
-    public ResponseEntity<String> getSitemap() {
-        StringBuilder sitemap = new StringBuilder();
-        // Auto-detect base URL from request (works with localhost and production)
-        String baseUrl = ServletUriComponentsBuilder.fromCurrentContextPath().build().toUriString();
-        String today = LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE);
-
-        // XML header
-        sitemap.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-        sitemap.append("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
-
-        // Homepage
-        sitemap.append("  <url>\n");
-        sitemap.append("    <loc>").append(baseUrl).append("/</loc>\n");
-        sitemap.append("    <lastmod>").append(today).append("</lastmod>\n");
-        sitemap.append("    <changefreq>daily</changefreq>\n");
-        sitemap.append("    <priority>1.0</priority>\n");
-        sitemap.append("  </url>\n");
+    public ResponseEntity<byte[]> getSitemap(WebRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return serve(sitemapService.getSitemap().getIndex(), request, acceptEncoding);
+    }
 
-        // All restaurants
-        List<Restaurant> restaurants = restaurantRepository.findAll();
-        for (Restaurant restaurant : restaurants) {
-            if (restaurant.getSlug() != null && !restaurant.getSlug().isEmpty()) {
-                sitemap.append("  <url>\n");
-                sitemap.append("    <loc>").append(baseUrl)
-                        .append("/restaurant/").append(restaurant.getSlug())
-                        .append("-").append(restaurant.getId())
-                        .append("</loc>\n");
-                sitemap.append("    <lastmod>").append(today).append("</lastmod>\n");
-                sitemap.append("    <changefreq>weekly</changefreq>\n");
-                sitemap.append("    <priority>0.8</priority>\n");
-                sitemap.append("  </url>\n");
-            }
+    @GetMapping(value = "/sitemap-{page:\\d+}.xml", produces = MediaType.APPLICATION_XML_VALUE)
+    public ResponseEntity<byte[]> getSitemapPage(@PathVariable("page") int page, WebRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        SitemapService.SitemapFile file = sitemapService.getSitemap().getPage(page);
+        if (file == null) {
+            return ResponseEntity.notFound().build();
         }
+        return serve(file, request, acceptEncoding);
+    }
 
-        // All dish categories
-        List<DishCategory> categories = dishCategoryRepository.findAll();
-        for (DishCategory category : categories) {
-            if (category.getSlug() != null && !category.getSlug().isEmpty()) {
-                sitemap.append("  <url>\n");
-                sitemap.append("    <loc>").append(baseUrl)
-                        .append("/category/").append(category.getSlug())
-                        .append("-").append(category.getId())
-                        .append("</loc>\n");
-                sitemap.append("    <lastmod>").append(today).append("</lastmod>\n");
-                sitemap.append("    <changefreq>weekly</changefreq>\n");
-                sitemap.append("    <priority>0.6</priority>\n");
-                sitemap.append("  </url>\n");
-            }
+    private ResponseEntity<byte[]> serve(SitemapService.SitemapFile file, WebRequest request,
+            String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        // Each encoding is a different representation, so it gets its own ETag
+        String etag = gzip ? file.getEtag().replaceFirst("\"$", "-gzip\"") : file.getEtag();
+        if (request.checkNotModified(etag, file.getLastModified().toEpochMilli())) {
+            return null;
         }
 
-        sitemap.append("</urlset>");
-
-        return ResponseEntity.ok()
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_XML)
-                .body(sitemap.toString());
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .eTag(etag)
+                .lastModified(file.getLastModified());
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(file.getGzipped());
+        }
+        return response.body(gunzip(file.getGzipped()));
+    }
+
+    private static byte[] gunzip(byte[] gzipped) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -7,8 +7,11 @@ import com.turkraft.springfilter.boot.Filter;
 
 import com.example.FoodDelivery.domain.Wallet;
 import com.example.FoodDelivery.domain.res.ResultPaginationDTO;
+import com.example.FoodDelivery.domain.res.wallet.ResWalletReconciliationDTO;
 import com.example.FoodDelivery.domain.res.wallet.resWalletDTO;
+import com.example.FoodDelivery.service.WalletLedgerService;
 import com.example.FoodDelivery.service.WalletService;
+import com.example.FoodDelivery.service.WalletTransactionService;
 import com.example.FoodDelivery.util.annotation.ApiMessage;
 import com.example.FoodDelivery.util.error.IdInvalidException;
 
@@ -19,16 +22,23 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @RestController
 @RequestMapping("/api/v1")
 public class WalletController {
     private final WalletService walletService;
+    private final WalletTransactionService walletTransactionService;
+    private final WalletLedgerService walletLedgerService;
 
-    public WalletController(WalletService walletService) {
+    public WalletController(WalletService walletService, WalletTransactionService walletTransactionService,
+            WalletLedgerService walletLedgerService) {
         this.walletService = walletService;
+        this.walletTransactionService = walletTransactionService;
+        this.walletLedgerService = walletLedgerService;
     }
 
     @PutMapping("/wallets")
@@ -42,16 +52,17 @@ public class WalletController {
     @ApiMessage("Add balance to wallet")
     public ResponseEntity<Wallet> addBalance(@PathVariable("id") Long id, @RequestBody BigDecimal amount)
             throws IdInvalidException {
-        Wallet wallet = walletService.addBalance(id, amount);
-        return ResponseEntity.ok(wallet);
+        // Recorded as a ledger entry so the balance stays reconcilable
+        walletTransactionService.depositToWallet(id, amount, "Manual balance adjustment");
+        return ResponseEntity.ok(walletService.getWalletById(id));
     }
 
     @PutMapping("/wallets/{id}/subtract-balance")
     @ApiMessage("Subtract balance from wallet")
     public ResponseEntity<Wallet> subtractBalance(@PathVariable("id") Long id, @RequestBody BigDecimal amount)
             throws IdInvalidException {
-        Wallet wallet = walletService.subtractBalance(id, amount);
-        return ResponseEntity.ok(wallet);
+        walletTransactionService.withdrawFromWallet(id, amount, "Manual balance adjustment");
+        return ResponseEntity.ok(walletService.getWalletById(id));
     }
 
     @GetMapping("/wallets")
@@ -72,6 +83,20 @@ public class WalletController {
         return ResponseEntity.ok(wallet);
     }
 
+    @GetMapping("/wallets/{id}/balance-at")
+    @ApiMessage("Get wallet balance at a point in time")
+    public ResponseEntity<BigDecimal> getBalanceAt(@PathVariable("id") Long id,
+            @RequestParam("at") Instant at) throws IdInvalidException {
+        return ResponseEntity.ok(walletLedgerService.getBalanceAt(id, at));
+    }
+
+    @GetMapping("/wallets/{id}/reconciliation")
+    @ApiMessage("Reconcile wallet balance against its ledger")
+    public ResponseEntity<ResWalletReconciliationDTO> reconcileWallet(@PathVariable("id") Long id)
+            throws IdInvalidException {
+        return ResponseEntity.ok(walletLedgerService.reconcile(id));
+    }
+
     @GetMapping("/wallets/my-wallet")
     @ApiMessage("Get current user's wallet")
     public ResponseEntity<resWalletDTO> getMyWallet() throws IdInvalidException {
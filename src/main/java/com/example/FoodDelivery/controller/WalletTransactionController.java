@@ -7,6 +7,7 @@ import com.turkraft.springfilter.boot.Filter;
 
 import com.example.FoodDelivery.domain.WalletTransaction;
 import com.example.FoodDelivery.domain.res.ResultPaginationDTO;
+import com.example.FoodDelivery.domain.res.wallet.ResWalletStatementDTO;
 import com.example.FoodDelivery.domain.res.walletTransaction.resWalletTransactionDTO;
 import com.example.FoodDelivery.service.WalletTransactionService;
 import com.example.FoodDelivery.util.annotation.ApiMessage;
@@ -22,8 +23,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 
@@ -138,6 +141,17 @@ public class WalletTransactionController {
         return ResponseEntity.ok(transactions);
     }
 
+    @GetMapping("/wallet-transactions/wallet/{walletId}/statement")
+    @ApiMessage("Get wallet statement for a time range")
+    public ResponseEntity<ResWalletStatementDTO> getWalletStatement(
+            @PathVariable("walletId") Long walletId,
+            @RequestParam("from") Instant from,
+            @RequestParam("to") Instant to,
+            Pageable pageable) throws IdInvalidException {
+        ResWalletStatementDTO statement = walletTransactionService.getWalletStatement(walletId, from, to, pageable);
+        return ResponseEntity.ok(statement);
+    }
+
     @GetMapping("/wallet-transactions/order/{orderId}")
     @ApiMessage("Get wallet transactions by order id")
     public ResponseEntity<List<resWalletTransactionDTO>> getWalletTransactionsByOrderId(
@@ -5,6 +5,8 @@ import lombok.*;
 import java.math.BigDecimal;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 @Entity
 @Table(name = "dishes")
 @Getter
@@ -36,6 +38,16 @@ public class Dish {
     private String imageUrl;
     private int availabilityQuantity;
 
+    // Cumulative sales of delivered orders; written only by bulk updates so saving
+    // a stale Dish (e.g. a stock change) cannot roll them back
+    @JsonIgnore
+    @Column(name = "sold_quantity", insertable = false, updatable = false)
+    private Long soldQuantity;
+
+    @JsonIgnore
+    @Column(name = "sold_revenue", precision = 15, scale = 2, insertable = false, updatable = false)
+    private BigDecimal soldRevenue;
+
     @OneToMany(mappedBy = "dish")
     private List<OrderItem> orderItems;
 
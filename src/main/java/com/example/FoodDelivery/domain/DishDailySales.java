@@ -0,0 +1,41 @@
+package com.example.FoodDelivery.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Quantity and revenue of one dish in delivered orders created on one day
+ */
+@Entity
+@Table(name = "dish_daily_sales", indexes = {
+        @Index(name = "idx_dish_daily_sales_dish_day", columnList = "dish_id, sales_date", unique = true),
+        @Index(name = "idx_dish_daily_sales_restaurant_day", columnList = "restaurant_id, sales_date")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DishDailySales {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "dish_id")
+    private Dish dish;
+
+    @ManyToOne
+    @JoinColumn(name = "restaurant_id")
+    private Restaurant restaurant;
+
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    private Long quantity;
+
+    @Column(precision = 15, scale = 2)
+    private BigDecimal revenue;
+}
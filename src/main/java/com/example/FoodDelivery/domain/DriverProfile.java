@@ -37,6 +37,10 @@ public class DriverProfile {
     @Column(precision = 3, scale = 2)
     private BigDecimal averageRating;
 
+    // Review count and rating sum behind averageRating; null until first computed
+    private Integer reviewCount;
+    private Long ratingSum;
+
     @Column(precision = 10, scale = 2)
     private BigDecimal codLimit;
 
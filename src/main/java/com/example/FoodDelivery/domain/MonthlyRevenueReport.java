@@ -6,7 +6,9 @@ import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
-@Table(name = "monthly_revenue_reports")
+@Table(name = "monthly_revenue_reports", indexes = {
+        @Index(name = "idx_monthly_revenue_restaurant_period", columnList = "restaurant_id, month, year", unique = true)
+})
 @Getter
 @Setter
 @NoArgsConstructor
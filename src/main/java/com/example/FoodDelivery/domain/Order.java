@@ -9,7 +9,10 @@ import java.util.List;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_revenue_rollup", columnList = "revenue_rolled_up, order_status"),
+        @Index(name = "idx_orders_dish_sales_rollup", columnList = "dish_sales_rolled_up, order_status")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -51,6 +54,13 @@ public class Order {
     @Column(columnDefinition = "TEXT")
     private String specialInstructions;
 
+    // Restaurant-to-customer driving route, computed once when the order is placed
+    @Column(precision = 10, scale = 2)
+    private BigDecimal routeDistanceKm;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal routeDurationMinutes;
+
     @Column(precision = 10, scale = 2)
     private BigDecimal subtotal;
 
@@ -74,6 +84,17 @@ public class Order {
     private Instant deliveredAt;
     private Instant assignedAt;
 
+    // Set once the order is counted in restaurant_daily_revenue; written only by
+    // bulk updates so saving a stale entity cannot clear it
+    @JsonIgnore
+    @Column(name = "revenue_rolled_up", insertable = false, updatable = false)
+    private Boolean revenueRolledUp;
+
+    // Set once the order's items are counted in the dish sales counters
+    @JsonIgnore
+    @Column(name = "dish_sales_rolled_up", insertable = false, updatable = false)
+    private Boolean dishSalesRolledUp;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
     private List<OrderItem> orderItems;
 
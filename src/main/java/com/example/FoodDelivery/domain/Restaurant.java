@@ -65,6 +65,10 @@ public class Restaurant {
     @Column(name = "five_star_count")
     private Integer fiveStarCount;
 
+    // Sum of all review ratings; null until the rating aggregates are first computed
+    @Column(name = "rating_sum")
+    private Long ratingSum;
+
     @Column(columnDefinition = "TEXT")
     private String schedule; // e.g., "09:00-21:00" or JSON format for complex schedules
 
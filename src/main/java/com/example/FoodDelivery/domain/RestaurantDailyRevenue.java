@@ -0,0 +1,60 @@
+package com.example.FoodDelivery.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Per-restaurant, per-day totals of finished orders, keyed by the day the order
+ * was created. Money columns only count delivered orders.
+ */
+@Entity
+@Table(name = "restaurant_daily_revenue", indexes = {
+        @Index(name = "idx_restaurant_daily_revenue_day", columnList = "restaurant_id, revenue_date", unique = true)
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RestaurantDailyRevenue {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "restaurant_id")
+    private Restaurant restaurant;
+
+    @Column(name = "revenue_date")
+    private LocalDate revenueDate;
+
+    @Column(name = "delivered_orders")
+    private Integer deliveredOrders;
+
+    @Column(name = "cancelled_orders")
+    private Integer cancelledOrders;
+
+    @Column(name = "rejected_orders")
+    private Integer rejectedOrders;
+
+    @Column(name = "food_revenue", precision = 15, scale = 2)
+    private BigDecimal foodRevenue;
+
+    @Column(name = "delivery_fee", precision = 15, scale = 2)
+    private BigDecimal deliveryFee;
+
+    @Column(name = "discount_amount", precision = 15, scale = 2)
+    private BigDecimal discountAmount;
+
+    @Column(name = "commission_amount", precision = 15, scale = 2)
+    private BigDecimal commissionAmount;
+
+    @Column(name = "net_revenue", precision = 15, scale = 2)
+    private BigDecimal netRevenue;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+}
@@ -21,9 +21,15 @@ public class Wallet {
     @JoinColumn(name = "user_id", unique = true)
     private User user;
 
-    @Column(precision = 15, scale = 2)
+    // Only changed by the atomic credit/debit queries in WalletRepository; an
+    // entity save must never write back a stale value
+    @Column(precision = 15, scale = 2, updatable = false)
     private BigDecimal balance;
 
+    // Sequence number of the latest ledger entry (incremented with the balance)
+    @Column(updatable = false)
+    private Long lastSequenceNumber;
+
     @OneToMany(mappedBy = "wallet")
     private List<WalletTransaction> transactions;
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.example.FoodDelivery.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Wallet balance right after a given ledger entry; sequence 0 is the balance
+ * before the wallet's first ledger entry
+ */
+@Entity
+@Table(name = "wallet_balance_snapshots", indexes = {
+        @Index(name = "idx_wallet_snapshots_wallet_seq", columnList = "wallet_id, sequence_number", unique = true)
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletBalanceSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "wallet_id")
+    private Wallet wallet;
+
+    private Long sequenceNumber;
+
+    @Column(precision = 15, scale = 2)
+    private BigDecimal balance;
+
+    // Creation time of the ledger entry at sequenceNumber
+    private Instant snapshotAt;
+
+    private Instant createdAt;
+}
@@ -6,7 +6,9 @@ import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
-@Table(name = "wallet_transactions")
+@Table(name = "wallet_transactions", indexes = {
+        @Index(name = "idx_wallet_transactions_wallet_seq", columnList = "wallet_id, sequence_number", unique = true)
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -38,6 +40,9 @@ public class WalletTransaction {
     @Column(precision = 15, scale = 2)
     private BigDecimal balanceAfter;
 
+    // Position in the wallet's append-only ledger; set once the amount is applied
+    private Long sequenceNumber;
+
     private Instant createdAt;
 
     private Instant transactionDate;
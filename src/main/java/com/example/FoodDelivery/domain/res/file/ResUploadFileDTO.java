@@ -13,5 +13,7 @@ import lombok.Setter;
 @AllArgsConstructor
 public class ResUploadFileDTO {
     private String fileName;
+    // Only set when a thumbnail was requested for an image
+    private String thumbnailUrl;
     private Instant uploadedAt;
 }
@@ -0,0 +1,23 @@
+package com.example.FoodDelivery.domain.res.file;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResUploadTicketDTO {
+    private String ticketId;
+    // PENDING, PROCESSING, COMPLETED, FAILED
+    private String status;
+    private String fileName;
+    private String thumbnailUrl;
+    private String error;
+    private Instant createdAt;
+    private Instant completedAt;
+}
@@ -0,0 +1,24 @@
+package com.example.FoodDelivery.domain.res.wallet;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResWalletReconciliationDTO {
+    private Long walletId;
+    private BigDecimal walletBalance;
+    private BigDecimal ledgerBalance;
+    private Long walletSequenceNumber;
+    private Long ledgerSequenceNumber;
+    // Snapshot the check started from and entries summed after it
+    private Long snapshotSequenceNumber;
+    private long entriesChecked;
+    private boolean consistent;
+}
@@ -0,0 +1,25 @@
+package com.example.FoodDelivery.domain.res.wallet;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import com.example.FoodDelivery.domain.res.ResultPaginationDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResWalletStatementDTO {
+    private Long walletId;
+    private Instant from;
+    private Instant to;
+    // null when the range starts before the wallet's ledger history
+    private BigDecimal openingBalance;
+    private BigDecimal closingBalance;
+    private ResultPaginationDTO transactions;
+}
@@ -21,6 +21,7 @@ public class resWalletTransactionDTO {
     private String description;
     private String status;
     private BigDecimal balanceAfter;
+    private Long sequenceNumber;
     private Instant createdAt;
     private Instant transactionDate;
 
@@ -1,7 +1,10 @@
 package com.example.FoodDelivery.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.FoodDelivery.domain.DishCategory;
@@ -14,4 +17,9 @@ public interface DishCategoryRepository
     List<DishCategory> findByRestaurantIdOrderByDisplayOrderAsc(Long restaurantId);
 
     boolean existsByNameAndRestaurantId(String name, Long restaurantId);
+
+    // Sitemap rows after a given id: [id, slug]
+    @Query("SELECT c.id, c.slug FROM DishCategory c WHERE c.id > :afterId AND c.slug IS NOT NULL AND c.slug <> '' " +
+            "ORDER BY c.id")
+    List<Object[]> findSitemapEntries(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -0,0 +1,36 @@
+package com.example.FoodDelivery.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.FoodDelivery.domain.DishDailySales;
+
+@Repository
+public interface DishDailySalesRepository extends JpaRepository<DishDailySales, Long> {
+
+    /**
+     * Add sold quantity and revenue to a dish's day, creating the row on first use
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO dish_daily_sales (dish_id, restaurant_id, sales_date, quantity, revenue) "
+            + "VALUES (:dishId, :restaurantId, :day, :quantity, :revenue) "
+            + "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), revenue = revenue + VALUES(revenue)",
+            nativeQuery = true)
+    int addSales(@Param("dishId") Long dishId, @Param("restaurantId") Long restaurantId,
+            @Param("day") LocalDate day, @Param("quantity") long quantity, @Param("revenue") BigDecimal revenue);
+
+    // [dishId, quantity] of a restaurant between two days, best sellers first
+    @Query("SELECT s.dish.id, SUM(s.quantity) FROM DishDailySales s " +
+            "WHERE s.restaurant.id = :restaurantId AND s.salesDate BETWEEN :from AND :to " +
+            "GROUP BY s.dish.id ORDER BY SUM(s.quantity) DESC")
+    List<Object[]> findTopDishes(@Param("restaurantId") Long restaurantId, @Param("from") LocalDate from,
+            @Param("to") LocalDate to, Pageable pageable);
+}
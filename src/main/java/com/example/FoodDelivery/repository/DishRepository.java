@@ -2,10 +2,14 @@ package com.example.FoodDelivery.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.FoodDelivery.domain.Dish;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @Repository
@@ -15,4 +19,12 @@ public interface DishRepository extends JpaRepository<Dish, Long>, JpaSpecificat
     List<Dish> findByCategoryId(Long categoryId);
 
     boolean existsByNameAndRestaurantId(String name, Long restaurantId);
+
+    /**
+     * Add delivered sales to a dish's cumulative counters
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Dish d SET d.soldQuantity = COALESCE(d.soldQuantity, 0) + :quantity, " +
+            "d.soldRevenue = COALESCE(d.soldRevenue, 0) + :revenue WHERE d.id = :id")
+    int addSales(@Param("id") Long id, @Param("quantity") long quantity, @Param("revenue") BigDecimal revenue);
 }
@@ -2,6 +2,7 @@ package com.example.FoodDelivery.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -17,6 +18,8 @@ public interface DriverProfileRepository
                 extends JpaRepository<DriverProfile, Long>, JpaSpecificationExecutor<DriverProfile> {
         Optional<DriverProfile> findByUserId(Long userId);
 
+        List<DriverProfile> findByUserIdIn(List<Long> userIds);
+
         boolean existsByUserId(Long userId);
 
         /**
@@ -51,4 +54,42 @@ public interface DriverProfileRepository
          * Used for supply/demand calculation in dynamic pricing
          */
         long countByStatus(String status);
+
+        /**
+         * Get user IDs of drivers by status
+         * Used by the per-zone surge computation
+         */
+        @Query("SELECT dp.user.id FROM DriverProfile dp WHERE dp.status = :status")
+        List<Long> findUserIdsByStatus(@Param("status") String status);
+
+        /**
+         * Add deltas to the review count and rating sum in place
+         * Only touches profiles whose aggregates are initialized; returns 0 otherwise
+         */
+        @Modifying(flushAutomatically = true)
+        @Query("UPDATE DriverProfile dp SET dp.reviewCount = dp.reviewCount + :count, " +
+                        "dp.ratingSum = dp.ratingSum + :sum " +
+                        "WHERE dp.user.id = :userId AND dp.ratingSum IS NOT NULL AND dp.reviewCount IS NOT NULL")
+        int addRatingDelta(@Param("userId") Long userId, @Param("count") int count, @Param("sum") long sum);
+
+        /**
+         * Overwrite the review count and rating sum with freshly counted values
+         */
+        @Modifying(flushAutomatically = true)
+        @Query("UPDATE DriverProfile dp SET dp.reviewCount = :count, dp.ratingSum = :sum " +
+                        "WHERE dp.user.id = :userId")
+        int setRatingAggregates(@Param("userId") Long userId, @Param("count") int count, @Param("sum") long sum);
+
+        /**
+         * Recompute averageRating from the stored review count and rating sum
+         */
+        @Modifying(flushAutomatically = true)
+        @Query("UPDATE DriverProfile dp SET dp.averageRating = CASE WHEN dp.reviewCount > 0 " +
+                        "THEN CAST(dp.ratingSum AS BigDecimal) / dp.reviewCount ELSE NULL END " +
+                        "WHERE dp.user.id = :userId")
+        int refreshAverageRating(@Param("userId") Long userId);
+
+        // Stored rating aggregates: [userId, reviewCount, ratingSum]
+        @Query("SELECT dp.user.id, dp.reviewCount, dp.ratingSum FROM DriverProfile dp")
+        List<Object[]> findAllRatingAggregates();
 }
@@ -15,6 +15,7 @@ import java.util.Optional;
 @Repository
 public interface OrderEarningsSummaryRepository extends JpaRepository<OrderEarningsSummary, Long>, JpaSpecificationExecutor<OrderEarningsSummary> {
     Optional<OrderEarningsSummary> findByOrderId(Long orderId);
+    List<OrderEarningsSummary> findByOrderIdIn(List<Long> orderIds);
     List<OrderEarningsSummary> findByDriverId(Long driverId);
     List<OrderEarningsSummary> findByRestaurantId(Long restaurantId);
     List<OrderEarningsSummary> findByRecordedAtBetween(Instant startDate, Instant endDate);
@@ -27,4 +28,15 @@ public interface OrderEarningsSummaryRepository extends JpaRepository<OrderEarni
     
     @Query("SELECT SUM(o.platformTotalEarning) FROM OrderEarningsSummary o WHERE o.recordedAt BETWEEN ?1 AND ?2")
     BigDecimal sumPlatformEarnings(Instant startDate, Instant endDate);
+
+    // Per-restaurant totals for a period: [restaurantId, subtotal, commission, netEarning, orderCount]
+    @Query("SELECT o.restaurant.id, SUM(o.orderSubtotal), SUM(o.restaurantCommissionAmount), " +
+            "SUM(o.restaurantNetEarning), COUNT(o) FROM OrderEarningsSummary o " +
+            "WHERE o.recordedAt BETWEEN ?1 AND ?2 AND o.restaurant IS NOT NULL GROUP BY o.restaurant.id")
+    List<Object[]> sumRestaurantTotalsByRecordedAtBetween(Instant startDate, Instant endDate);
+
+    // Totals of one restaurant for a period: [subtotal, commission, netEarning, orderCount]
+    @Query("SELECT SUM(o.orderSubtotal), SUM(o.restaurantCommissionAmount), SUM(o.restaurantNetEarning), " +
+            "COUNT(o) FROM OrderEarningsSummary o WHERE o.restaurant.id = ?1 AND o.recordedAt BETWEEN ?2 AND ?3")
+    List<Object[]> sumRestaurantTotals(Long restaurantId, Instant startDate, Instant endDate);
 }
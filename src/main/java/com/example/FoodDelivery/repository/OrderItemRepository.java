@@ -2,6 +2,8 @@ package com.example.FoodDelivery.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.FoodDelivery.domain.OrderItem;
@@ -13,4 +15,9 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long>, Jpa
     List<OrderItem> findByOrderId(Long orderId);
 
     List<OrderItem> findByDishId(Long dishId);
+
+    // Sold lines of one order: [dishId, quantity, priceAtPurchase, dish price]
+    @Query("SELECT d.id, COALESCE(oi.quantity, 1), oi.priceAtPurchase, d.price FROM OrderItem oi " +
+            "JOIN oi.dish d WHERE oi.order.id = :orderId")
+    List<Object[]> findSalesLinesByOrderId(@Param("orderId") Long orderId);
 }
@@ -1,20 +1,46 @@
 package com.example.FoodDelivery.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.FoodDelivery.domain.Order;
+import com.example.FoodDelivery.domain.OrderItem;
 
+import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
         List<Order> findByCustomerId(Long customerId);
 
+        /**
+         * Batch-load vouchers for a page of orders already in the persistence
+         * context
+         */
+        @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.vouchers WHERE o.id IN :ids")
+        List<Order> fetchVouchersByIdIn(@Param("ids") List<Long> ids);
+
+        /**
+         * Batch-load order items and their dishes for a page of orders
+         */
+        @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems oi LEFT JOIN FETCH oi.dish "
+                        + "WHERE o.id IN :ids")
+        List<Order> fetchOrderItemsByIdIn(@Param("ids") List<Long> ids);
+
+        /**
+         * Batch-load item options and their menu options for a page of orders
+         */
+        @Query("SELECT DISTINCT oi FROM OrderItem oi LEFT JOIN FETCH oi.orderItemOptions oio "
+                        + "LEFT JOIN FETCH oio.menuOption WHERE oi.order.id IN :ids")
+        List<OrderItem> fetchOrderItemOptionsByOrderIdIn(@Param("ids") List<Long> ids);
+
         List<Order> findByRestaurantId(Long restaurantId);
 
         List<Order> findByDriverId(Long driverId);
@@ -51,6 +77,20 @@ public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecific
         // driver)
         long countByOrderStatusInAndDriverIsNull(java.util.List<String> statuses);
 
+        // Restaurant [latitude, longitude] of each order waiting for a driver (per-zone
+        // surge demand)
+        @Query("SELECT o.restaurant.latitude, o.restaurant.longitude FROM Order o " +
+                        "WHERE o.orderStatus IN :statuses AND o.driver IS NULL")
+        List<Object[]> findRestaurantLocationsByOrderStatusInAndDriverIsNull(
+                        @Param("statuses") List<String> statuses);
+
+        // Chat participants of one order: [customerId, customerEmail, driverId,
+        // driverEmail, driverProfileId, ownerId, ownerEmail, orderStatus]
+        @Query("SELECT c.id, c.email, d.id, d.email, dp.id, ow.id, ow.email, o.orderStatus FROM Order o " +
+                        "LEFT JOIN o.customer c LEFT JOIN o.driver d LEFT JOIN d.driverProfile dp " +
+                        "LEFT JOIN o.restaurant r LEFT JOIN r.owner ow WHERE o.id = :orderId")
+        List<Object[]> findChatParticipantsById(@Param("orderId") Long orderId);
+
         // Find orders that have been assigned to driver but not accepted yet and exceed
         // timeout
         List<Order> findByOrderStatusAndDriverIsNotNullAndAssignedAtBefore(String orderStatus, Instant assignedAt);
@@ -64,4 +104,85 @@ public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecific
 
         // Find active order for driver (for location tracking)
         Order findFirstByDriverIdAndOrderStatusIn(Long driverId, List<String> statuses);
+
+        // [driverId, orderId, customerEmail] of active orders for a set of drivers
+        @Query("SELECT o.driver.id, o.id, c.email FROM Order o JOIN o.customer c " +
+                        "WHERE o.driver.id IN :driverIds AND o.orderStatus IN :statuses")
+        List<Object[]> findActiveDeliveriesByDriverIdIn(@Param("driverIds") Collection<Long> driverIds,
+                        @Param("statuses") List<String> statuses);
+
+        // Daily revenue rollup
+
+        // Mark a finished order as counted in the rollup; returns 0 if it already was
+        @Modifying(flushAutomatically = true)
+        @Query("UPDATE Order o SET o.revenueRolledUp = true WHERE o.id = :id AND o.orderStatus IN :statuses " +
+                        "AND (o.revenueRolledUp IS NULL OR o.revenueRolledUp = false)")
+        int claimForRevenueRollup(@Param("id") Long id, @Param("statuses") List<String> statuses);
+
+        @Modifying(flushAutomatically = true)
+        @Query("UPDATE Order o SET o.revenueRolledUp = false WHERE o.restaurant.id = :restaurantId " +
+                        "AND o.revenueRolledUp = true")
+        int releaseRevenueRollup(@Param("restaurantId") Long restaurantId);
+
+        // Take one order back out of the rollup; returns 0 if it was not in it
+        @Modifying(flushAutomatically = true)
+        @Query("UPDATE Order o SET o.revenueRolledUp = false WHERE o.id = :id AND o.revenueRolledUp = true")
+        int releaseRevenueRollupById(@Param("id") Long id);
+
+        @Query("SELECT o.id FROM Order o WHERE o.orderStatus IN :statuses " +
+                        "AND (o.revenueRolledUp IS NULL OR o.revenueRolledUp = false) ORDER BY o.id")
+        List<Long> findIdsPendingRevenueRollup(@Param("statuses") List<String> statuses, Pageable pageable);
+
+        // Dish sales counters
+
+        // Mark a delivered order as counted in the dish sales; returns 0 if it already was
+        @Modifying(flushAutomatically = true)
+        @Query("UPDATE Order o SET o.dishSalesRolledUp = true WHERE o.id = :id AND o.orderStatus = 'DELIVERED' " +
+                        "AND (o.dishSalesRolledUp IS NULL OR o.dishSalesRolledUp = false)")
+        int claimForDishSales(@Param("id") Long id);
+
+        // Take one order back out of the dish sales; returns 0 if it was not in it
+        @Modifying(flushAutomatically = true)
+        @Query("UPDATE Order o SET o.dishSalesRolledUp = false WHERE o.id = :id AND o.dishSalesRolledUp = true")
+        int releaseDishSalesById(@Param("id") Long id);
+
+        @Query("SELECT o.id FROM Order o WHERE o.orderStatus = 'DELIVERED' " +
+                        "AND (o.dishSalesRolledUp IS NULL OR o.dishSalesRolledUp = false) ORDER BY o.id")
+        List<Long> findIdsPendingDishSales(Pageable pageable);
+
+        // Route metrics backfill
+
+        // [id, restaurantLat, restaurantLng, deliveryLat, deliveryLng] of orders placed
+        // before the route was stored on the order
+        @Query("SELECT o.id, r.latitude, r.longitude, o.deliveryLatitude, o.deliveryLongitude FROM Order o " +
+                        "JOIN o.restaurant r WHERE o.id > :afterId AND o.routeDistanceKm IS NULL " +
+                        "AND o.deliveryLatitude IS NOT NULL AND o.deliveryLongitude IS NOT NULL " +
+                        "AND r.latitude IS NOT NULL AND r.longitude IS NOT NULL ORDER BY o.id")
+        List<Object[]> findMissingRoutes(@Param("afterId") Long afterId, Pageable pageable);
+
+        // Store the route unless one was stored meanwhile (e.g. delivery address changed)
+        @Modifying
+        @Query("UPDATE Order o SET o.routeDistanceKm = :distanceKm, o.routeDurationMinutes = :durationMinutes " +
+                        "WHERE o.id = :id AND o.routeDistanceKm IS NULL")
+        int setRouteMetricsIfMissing(@Param("id") Long id, @Param("distanceKm") BigDecimal distanceKm,
+                        @Param("durationMinutes") BigDecimal durationMinutes);
+
+        // Revenue figures of one order: [restaurantId, createdAt, orderStatus, subtotal,
+        // deliveryFee, discountAmount, commissionAmount, netEarning]
+        @Query("SELECT o.restaurant.id, o.createdAt, o.orderStatus, o.subtotal, o.deliveryFee, o.discountAmount, " +
+                        "s.restaurantCommissionAmount, s.restaurantNetEarning FROM Order o " +
+                        "LEFT JOIN OrderEarningsSummary s ON s.order = o WHERE o.id = :id")
+        List<Object[]> findRevenueFiguresById(@Param("id") Long id);
+
+        // Same figures for a restaurant's orders not in the rollup yet (still in
+        // flight, or finished but not counted)
+        @Query("SELECT o.restaurant.id, o.createdAt, o.orderStatus, o.subtotal, o.deliveryFee, o.discountAmount, " +
+                        "s.restaurantCommissionAmount, s.restaurantNetEarning FROM Order o " +
+                        "LEFT JOIN OrderEarningsSummary s ON s.order = o " +
+                        "WHERE o.restaurant.id = :restaurantId AND o.createdAt BETWEEN :startDate AND :endDate " +
+                        "AND (o.orderStatus NOT IN :statuses OR o.revenueRolledUp IS NULL " +
+                        "OR o.revenueRolledUp = false)")
+        List<Object[]> findUnrolledRevenueFigures(@Param("restaurantId") Long restaurantId,
+                        @Param("startDate") Instant startDate, @Param("endDate") Instant endDate,
+                        @Param("statuses") List<String> statuses);
 }
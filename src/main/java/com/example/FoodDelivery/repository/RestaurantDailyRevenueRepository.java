@@ -0,0 +1,48 @@
+package com.example.FoodDelivery.repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.FoodDelivery.domain.RestaurantDailyRevenue;
+
+@Repository
+public interface RestaurantDailyRevenueRepository extends JpaRepository<RestaurantDailyRevenue, Long> {
+    List<RestaurantDailyRevenue> findByRestaurantIdAndRevenueDateBetweenOrderByRevenueDateAsc(Long restaurantId,
+            LocalDate from, LocalDate to);
+
+    /**
+     * Add one finished order to its restaurant's day, creating the row on first use
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO restaurant_daily_revenue (restaurant_id, revenue_date, delivered_orders, "
+            + "cancelled_orders, rejected_orders, food_revenue, delivery_fee, discount_amount, commission_amount, "
+            + "net_revenue, updated_at) VALUES (:restaurantId, :day, :delivered, :cancelled, :rejected, "
+            + ":foodRevenue, :deliveryFee, :discountAmount, :commissionAmount, :netRevenue, :updatedAt) "
+            + "ON DUPLICATE KEY UPDATE delivered_orders = delivered_orders + VALUES(delivered_orders), "
+            + "cancelled_orders = cancelled_orders + VALUES(cancelled_orders), "
+            + "rejected_orders = rejected_orders + VALUES(rejected_orders), "
+            + "food_revenue = food_revenue + VALUES(food_revenue), "
+            + "delivery_fee = delivery_fee + VALUES(delivery_fee), "
+            + "discount_amount = discount_amount + VALUES(discount_amount), "
+            + "commission_amount = commission_amount + VALUES(commission_amount), "
+            + "net_revenue = net_revenue + VALUES(net_revenue), "
+            + "updated_at = VALUES(updated_at)", nativeQuery = true)
+    int addOrder(@Param("restaurantId") Long restaurantId, @Param("day") LocalDate day,
+            @Param("delivered") int delivered, @Param("cancelled") int cancelled, @Param("rejected") int rejected,
+            @Param("foodRevenue") BigDecimal foodRevenue, @Param("deliveryFee") BigDecimal deliveryFee,
+            @Param("discountAmount") BigDecimal discountAmount,
+            @Param("commissionAmount") BigDecimal commissionAmount,
+            @Param("netRevenue") BigDecimal netRevenue, @Param("updatedAt") Instant updatedAt);
+
+    @Modifying
+    @Query("DELETE FROM RestaurantDailyRevenue r WHERE r.restaurant.id = :restaurantId")
+    int deleteByRestaurantId(@Param("restaurantId") Long restaurantId);
+}
@@ -1,11 +1,17 @@
 package com.example.FoodDelivery.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.FoodDelivery.domain.Restaurant;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -19,4 +25,62 @@ public interface RestaurantRepository extends JpaRepository<Restaurant, Long>, J
     Optional<Restaurant> findByOwnerId(Long ownerId);
 
     Optional<Restaurant> findByName(String name);
+
+    @Query("SELECT r.id FROM Restaurant r")
+    List<Long> findAllIds();
+
+    // Sitemap rows after a given id: [id, slug]
+    @Query("SELECT r.id, r.slug FROM Restaurant r WHERE r.id > :afterId AND r.slug IS NOT NULL AND r.slug <> '' " +
+            "ORDER BY r.id")
+    List<Object[]> findSitemapEntries(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Lightweight rows for the spatial index: [id, latitude, longitude, status]
+    @Query("SELECT r.id, r.latitude, r.longitude, r.status FROM Restaurant r")
+    List<Object[]> findAllLocations();
+
+    @Query("SELECT r.id, r.latitude, r.longitude, r.status FROM Restaurant r WHERE r.id IN :ids")
+    List<Object[]> findLocationsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Add deltas to the star buckets and rating sum in place
+     * Only touches restaurants whose aggregates are initialized (rating_sum set);
+     * returns 0 otherwise so the caller can recompute instead
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Restaurant r SET r.oneStarCount = COALESCE(r.oneStarCount, 0) + :one, " +
+            "r.twoStarCount = COALESCE(r.twoStarCount, 0) + :two, " +
+            "r.threeStarCount = COALESCE(r.threeStarCount, 0) + :three, " +
+            "r.fourStarCount = COALESCE(r.fourStarCount, 0) + :four, " +
+            "r.fiveStarCount = COALESCE(r.fiveStarCount, 0) + :five, " +
+            "r.ratingSum = r.ratingSum + :sum " +
+            "WHERE r.id = :id AND r.ratingSum IS NOT NULL")
+    int addRatingDelta(@Param("id") Long id, @Param("one") int one, @Param("two") int two,
+            @Param("three") int three, @Param("four") int four, @Param("five") int five,
+            @Param("sum") long sum);
+
+    /**
+     * Overwrite the star buckets and rating sum with freshly counted values
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Restaurant r SET r.oneStarCount = :one, r.twoStarCount = :two, r.threeStarCount = :three, " +
+            "r.fourStarCount = :four, r.fiveStarCount = :five, r.ratingSum = :sum WHERE r.id = :id")
+    int setRatingAggregates(@Param("id") Long id, @Param("one") int one, @Param("two") int two,
+            @Param("three") int three, @Param("four") int four, @Param("five") int five,
+            @Param("sum") long sum);
+
+    /**
+     * Recompute averageRating from the stored sum and star buckets
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Restaurant r SET r.averageRating = CASE " +
+            "WHEN (r.oneStarCount + r.twoStarCount + r.threeStarCount + r.fourStarCount + r.fiveStarCount) > 0 " +
+            "THEN CAST(r.ratingSum AS BigDecimal) / " +
+            "(r.oneStarCount + r.twoStarCount + r.threeStarCount + r.fourStarCount + r.fiveStarCount) " +
+            "ELSE NULL END WHERE r.id = :id")
+    int refreshAverageRating(@Param("id") Long id);
+
+    // Stored rating aggregates: [id, one, two, three, four, five, ratingSum]
+    @Query("SELECT r.id, r.oneStarCount, r.twoStarCount, r.threeStarCount, r.fourStarCount, r.fiveStarCount, " +
+            "r.ratingSum FROM Restaurant r")
+    List<Object[]> findAllRatingAggregates();
 }
@@ -2,6 +2,8 @@ package com.example.FoodDelivery.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.FoodDelivery.domain.Review;
@@ -24,4 +26,27 @@ public interface ReviewRepository extends JpaRepository<Review, Long>, JpaSpecif
     Long countByReviewTargetAndTargetNameAndRating(String reviewTarget, String targetName, Integer rating);
 
     Long countByReviewTargetAndTargetNameAndReplyIsNotNull(String reviewTarget, String targetName);
+
+    // Rating aggregation (keyed by the reviewed order's restaurant / driver)
+
+    // [restaurantId, rating, count] over all restaurant reviews
+    @Query("SELECT o.restaurant.id, r.rating, COUNT(r) FROM Review r JOIN r.order o " +
+            "WHERE LOWER(r.reviewTarget) = 'restaurant' AND o.restaurant IS NOT NULL " +
+            "GROUP BY o.restaurant.id, r.rating")
+    List<Object[]> countRestaurantRatings();
+
+    // [rating, count] for one restaurant
+    @Query("SELECT r.rating, COUNT(r) FROM Review r JOIN r.order o " +
+            "WHERE LOWER(r.reviewTarget) = 'restaurant' AND o.restaurant.id = :restaurantId GROUP BY r.rating")
+    List<Object[]> countRatingsByRestaurantId(@Param("restaurantId") Long restaurantId);
+
+    // [driverUserId, count, sum] over all driver reviews
+    @Query("SELECT o.driver.id, COUNT(r), SUM(r.rating) FROM Review r JOIN r.order o " +
+            "WHERE LOWER(r.reviewTarget) = 'driver' AND o.driver IS NOT NULL GROUP BY o.driver.id")
+    List<Object[]> summarizeDriverRatings();
+
+    // [count, sum] for one driver
+    @Query("SELECT COUNT(r), SUM(r.rating) FROM Review r JOIN r.order o " +
+            "WHERE LOWER(r.reviewTarget) = 'driver' AND o.driver.id = :driverId")
+    List<Object[]> summarizeRatingsByDriverId(@Param("driverId") Long driverId);
 }
@@ -1,7 +1,11 @@
 package com.example.FoodDelivery.repository;
 
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.FoodDelivery.domain.Role;
@@ -13,4 +17,8 @@ public interface RoleRepository extends JpaRepository<Role, Long>, JpaSpecificat
     boolean existsByName(String name);
 
     Role findByName(String name);
+
+    // (method, apiPath) pairs granted to a role, without loading the entities
+    @Query("SELECT p.method, p.apiPath FROM Role r JOIN r.permissions p WHERE r.id = :roleId")
+    List<Object[]> findPermissionMethodsAndPathsByRoleId(@Param("roleId") Long roleId);
 }
@@ -0,0 +1,22 @@
+package com.example.FoodDelivery.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.FoodDelivery.domain.WalletBalanceSnapshot;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface WalletBalanceSnapshotRepository extends JpaRepository<WalletBalanceSnapshot, Long> {
+    // Nearest snapshot at or before a point in time
+    Optional<WalletBalanceSnapshot> findFirstByWalletIdAndSnapshotAtLessThanEqualOrderBySequenceNumberDesc(
+            Long walletId, Instant at);
+
+    // Next snapshot after a sequence (bounds the tail scan)
+    Optional<WalletBalanceSnapshot> findFirstByWalletIdAndSequenceNumberGreaterThanOrderBySequenceNumberAsc(
+            Long walletId, Long sequenceNumber);
+
+    Optional<WalletBalanceSnapshot> findFirstByWalletIdOrderBySequenceNumberDesc(Long walletId);
+}
@@ -2,10 +2,15 @@ package com.example.FoodDelivery.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.FoodDelivery.domain.Wallet;
 
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,4 +18,22 @@ public interface WalletRepository extends JpaRepository<Wallet, Long>, JpaSpecif
     Optional<Wallet> findByUserId(Long userId);
 
     boolean existsByUserId(Long userId);
+
+    // Atomic credit: the database adds to the current value, so concurrent
+    // updates never overwrite each other; also claims the next ledger sequence
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Wallet w SET w.balance = w.balance + :amount, "
+            + "w.lastSequenceNumber = COALESCE(w.lastSequenceNumber, 0) + 1 WHERE w.id = :walletId")
+    int creditBalance(@Param("walletId") Long walletId, @Param("amount") BigDecimal amount);
+
+    // Atomic debit: only applies when the balance stays non-negative (0 rows =
+    // insufficient balance or no such wallet)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Wallet w SET w.balance = w.balance - :amount, "
+            + "w.lastSequenceNumber = COALESCE(w.lastSequenceNumber, 0) + 1 "
+            + "WHERE w.id = :walletId AND w.balance >= :amount")
+    int debitBalance(@Param("walletId") Long walletId, @Param("amount") BigDecimal amount);
+
+    @Query("SELECT w.id FROM Wallet w WHERE w.lastSequenceNumber IS NOT NULL")
+    List<Long> findIdsWithLedger();
 }
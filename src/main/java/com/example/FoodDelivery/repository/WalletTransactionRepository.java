@@ -1,11 +1,17 @@
 package com.example.FoodDelivery.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.FoodDelivery.domain.WalletTransaction;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 
 @Repository
@@ -18,4 +24,20 @@ public interface WalletTransactionRepository
     List<WalletTransaction> findByWalletIdAndTransactionType(Long walletId, String transactionType);
 
     List<WalletTransaction> findByWalletIdOrderByCreatedAtDesc(Long walletId);
+
+    // Ledger entries of a wallet in a time range (statement)
+    Page<WalletTransaction> findByWalletIdAndSequenceNumberIsNotNullAndCreatedAtBetween(
+            Long walletId, Instant from, Instant to, Pageable pageable);
+
+    // Sum of ledger amounts in (afterSequence, upToSequence] created at or before
+    // a point in time (null if none)
+    @Query("SELECT SUM(t.amount) FROM WalletTransaction t WHERE t.wallet.id = :walletId "
+            + "AND t.sequenceNumber > :afterSequence AND t.sequenceNumber <= :upToSequence AND t.createdAt <= :at")
+    BigDecimal sumLedgerAmounts(@Param("walletId") Long walletId, @Param("afterSequence") Long afterSequence,
+            @Param("upToSequence") Long upToSequence, @Param("at") Instant at);
+
+    // [count, sum of amounts, max sequence] of ledger entries after a sequence
+    @Query("SELECT COUNT(t), SUM(t.amount), MAX(t.sequenceNumber) FROM WalletTransaction t "
+            + "WHERE t.wallet.id = :walletId AND t.sequenceNumber > :afterSequence")
+    List<Object[]> summarizeLedgerAfter(@Param("walletId") Long walletId, @Param("afterSequence") Long afterSequence);
 }
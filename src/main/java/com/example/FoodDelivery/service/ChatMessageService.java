@@ -1,23 +1,18 @@
 package com.example.FoodDelivery.service;
 
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import com.example.FoodDelivery.domain.ChatMessage;
 import com.example.FoodDelivery.domain.Order;
-import com.example.FoodDelivery.domain.User;
 import com.example.FoodDelivery.repository.ChatMessageRepository;
 import com.example.FoodDelivery.repository.OrderRepository;
-import com.example.FoodDelivery.repository.UserRepository;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -26,7 +21,7 @@ import lombok.extern.slf4j.Slf4j;
  * Orchestrates between Database (permanent) and Redis (cache)
  * 
  * Strategy:
- * - Write: Async to DB + Sync to Redis cache
+ * - Write: Sync to Redis cache + queued for batched DB insert (write-behind)
  * - Read: Try Redis first → Fallback to DB if not cached
  */
 @Service
@@ -36,21 +31,21 @@ public class ChatMessageService {
     private final ChatMessageRepository chatMessageRepository;
     private final RedisChatService redisChatService;
     private final OrderRepository orderRepository;
-    private final UserRepository userRepository;
+    private final ChatMessageWriteBehindService chatMessageWriteBehindService;
 
     public ChatMessageService(
             ChatMessageRepository chatMessageRepository,
             RedisChatService redisChatService,
             OrderRepository orderRepository,
-            UserRepository userRepository) {
+            ChatMessageWriteBehindService chatMessageWriteBehindService) {
         this.chatMessageRepository = chatMessageRepository;
         this.redisChatService = redisChatService;
         this.orderRepository = orderRepository;
-        this.userRepository = userRepository;
+        this.chatMessageWriteBehindService = chatMessageWriteBehindService;
     }
 
     /**
-     * Save a chat message to both Database (async) and Redis (sync)
+     * Save a chat message to Redis (sync) and queue it for the Database
      * 
      * @param websocketMessage the WebSocket message DTO
      */
@@ -59,8 +54,8 @@ public class ChatMessageService {
             // 1. Cache to Redis immediately (sync - fast)
             redisChatService.cacheMessage(websocketMessage);
 
-            // 2. Save to Database asynchronously (doesn't block)
-            saveToDatabase(websocketMessage);
+            // 2. Queue for batched Database insert (doesn't block)
+            chatMessageWriteBehindService.enqueue(websocketMessage);
 
             log.info("💬 Saved chat message: order={}, sender={}, type={}",
                     websocketMessage.getOrderId(),
@@ -73,27 +68,6 @@ public class ChatMessageService {
         }
     }
 
-    /**
-     * Async save to database (doesn't block WebSocket)
-     */
-    @Async
-    protected CompletableFuture<Void> saveToDatabase(
-            com.example.FoodDelivery.domain.res.websocket.ChatMessage websocketMessage) {
-        try {
-            // Convert WebSocket DTO to Database Entity
-            ChatMessage entity = convertToEntity(websocketMessage);
-
-            if (entity != null) {
-                chatMessageRepository.save(entity);
-                log.debug("💾 Async saved message to database: order={}", websocketMessage.getOrderId());
-            }
-        } catch (Exception e) {
-            log.error("Failed to async save message to database: order={}",
-                    websocketMessage.getOrderId(), e);
-        }
-        return CompletableFuture.completedFuture(null);
-    }
-
     /**
      * Get message history for an order
      * Strategy: Try Redis first → Fallback to Database if not cached
@@ -190,42 +164,6 @@ public class ChatMessageService {
         }
     }
 
-    /**
-     * Convert WebSocket DTO to Database Entity
-     */
-    private ChatMessage convertToEntity(com.example.FoodDelivery.domain.res.websocket.ChatMessage dto) {
-        try {
-            Order order = orderRepository.findById(dto.getOrderId()).orElse(null);
-            User sender = userRepository.findById(dto.getSenderId()).orElse(null);
-
-            if (order == null || sender == null) {
-                log.warn("Cannot convert message to entity: order={}, sender={}",
-                        dto.getOrderId(), dto.getSenderId());
-                return null;
-            }
-
-            // Determine recipient based on sender type
-            User recipient = null;
-            if ("CUSTOMER".equals(dto.getSenderType()) && order.getDriver() != null) {
-                recipient = order.getDriver();
-            } else if ("DRIVER".equals(dto.getSenderType()) && order.getCustomer() != null) {
-                recipient = order.getCustomer();
-            }
-
-            return ChatMessage.builder()
-                    .order(order)
-                    .sender(sender)
-                    .recipient(recipient)
-                    .messageContent(dto.getMessage())
-                    .sentAt(dto.getTimestamp() != null ? dto.getTimestamp() : Instant.now())
-                    .isRead(false)
-                    .build();
-        } catch (Exception e) {
-            log.error("Failed to convert WebSocket DTO to entity", e);
-            return null;
-        }
-    }
-
     /**
      * Convert Database Entity to WebSocket DTO
      */
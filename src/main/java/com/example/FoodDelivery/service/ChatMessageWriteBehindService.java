@@ -0,0 +1,275 @@
+package com.example.FoodDelivery.service;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.FoodDelivery.domain.res.websocket.ChatMessage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind persistence for chat messages.
+ * Messages are queued in memory and a single worker inserts them with JDBC
+ * batches, flushing when a batch is full or the oldest queued message has
+ * waited FLUSH_INTERVAL_MS. Batches that keep failing, or that violate a
+ * constraint (retrying cannot help), are retried row by row, and rows that
+ * still fail go to a Redis dead-letter list.
+ */
+@Service
+@Slf4j
+public class ChatMessageWriteBehindService {
+
+    private static final int QUEUE_CAPACITY = 10_000;
+    private static final int BATCH_SIZE = 100;
+    private static final long FLUSH_INTERVAL_MS = 500;
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_MS = 200;
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+
+    private static final String DEAD_LETTER_KEY = "chat:dead-letter";
+
+    private static final String INSERT_SQL = "INSERT INTO chat_messages "
+            + "(order_id, sender_id, recipient_id, message_content, sent_at, is_read) "
+            + "VALUES (:orderId, :senderId, :recipientId, :messageContent, :sentAt, :isRead)";
+    private static final String ORDER_PARTIES_SQL = "SELECT id, customer_id, driver_id FROM orders WHERE id IN (:ids)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final BlockingQueue<ChatMessage> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Counter persistedCounter;
+    private final Counter rejectedCounter;
+    private final Counter retryCounter;
+    private final Counter deadLetterCounter;
+
+    private volatile boolean running = true;
+    private Thread worker;
+
+    public ChatMessageWriteBehindService(NamedParameterJdbcTemplate jdbcTemplate,
+            RedisTemplate<String, Object> redisTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.redisTemplate = redisTemplate;
+        meterRegistry.gauge("chat.writebehind.queue.size", queue, BlockingQueue::size);
+        this.persistedCounter = meterRegistry.counter("chat.writebehind.persisted");
+        this.rejectedCounter = meterRegistry.counter("chat.writebehind.rejected");
+        this.retryCounter = meterRegistry.counter("chat.writebehind.retries");
+        this.deadLetterCounter = meterRegistry.counter("chat.writebehind.dead_letter");
+    }
+
+    @PostConstruct
+    public void start() {
+        worker = new Thread(this::runWorker, "chat-write-behind");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Flush everything still queued before the application stops
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<ChatMessage> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int start = 0; start < remaining.size(); start += BATCH_SIZE) {
+            flush(remaining.subList(start, Math.min(start + BATCH_SIZE, remaining.size())));
+        }
+        log.info("💾 Chat write-behind stopped, flushed {} remaining messages", remaining.size());
+    }
+
+    /**
+     * Queue a message for persistence without waiting for the database
+     * If the queue is full the message goes straight to the dead-letter list
+     */
+    public void enqueue(ChatMessage message) {
+        if (!queue.offer(message)) {
+            rejectedCounter.increment();
+            log.warn("Chat write-behind queue full ({}), dead-lettering message for order {}",
+                    QUEUE_CAPACITY, message.getOrderId());
+            deadLetter(message);
+        }
+    }
+
+    private void runWorker() {
+        List<ChatMessage> batch = new ArrayList<>(BATCH_SIZE);
+        while (running) {
+            try {
+                ChatMessage first = queue.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Fill the batch until it is full or the first message has waited long enough
+                long deadline = System.currentTimeMillis() + FLUSH_INTERVAL_MS;
+                while (batch.size() < BATCH_SIZE) {
+                    long waitMs = deadline - System.currentTimeMillis();
+                    if (waitMs <= 0) {
+                        break;
+                    }
+                    queue.drainTo(batch, BATCH_SIZE - batch.size());
+                    if (batch.size() >= BATCH_SIZE) {
+                        break;
+                    }
+                    ChatMessage next = queue.poll(waitMs, TimeUnit.MILLISECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+
+                flush(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // Shutdown: keep the partial batch for the final flush
+                for (ChatMessage message : batch) {
+                    if (!queue.offer(message)) {
+                        deadLetter(message);
+                    }
+                }
+                batch.clear();
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Chat write-behind worker error", e);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<ChatMessage> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        MapSqlParameterSource[] rows = toRows(batch);
+        for (int attempt = 1; attempt <= MAX_BATCH_ATTEMPTS; attempt++) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+                persistedCounter.increment(batch.size());
+                log.debug("💾 Persisted {} chat messages in one batch", batch.size());
+                return;
+            } catch (DataIntegrityViolationException e) {
+                // e.g. a message for a deleted order: the same batch fails every time
+                log.warn("Chat batch insert violates a constraint, inserting row by row: {}", e.getMessage());
+                break;
+            } catch (Exception e) {
+                log.warn("Chat batch insert failed (attempt {}/{}): {}", attempt, MAX_BATCH_ATTEMPTS,
+                        e.getMessage());
+                retryCounter.increment();
+                sleepQuietly(RETRY_BACKOFF_MS * attempt);
+            }
+        }
+
+        // Isolate bad rows so one message cannot block the rest of the batch
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, rows[i]);
+                persistedCounter.increment();
+            } catch (Exception e) {
+                log.error("Failed to persist chat message for order {}, dead-lettering",
+                        batch.get(i).getOrderId(), e);
+                deadLetter(batch.get(i));
+            }
+        }
+    }
+
+    /**
+     * Build insert parameters; the recipient is the other party of the order
+     */
+    private MapSqlParameterSource[] toRows(List<ChatMessage> batch) {
+        Map<Long, Long[]> partiesByOrderId = loadOrderParties(batch.stream()
+                .map(ChatMessage::getOrderId)
+                .collect(Collectors.toSet()));
+
+        MapSqlParameterSource[] rows = new MapSqlParameterSource[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            ChatMessage message = batch.get(i);
+            Long[] parties = partiesByOrderId.get(message.getOrderId());
+            Long recipientId = null;
+            if (parties != null) {
+                if ("CUSTOMER".equals(message.getSenderType())) {
+                    recipientId = parties[1];
+                } else if ("DRIVER".equals(message.getSenderType())) {
+                    recipientId = parties[0];
+                }
+            }
+            Instant sentAt = message.getTimestamp() != null ? message.getTimestamp() : Instant.now();
+
+            rows[i] = new MapSqlParameterSource()
+                    .addValue("orderId", message.getOrderId())
+                    .addValue("senderId", message.getSenderId())
+                    .addValue("recipientId", recipientId, Types.BIGINT)
+                    .addValue("messageContent", message.getMessage())
+                    .addValue("sentAt", Timestamp.from(sentAt))
+                    .addValue("isRead", false);
+        }
+        return rows;
+    }
+
+    /**
+     * Customer and driver IDs of each order, loaded with one query per batch
+     */
+    private Map<Long, Long[]> loadOrderParties(Set<Long> orderIds) {
+        Map<Long, Long[]> parties = new HashMap<>();
+        orderIds.remove(null);
+        if (orderIds.isEmpty()) {
+            return parties;
+        }
+        try {
+            jdbcTemplate.query(ORDER_PARTIES_SQL, new MapSqlParameterSource("ids", orderIds), rs -> {
+                long customerId = rs.getLong("customer_id");
+                Long customer = rs.wasNull() ? null : customerId;
+                long driverId = rs.getLong("driver_id");
+                Long driver = rs.wasNull() ? null : driverId;
+                parties.put(rs.getLong("id"), new Long[] { customer, driver });
+            });
+        } catch (Exception e) {
+            log.warn("Failed to load order parties for chat batch, recipients left empty: {}", e.getMessage());
+        }
+        return parties;
+    }
+
+    private void deadLetter(ChatMessage message) {
+        deadLetterCounter.increment();
+        try {
+            redisTemplate.opsForList().rightPush(DEAD_LETTER_KEY, message);
+        } catch (Exception e) {
+            log.error("Failed to dead-letter chat message for order {}: {}", message.getOrderId(), message, e);
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,23 +1,79 @@
 package com.example.FoodDelivery.service;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
+import com.example.FoodDelivery.domain.res.file.ResUploadTicketDTO;
+import com.example.FoodDelivery.util.ImageResizer;
 import com.example.FoodDelivery.util.error.StorageException;
+import com.example.FoodDelivery.util.error.StorageUnavailableException;
 
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Uploads to Cloudinary from temp files instead of heap buffers.
+ * The multipart file is spooled to disk, images are downscaled (and optionally
+ * thumbnailed) on disk, and the file is streamed to Cloudinary, in chunks for
+ * large files. At most cloudinary.upload.max-concurrent uploads are processed at
+ * once, so heap use is bounded regardless of file size. Async uploads return a
+ * ticket and finish on a background pool; at most
+ * cloudinary.upload.queue-capacity of them wait for a worker, and further ones
+ * are rejected before anything is written to disk. Tickets live in memory on
+ * the node that accepted the upload.
+ */
 @Service
+@Slf4j
 public class CloudinaryService {
 
+    private static final int MAX_IMAGE_DIMENSION = 1600;
+    private static final int THUMBNAIL_DIMENSION = 320;
+    // Larger files use the chunked upload API; chunks are buffered one at a time
+    private static final long CHUNKED_UPLOAD_THRESHOLD = 20L * 1024 * 1024;
+    private static final int UPLOAD_CHUNK_SIZE = 6 * 1024 * 1024;
+    private static final long TICKET_RETENTION_MILLIS = 3600000;
+
     private final Cloudinary cloudinary;
+    private final Semaphore uploadPermits;
+    private final long permitWaitMillis;
+    // Async uploads accepted and not finished yet (running or queued)
+    private final Semaphore asyncSlots;
+    private final ThreadPoolExecutor uploadExecutor;
+    private final Map<String, ResUploadTicketDTO> tickets = new ConcurrentHashMap<>();
 
-    public CloudinaryService(Cloudinary cloudinary) {
+    public CloudinaryService(Cloudinary cloudinary,
+            @Value("${cloudinary.upload.max-concurrent:4}") int maxConcurrentUploads,
+            @Value("${cloudinary.upload.permit-wait-ms:30000}") long permitWaitMillis,
+            @Value("${cloudinary.upload.queue-capacity:16}") int queueCapacity) {
         this.cloudinary = cloudinary;
+        this.uploadPermits = new Semaphore(maxConcurrentUploads);
+        this.permitWaitMillis = permitWaitMillis;
+        this.asyncSlots = new Semaphore(maxConcurrentUploads + queueCapacity);
+        this.uploadExecutor = new ThreadPoolExecutor(maxConcurrentUploads, maxConcurrentUploads,
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
     }
 
     /**
@@ -30,28 +86,229 @@ public class CloudinaryService {
      * @throws StorageException if upload fails
      */
     public String uploadFile(MultipartFile file, String folder) throws StorageException {
+        return uploadFile(file, folder, false).getFileName();
+    }
+
+    /**
+     * Upload file to Cloudinary, waiting for the result
+     * 
+     * @param thumbnail - also upload a thumbnail (images only) to
+     *                  {folder}/thumbnails
+     * @return URLs of the uploaded file and thumbnail
+     * @throws StorageException if upload fails or too many uploads are running
+     */
+    public ResUploadTicketDTO uploadFile(MultipartFile file, String folder, boolean thumbnail)
+            throws StorageException {
+        Path spooled = spool(file);
+        try {
+            ResUploadTicketDTO result = newTicket();
+            processAndUpload(spooled, extensionOf(file.getOriginalFilename()), folder, thumbnail, result, false);
+            return result;
+        } finally {
+            deleteQuietly(spooled);
+        }
+    }
+
+    /**
+     * Accept an upload and finish it in the background
+     * The file is spooled to disk before returning, since the multipart data is
+     * gone once the request ends; a slot is reserved first, so a full queue
+     * rejects the upload without spooling it
+     * 
+     * @return PENDING ticket; poll it with getUploadTicket
+     * @throws StorageUnavailableException if the upload queue is full
+     */
+    public ResUploadTicketDTO submitUpload(MultipartFile file, String folder, boolean thumbnail)
+            throws StorageException {
+        if (!asyncSlots.tryAcquire()) {
+            throw new StorageUnavailableException("Too many uploads in progress. Please try again later.");
+        }
+        Path spooled;
+        try {
+            spooled = spool(file);
+        } catch (StorageException e) {
+            asyncSlots.release();
+            throw e;
+        }
+        String extension = extensionOf(file.getOriginalFilename());
+        ResUploadTicketDTO ticket = newTicket();
+        tickets.put(ticket.getTicketId(), ticket);
+
+        try {
+            uploadExecutor.execute(() -> {
+                try {
+                    ticket.setStatus("PROCESSING");
+                    tickets.put(ticket.getTicketId(), ticket);
+                    processAndUpload(spooled, extension, folder, thumbnail, ticket, true);
+                } catch (Exception e) {
+                    ticket.setStatus("FAILED");
+                    ticket.setError(e.getMessage());
+                    log.warn("Async upload {} failed: {}", ticket.getTicketId(), e.getMessage());
+                } finally {
+                    if (!"COMPLETED".equals(ticket.getStatus())) {
+                        // Also covers Errors, so a ticket never stays PROCESSING forever
+                        ticket.setStatus("FAILED");
+                        ticket.setCompletedAt(Instant.now());
+                    }
+                    deleteQuietly(spooled);
+                    tickets.put(ticket.getTicketId(), ticket);
+                    asyncSlots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            asyncSlots.release();
+            tickets.remove(ticket.getTicketId());
+            deleteQuietly(spooled);
+            throw new StorageUnavailableException("Upload service is shutting down. Please try again.");
+        }
+        return ticket;
+    }
+
+    /**
+     * Current state of an async upload
+     * 
+     * @throws StorageException if the ticket is unknown or expired
+     */
+    public ResUploadTicketDTO getUploadTicket(String ticketId) throws StorageException {
+        ResUploadTicketDTO ticket = tickets.get(ticketId);
+        if (ticket == null) {
+            throw new StorageException("Upload ticket not found: " + ticketId);
+        }
+        return ticket;
+    }
+
+    /**
+     * Forget finished tickets after an hour
+     */
+    @Scheduled(fixedDelay = 600000) // 10 minutes = 600,000 milliseconds
+    public void purgeTickets() {
+        Instant cutoff = Instant.now().minusMillis(TICKET_RETENTION_MILLIS);
+        tickets.values().removeIf(ticket -> ticket.getCompletedAt() != null
+                && ticket.getCompletedAt().isBefore(cutoff));
+    }
+
+    private void processAndUpload(Path source, String extension, String folder, boolean thumbnail,
+            ResUploadTicketDTO result, boolean queued) throws StorageException {
+        acquirePermit(queued);
+        Path resized = null;
+        Path thumbnailFile = null;
         try {
-            // Validate file
-            if (file == null || file.isEmpty()) {
-                throw new StorageException("File is empty. Please upload a valid file.");
+            Path uploadSource = source;
+            Path thumbnailSource = null;
+            if (ImageResizer.supports(extension)) {
+                try {
+                    resized = ImageResizer.fitWithin(source, extension, MAX_IMAGE_DIMENSION);
+                    if (resized != null) {
+                        uploadSource = resized;
+                    }
+                    if (thumbnail) {
+                        thumbnailFile = ImageResizer.fitWithin(uploadSource, extension, THUMBNAIL_DIMENSION);
+                        thumbnailSource = thumbnailFile != null ? thumbnailFile : uploadSource;
+                    }
+                } catch (ImageResizer.ImageTooLargeException e) {
+                    throw new StorageException(e.getMessage());
+                } catch (IOException | RuntimeException e) {
+                    // Not a decodable image after all: upload it unchanged
+                    log.warn("Could not resize uploaded image, uploading original: {}", e.getMessage());
+                }
             }
 
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
             String publicId = UUID.randomUUID().toString();
+            result.setFileName(upload(uploadSource, folder, publicId));
+            if (thumbnailSource != null) {
+                result.setThumbnailUrl(upload(thumbnailSource, folder + "/thumbnails", publicId));
+            }
+            result.setStatus("COMPLETED");
+            result.setCompletedAt(Instant.now());
+        } catch (IOException e) {
+            throw new StorageException("Failed to upload file to Cloudinary: " + e.getMessage());
+        } finally {
+            uploadPermits.release();
+            deleteQuietly(resized);
+            deleteQuietly(thumbnailFile);
+        }
+    }
 
-            // Upload to Cloudinary with folder and public_id
-            Map uploadResult = cloudinary.uploader().upload(file.getBytes(),
-                    ObjectUtils.asMap(
-                            "folder", folder,
-                            "public_id", publicId,
-                            "resource_type", "auto"));
+    private String upload(Path path, String folder, String publicId) throws IOException {
+        File file = path.toFile();
+        // Upload to Cloudinary with folder and public_id, streamed from disk
+        Map options = ObjectUtils.asMap(
+                "folder", folder,
+                "public_id", publicId,
+                "resource_type", "auto");
+        Map uploadResult;
+        if (file.length() > CHUNKED_UPLOAD_THRESHOLD) {
+            options.put("chunk_size", UPLOAD_CHUNK_SIZE);
+            uploadResult = cloudinary.uploader().uploadLarge(file, options);
+        } else {
+            uploadResult = cloudinary.uploader().upload(file, options);
+        }
 
-            // Return secure URL
-            return (String) uploadResult.get("secure_url");
+        // Return secure URL
+        return (String) uploadResult.get("secure_url");
+    }
 
+    /**
+     * Wait for an upload slot
+     * Queued async uploads were already admitted, so they wait as long as it
+     * takes; synchronous uploads give up after permitWaitMillis
+     */
+    private void acquirePermit(boolean queued) throws StorageException {
+        try {
+            if (queued) {
+                uploadPermits.acquire();
+            } else if (!uploadPermits.tryAcquire(permitWaitMillis, TimeUnit.MILLISECONDS)) {
+                throw new StorageException("Too many uploads in progress. Please try again later.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StorageException("Upload was interrupted");
+        }
+    }
+
+    private Path spool(MultipartFile file) throws StorageException {
+        // Validate file
+        if (file == null || file.isEmpty()) {
+            throw new StorageException("File is empty. Please upload a valid file.");
+        }
+        String extension = extensionOf(file.getOriginalFilename());
+        Path spooled = null;
+        try {
+            spooled = Files.createTempFile("upload-", extension.isEmpty() ? null : "." + extension);
+            file.transferTo(spooled);
+            return spooled;
         } catch (IOException e) {
-            throw new StorageException("Failed to upload file to Cloudinary: " + e.getMessage());
+            deleteQuietly(spooled);
+            throw new StorageException("Failed to read uploaded file: " + e.getMessage());
+        }
+    }
+
+    private static ResUploadTicketDTO newTicket() {
+        ResUploadTicketDTO ticket = new ResUploadTicketDTO();
+        ticket.setTicketId(UUID.randomUUID().toString());
+        ticket.setStatus("PENDING");
+        ticket.setCreatedAt(Instant.now());
+        return ticket;
+    }
+
+    private static String extensionOf(String filename) {
+        if (filename == null) {
+            return "";
+        }
+        int lastDotIndex = filename.lastIndexOf('.');
+        String extension = lastDotIndex >= 0 ? filename.substring(lastDotIndex + 1).toLowerCase() : "";
+        // Used as a temp file suffix, so only keep plain extensions
+        return extension.matches("[a-z0-9]{1,10}") ? extension : "";
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temp file {}: {}", path, e.getMessage());
         }
     }
 
@@ -18,10 +18,13 @@ import com.example.FoodDelivery.util.error.IdInvalidException;
 public class DishCategoryService {
     private final DishCategoryRepository dishCategoryRepository;
     private final RestaurantService restaurantService;
+    private final SitemapService sitemapService;
 
-    public DishCategoryService(DishCategoryRepository dishCategoryRepository, RestaurantService restaurantService) {
+    public DishCategoryService(DishCategoryRepository dishCategoryRepository, RestaurantService restaurantService,
+            SitemapService sitemapService) {
         this.dishCategoryRepository = dishCategoryRepository;
         this.restaurantService = restaurantService;
+        this.sitemapService = sitemapService;
     }
 
     public boolean existsByNameAndRestaurantId(String name, Long restaurantId) {
@@ -56,7 +59,9 @@ public class DishCategoryService {
             throw new IdInvalidException("Restaurant is required");
         }
 
-        return dishCategoryRepository.save(dishCategory);
+        DishCategory savedCategory = dishCategoryRepository.save(dishCategory);
+        sitemapService.invalidate();
+        return savedCategory;
     }
 
     public DishCategory updateDishCategory(DishCategory dishCategory) throws IdInvalidException {
@@ -99,5 +104,6 @@ public class DishCategoryService {
 
     public void deleteDishCategory(Long id) {
         this.dishCategoryRepository.deleteById(id);
+        sitemapService.invalidate();
     }
 }
@@ -0,0 +1,171 @@
+package com.example.FoodDelivery.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.FoodDelivery.repository.DishDailySalesRepository;
+import com.example.FoodDelivery.repository.DishRepository;
+import com.example.FoodDelivery.repository.OrderItemRepository;
+import com.example.FoodDelivery.repository.OrderRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-dish sales counters: cumulative quantity/revenue on the dish and a
+ * per-day row in dish_daily_sales (day the order was created). Each delivered
+ * order is counted exactly once, guarded by orders.dish_sales_rolled_up, and
+ * taken back out before an admin edit of its status or amounts;
+ * history and missed hooks are picked up by a periodic sweep.
+ * Each order is counted in its own short transaction that locks its dish rows
+ * in ascending dish ID order, so concurrent counts cannot deadlock.
+ */
+@Service
+@Slf4j
+public class DishSalesService {
+
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final DishRepository dishRepository;
+    private final DishDailySalesRepository dishDailySalesRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public DishSalesService(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
+            DishRepository dishRepository, DishDailySalesRepository dishDailySalesRepository,
+            PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.dishRepository = dishRepository;
+        this.dishDailySalesRepository = dishDailySalesRepository;
+        // Also used from afterCommit, where the caller's transaction is finished
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Count a delivered order's items into the dish counters
+     * Runs after the caller's transaction commits, so the dish rows are not
+     * locked for the rest of it; if counting fails the sweep retries it
+     */
+    public void recordOrder(Long orderId) {
+        if (orderId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    countOrder(orderId);
+                }
+            });
+        } else {
+            countOrder(orderId);
+        }
+    }
+
+    private void countOrder(Long orderId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> count(orderId));
+        } catch (RuntimeException e) {
+            log.error("Failed to count dish sales of order {}, left for the sweep", orderId, e);
+        }
+    }
+
+    /**
+     * No-op if the order is not delivered or was already counted
+     */
+    private void count(Long orderId) {
+        if (orderRepository.claimForDishSales(orderId) == 0) {
+            return;
+        }
+        addOrderSales(orderId, 1);
+    }
+
+    /**
+     * Take a counted order back out of the dish counters, before an edit that may
+     * change whether it counts; recordOrder counts it again afterwards if it is
+     * still delivered. Runs in the caller's transaction so the counters and the
+     * order change commit together; no-op if the order was not counted
+     */
+    @Transactional
+    public void retractOrder(Long orderId) {
+        if (orderId == null || orderRepository.releaseDishSalesById(orderId) == 0) {
+            return;
+        }
+        addOrderSales(orderId, -1);
+    }
+
+    /**
+     * Add (sign 1) or subtract (sign -1) an order's items on its day
+     */
+    private void addOrderSales(Long orderId, int sign) {
+        List<Object[]> orderRows = orderRepository.findRevenueFiguresById(orderId);
+        if (orderRows.isEmpty() || orderRows.get(0)[0] == null || orderRows.get(0)[1] == null) {
+            return;
+        }
+        Long restaurantId = (Long) orderRows.get(0)[0];
+        LocalDate day = ((Instant) orderRows.get(0)[1]).atZone(ZoneId.systemDefault()).toLocalDate();
+
+        // Merge repeated lines of the same dish (different options) into one update;
+        // sorted so rows are always locked in dish ID order
+        Map<Long, Long> quantityByDishId = new TreeMap<>();
+        Map<Long, BigDecimal> revenueByDishId = new TreeMap<>();
+        for (Object[] line : orderItemRepository.findSalesLinesByOrderId(orderId)) {
+            Long dishId = (Long) line[0];
+            long quantity = ((Number) line[1]).longValue();
+            BigDecimal price = line[2] != null ? (BigDecimal) line[2] : (BigDecimal) line[3];
+            BigDecimal revenue = price != null ? price.multiply(BigDecimal.valueOf(quantity)) : BigDecimal.ZERO;
+            quantityByDishId.merge(dishId, quantity, Long::sum);
+            revenueByDishId.merge(dishId, revenue, BigDecimal::add);
+        }
+
+        quantityByDishId.forEach((dishId, sold) -> {
+            long quantity = sold * sign;
+            BigDecimal revenue = revenueByDishId.get(dishId).multiply(BigDecimal.valueOf(sign));
+            dishRepository.addSales(dishId, quantity, revenue);
+            dishDailySalesRepository.addSales(dishId, restaurantId, day, quantity, revenue);
+        });
+    }
+
+    /**
+     * Count delivered orders not counted yet (missed hooks and backfill)
+     * Each order is counted in its own transaction
+     */
+    @Scheduled(fixedDelay = 60000, initialDelay = 45000) // 1 minute = 60,000 milliseconds
+    public void sweep() {
+        List<Long> orderIds = orderRepository.findIdsPendingDishSales(PageRequest.of(0, SWEEP_BATCH_SIZE));
+        for (Long orderId : orderIds) {
+            countOrder(orderId);
+        }
+        if (!orderIds.isEmpty()) {
+            log.info("🍜 Counted dish sales of {} delivered orders", orderIds.size());
+        }
+    }
+
+    /**
+     * ID of the best-selling dish of a restaurant between two days
+     *
+     * @return dish ID, or null if nothing was sold
+     */
+    @Transactional(readOnly = true)
+    public Long getTopDishId(Long restaurantId, LocalDate from, LocalDate to) {
+        List<Object[]> rows = dishDailySalesRepository.findTopDishes(restaurantId, from, to, PageRequest.of(0, 1));
+        return rows.isEmpty() ? null : (Long) rows.get(0)[0];
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.FoodDelivery.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.geo.Point;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.FoodDelivery.domain.res.websocket.DriverLocationUpdate;
+import com.example.FoodDelivery.repository.OrderRepository;
+import com.example.FoodDelivery.util.GeoHashUtils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ingestion stage for driver GPS pings.
+ * Pings are coalesced per driver (latest wins) and flushed to Redis GEO in one
+ * pipelined batch per interval. The same flush forwards positions to the
+ * customer of each driver's active order, looked up from an in-memory map that
+ * is refreshed with one query per flush for the drivers whose entry expired.
+ */
+@Service
+@Slf4j
+public class DriverLocationIngestionService {
+
+    private static final List<String> ACTIVE_ORDER_STATUSES = List.of("DRIVER_ASSIGNED", "READY", "PICKED_UP",
+            "ARRIVED");
+
+    private final RedisGeoService redisGeoService;
+    private final OrderRepository orderRepository;
+    private final WebSocketService webSocketService;
+
+    @Value("${driver.location.active-order-ttl-ms:15000}")
+    private long activeOrderTtlMs;
+
+    @Value("${driver.location.forward-interval-ms:3000}")
+    private long forwardIntervalMs;
+
+    @Value("${driver.location.min-forward-distance-m:15}")
+    private double minForwardDistanceMeters;
+
+    // Latest unflushed ping of each driver
+    private final Map<Long, DriverLocationUpdate> pendingByDriverId = new ConcurrentHashMap<>();
+    private final Map<Long, ActiveDelivery> activeDeliveryByDriverId = new ConcurrentHashMap<>();
+    private final Map<Long, ForwardedLocation> lastForwardedByDriverId = new ConcurrentHashMap<>();
+
+    private final Counter receivedCounter;
+    private final Counter writtenCounter;
+    private final Counter forwardedCounter;
+
+    public DriverLocationIngestionService(RedisGeoService redisGeoService, OrderRepository orderRepository,
+            WebSocketService webSocketService, MeterRegistry meterRegistry) {
+        this.redisGeoService = redisGeoService;
+        this.orderRepository = orderRepository;
+        this.webSocketService = webSocketService;
+        meterRegistry.gauge("driver.location.pending", pendingByDriverId, Map::size);
+        this.receivedCounter = meterRegistry.counter("driver.location.received");
+        this.writtenCounter = meterRegistry.counter("driver.location.written");
+        this.forwardedCounter = meterRegistry.counter("driver.location.forwarded");
+    }
+
+    /**
+     * Accept a ping; it replaces any earlier ping of the same driver not yet
+     * flushed
+     */
+    public void submit(Long driverId, DriverLocationUpdate locationUpdate) {
+        if (driverId == null || locationUpdate == null
+                || locationUpdate.getLatitude() == null || locationUpdate.getLongitude() == null) {
+            return;
+        }
+        receivedCounter.increment();
+        pendingByDriverId.put(driverId, locationUpdate);
+    }
+
+    @Scheduled(fixedDelayString = "${driver.location.flush-interval-ms:1000}")
+    public void flush() {
+        if (pendingByDriverId.isEmpty()) {
+            return;
+        }
+
+        Map<Long, DriverLocationUpdate> batch = new HashMap<>();
+        for (Long driverId : pendingByDriverId.keySet()) {
+            DriverLocationUpdate update = pendingByDriverId.remove(driverId);
+            if (update != null) {
+                batch.put(driverId, update);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Point> points = new HashMap<>();
+        batch.forEach((driverId, update) -> points.put(driverId,
+                new Point(update.getLongitude().doubleValue(), update.getLatitude().doubleValue())));
+        if (redisGeoService.updateDriverLocations(points)) {
+            writtenCounter.increment(points.size());
+        }
+
+        try {
+            forwardToCustomers(batch);
+        } catch (Exception e) {
+            log.error("Failed to forward driver locations to customers", e);
+        }
+    }
+
+    private void forwardToCustomers(Map<Long, DriverLocationUpdate> batch) {
+        long now = System.currentTimeMillis();
+        refreshActiveDeliveries(batch.keySet(), now);
+
+        batch.forEach((driverId, update) -> {
+            ActiveDelivery delivery = activeDeliveryByDriverId.get(driverId);
+            if (delivery == null || delivery.customerEmail == null) {
+                return;
+            }
+
+            double latitude = update.getLatitude().doubleValue();
+            double longitude = update.getLongitude().doubleValue();
+            ForwardedLocation last = lastForwardedByDriverId.get(driverId);
+            if (last != null && last.orderId.equals(delivery.orderId)) {
+                // Throttled pings are dropped: the position is already in Redis and the
+                // driver's next ping carries a newer one
+                if (now - last.forwardedAtMs < forwardIntervalMs) {
+                    return;
+                }
+                double movedMeters = GeoHashUtils.haversineKm(last.latitude, last.longitude, latitude, longitude)
+                        * 1000;
+                if (movedMeters < minForwardDistanceMeters) {
+                    return;
+                }
+            }
+
+            webSocketService.sendDriverLocationToCustomer(delivery.customerEmail, update);
+            lastForwardedByDriverId.put(driverId, new ForwardedLocation(delivery.orderId, latitude, longitude, now));
+            forwardedCounter.increment();
+        });
+    }
+
+    /**
+     * Reload the active order of drivers whose entry is missing or expired, in one
+     * query
+     */
+    private void refreshActiveDeliveries(Set<Long> driverIds, long now) {
+        Set<Long> stale = new HashSet<>();
+        for (Long driverId : driverIds) {
+            ActiveDelivery delivery = activeDeliveryByDriverId.get(driverId);
+            if (delivery == null || now - delivery.loadedAtMs >= activeOrderTtlMs) {
+                stale.add(driverId);
+            }
+        }
+        if (stale.isEmpty()) {
+            return;
+        }
+
+        Map<Long, ActiveDelivery> loaded = new HashMap<>();
+        for (Object[] row : orderRepository.findActiveDeliveriesByDriverIdIn(stale, ACTIVE_ORDER_STATUSES)) {
+            loaded.putIfAbsent((Long) row[0], new ActiveDelivery((Long) row[1], (String) row[2], now));
+        }
+        for (Long driverId : stale) {
+            // Drivers without an active order are cached too, so idle drivers cost no query per flush
+            activeDeliveryByDriverId.put(driverId,
+                    loaded.getOrDefault(driverId, new ActiveDelivery(null, null, now)));
+        }
+        log.debug("🔄 Refreshed active orders for {} drivers ({} delivering)", stale.size(), loaded.size());
+    }
+
+    private static class ActiveDelivery {
+        private final Long orderId;
+        private final String customerEmail;
+        private final long loadedAtMs;
+
+        private ActiveDelivery(Long orderId, String customerEmail, long loadedAtMs) {
+            this.orderId = orderId;
+            this.customerEmail = customerEmail;
+            this.loadedAtMs = loadedAtMs;
+        }
+    }
+
+    private static class ForwardedLocation {
+        private final Long orderId;
+        private final double latitude;
+        private final double longitude;
+        private final long forwardedAtMs;
+
+        private ForwardedLocation(Long orderId, double latitude, double longitude, long forwardedAtMs) {
+            this.orderId = orderId;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.forwardedAtMs = forwardedAtMs;
+        }
+    }
+}
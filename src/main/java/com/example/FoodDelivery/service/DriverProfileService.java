@@ -14,7 +14,6 @@ import org.springframework.transaction.annotation.Transactional;
 import com.example.FoodDelivery.domain.DriverProfile;
 import com.example.FoodDelivery.domain.Order;
 import com.example.FoodDelivery.domain.Restaurant;
-import com.example.FoodDelivery.domain.SystemConfiguration;
 import com.example.FoodDelivery.domain.User;
 import com.example.FoodDelivery.domain.res.driverProfile.ResDriverProfileDTO;
 import com.example.FoodDelivery.domain.res.order.ResOrderDTO;
@@ -35,6 +34,7 @@ public class DriverProfileService {
     private final SystemConfigurationService systemConfigurationService;
     private final WebSocketService webSocketService;
     private final OrderService orderService;
+    private final OrderChatParticipantService orderChatParticipantService;
 
     public DriverProfileService(DriverProfileRepository driverProfileRepository,
             UserService userService,
@@ -42,7 +42,8 @@ public class DriverProfileService {
             MapboxService mapboxService,
             SystemConfigurationService systemConfigurationService,
             WebSocketService webSocketService,
-            @Lazy OrderService orderService) {
+            @Lazy OrderService orderService,
+            OrderChatParticipantService orderChatParticipantService) {
         this.driverProfileRepository = driverProfileRepository;
         this.userService = userService;
         this.orderRepository = orderRepository;
@@ -50,6 +51,7 @@ public class DriverProfileService {
         this.systemConfigurationService = systemConfigurationService;
         this.webSocketService = webSocketService;
         this.orderService = orderService;
+        this.orderChatParticipantService = orderChatParticipantService;
     }
 
     public boolean existsByUserId(Long userId) {
@@ -381,17 +383,8 @@ public class DriverProfileService {
             log.info("📋 Found {} PREPARING orders without driver", preparingOrders.size());
 
             // Get search radius from system configuration (default 10 km if not set)
-            BigDecimal radiusKm = new BigDecimal("10.0");
-            try {
-                SystemConfiguration radiusConfig = systemConfigurationService
-                        .getSystemConfigurationByKey("DRIVER_SEARCH_RADIUS_KM");
-                if (radiusConfig != null && radiusConfig.getConfigValue() != null
-                        && !radiusConfig.getConfigValue().isEmpty()) {
-                    radiusKm = new BigDecimal(radiusConfig.getConfigValue());
-                }
-            } catch (Exception e) {
-                log.warn("Failed to get DRIVER_SEARCH_RADIUS_KM config, using default 10 km", e);
-            }
+            BigDecimal radiusKm = systemConfigurationService.getDecimal("DRIVER_SEARCH_RADIUS_KM",
+                    new BigDecimal("10.0"));
 
             // STEP 2: Validate each order against business rules and find the first
             // suitable one
@@ -443,6 +436,7 @@ public class DriverProfileService {
 
                     order.setDriver(driver);
                     Order updatedOrder = orderRepository.save(order);
+                    orderChatParticipantService.refresh(updatedOrder);
 
                     // Set driver status to UNAVAILABLE after being assigned
                     driverProfile.setStatus("UNAVAILABLE");
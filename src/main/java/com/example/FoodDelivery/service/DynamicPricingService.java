@@ -4,21 +4,16 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalTime;
 import java.time.ZoneId;
-import java.util.Arrays;
-import java.util.List;
 
 import org.springframework.stereotype.Service;
 
-import com.example.FoodDelivery.repository.DriverProfileRepository;
-import com.example.FoodDelivery.repository.OrderRepository;
-
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Service to calculate dynamic pricing surge multiplier based on:
  * 1. Weather conditions (from WeatherService)
  * 2. Peak hours (lunch: 11-13h, dinner: 18-20h)
- * 3. Supply/Demand ratio (available drivers vs pending orders)
+ * 3. Supply/Demand ratio per zone (available drivers vs pending orders)
  * 
  * Formula: K_surge = min(M_weather × M_peak × M_supply, MAX_SURGE)
  */
@@ -32,27 +27,17 @@ public class DynamicPricingService {
     // Peak hour multiplier
     private static final BigDecimal PEAK_HOUR_MULTIPLIER = new BigDecimal("1.2");
 
-    // Supply/demand multiplier range
-    private static final BigDecimal MIN_SUPPLY_MULTIPLIER = BigDecimal.ONE;
-    private static final BigDecimal MAX_SUPPLY_MULTIPLIER = new BigDecimal("2.0");
-
-    // Order statuses that need drivers
-    private static final List<String> PENDING_ORDER_STATUSES = Arrays.asList("CONFIRMED", "PREPARING", "READY");
-
     private final WeatherService weatherService;
     private final SystemConfigurationService systemConfigurationService;
-    private final OrderRepository orderRepository;
-    private final DriverProfileRepository driverProfileRepository;
+    private final SurgeZoneService surgeZoneService;
 
     public DynamicPricingService(
             WeatherService weatherService,
             SystemConfigurationService systemConfigurationService,
-            OrderRepository orderRepository,
-            DriverProfileRepository driverProfileRepository) {
+            SurgeZoneService surgeZoneService) {
         this.weatherService = weatherService;
         this.systemConfigurationService = systemConfigurationService;
-        this.orderRepository = orderRepository;
-        this.driverProfileRepository = driverProfileRepository;
+        this.surgeZoneService = surgeZoneService;
     }
 
     /**
@@ -124,67 +109,25 @@ public class DynamicPricingService {
     }
 
     /**
-     * Calculate supply/demand multiplier based on ratio of pending orders to
-     * available drivers.
+     * Get the supply/demand multiplier for the zone around a location.
      * 
      * Formula: ratio = pendingOrders / availableDrivers
      * - ratio <= 1: multiplier = 1.0 (balanced or oversupply)
      * - ratio > 1: multiplier scales up to 2.0 (shortage)
      * 
-     * Note: Both drivers and orders are counted GLOBALLY for consistency.
+     * Note: Drivers and orders are counted PER ZONE by SurgeZoneService in the
+     * background, so this is a lookup in the latest precomputed table.
      * 
-     * @param latitude  Not used (kept for API compatibility)
-     * @param longitude Not used (kept for API compatibility)
+     * @param latitude  Location latitude (restaurant location)
+     * @param longitude Location longitude (restaurant location)
      * @return Supply/demand multiplier (1.0 to 2.0)
      */
     public BigDecimal getSupplyDemandMultiplier(BigDecimal latitude, BigDecimal longitude) {
         try {
-            // Count ALL available drivers from database (status = AVAILABLE)
-            long availableDrivers = driverProfileRepository.countByStatus("AVAILABLE");
-
-            // Count ALL pending orders globally (CONFIRMED, PREPARING, READY without
-            // driver)
-            long pendingOrders = orderRepository.countByOrderStatusInAndDriverIsNull(PENDING_ORDER_STATUSES);
-
-            log.debug("📊 Supply/Demand - Global: {} pending orders, {} available drivers",
-                    pendingOrders, availableDrivers);
-
-            // If no drivers available, return max multiplier
-            if (availableDrivers == 0) {
-                log.warn("No active drivers in system, applying max supply/demand multiplier");
-                return MAX_SUPPLY_MULTIPLIER;
-            }
-
-            // If no pending orders, no surge needed
-            if (pendingOrders == 0) {
-                return MIN_SUPPLY_MULTIPLIER;
-            }
-
-            // Calculate ratio: pendingOrders / availableDrivers
-            double ratio = (double) pendingOrders / availableDrivers;
-
-            // ratio <= 1: enough drivers for all orders → multiplier = 1.0
-            if (ratio <= 1.0) {
-                log.debug("Balanced supply/demand (ratio: {:.2f}), multiplier: 1.0", ratio);
-                return MIN_SUPPLY_MULTIPLIER;
-            }
-
-            // ratio > 1: more orders than drivers → scale up multiplier
-            // Linear scale: ratio 1 = 1.0x, ratio 3+ = 2.0x
-            // Formula: multiplier = 1.0 + (ratio - 1) * 0.5, capped at 2.0
-            double multiplier = 1.0 + (ratio - 1.0) * 0.5;
-            if (multiplier > MAX_SUPPLY_MULTIPLIER.doubleValue()) {
-                multiplier = MAX_SUPPLY_MULTIPLIER.doubleValue();
-            }
-
-            BigDecimal result = new BigDecimal(multiplier).setScale(2, RoundingMode.HALF_UP);
-            log.info("📊 Supply/Demand - {} orders / {} drivers = {:.2f} => multiplier: {}",
-                    pendingOrders, availableDrivers, ratio, result);
-            return result;
-
+            return surgeZoneService.getZoneMultiplier(latitude, longitude);
         } catch (Exception e) {
-            log.warn("Failed to calculate supply/demand multiplier, using default 1.0: {}", e.getMessage());
-            return MIN_SUPPLY_MULTIPLIER;
+            log.warn("Failed to get supply/demand multiplier, using default 1.0: {}", e.getMessage());
+            return BigDecimal.ONE;
         }
     }
 
@@ -192,15 +135,7 @@ public class DynamicPricingService {
      * Get max surge multiplier from system configuration
      */
     private BigDecimal getMaxSurgeFromConfig() {
-        try {
-            var config = systemConfigurationService.getSystemConfigurationByKey("MAX_SURGE_MULTIPLIER");
-            if (config != null && config.getConfigValue() != null && !config.getConfigValue().isEmpty()) {
-                return new BigDecimal(config.getConfigValue());
-            }
-        } catch (Exception e) {
-            log.debug("Using default max surge multiplier: {}", MAX_SURGE_MULTIPLIER);
-        }
-        return MAX_SURGE_MULTIPLIER;
+        return systemConfigurationService.getDecimal("MAX_SURGE_MULTIPLIER", MAX_SURGE_MULTIPLIER);
     }
 
     /**
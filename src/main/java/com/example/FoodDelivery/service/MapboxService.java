@@ -1,5 +1,6 @@
 package com.example.FoodDelivery.service;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
@@ -9,6 +10,27 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.geo.Point;
+
+import com.example.FoodDelivery.util.GeoHashUtils;
+import com.example.FoodDelivery.util.ProviderCallGuard;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,17 +38,70 @@ import org.slf4j.LoggerFactory;
 @Service
 public class MapboxService {
     private static final Logger log = LoggerFactory.getLogger(MapboxService.class);
-    private static final String MAPBOX_DIRECTIONS_URL = "https://api.mapbox.com/directions/v5/mapbox/driving";
+    private static final String DIRECTIONS_PATH = "/directions/v5/mapbox/driving";
+    private static final String MATRIX_PATH = "/directions-matrix/v1/mapbox/driving";
+
+    // Matrix API accepts at most 25 coordinates per request (1 anchor + 24 others)
+    private static final int MATRIX_MAX_COORDINATES = 25;
+
+    // Outbound call limits: worker threads and their queue, bulkhead size and
+    // circuit breaker. Async work beyond the queue is rejected rather than piling up
+    private static final int REQUEST_THREADS = 8;
+    private static final int REQUEST_QUEUE_CAPACITY = 32;
+    private static final int MAX_CONCURRENT_CALLS = REQUEST_THREADS;
+    private static final int CIRCUIT_FAILURE_THRESHOLD = 5;
+    private static final long CIRCUIT_OPEN_MILLIS = 30_000;
+
+    // Route cache: endpoints snapped to ~150m geohash cells
+    private static final String ROUTE_CACHE_PREFIX = "route:";
+    private static final int ROUTE_CELL_PRECISION = 7;
+    private static final int ROUTE_LOCAL_MAX_ENTRIES = 10_000;
+    private static final long ROUTE_LOCAL_TTL_MINUTES = 30;
+    private static final long ROUTE_REDIS_TTL_HOURS = 24;
 
     @Value("${mapbox.access.token}")
     private String mapboxToken;
 
+    // Overridable so load tests can point at a stub with injected latency
+    @Value("${mapbox.base-url:https://api.mapbox.com}")
+    private String mapboxBaseUrl;
+
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final ExecutorService requestExecutor;
+    private final ProviderCallGuard mapboxGuard;
+    private final RedisCacheService redisCacheService;
+
+    private final Map<String, LocalRouteEntry> localRouteCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LocalRouteEntry> eldest) {
+            return size() > ROUTE_LOCAL_MAX_ENTRIES;
+        }
+    };
+
+    private final Counter localCacheHits;
+    private final Counter localCacheMisses;
+    private final Counter redisCacheHits;
+    private final Counter redisCacheMisses;
 
-    public MapboxService() {
-        this.restTemplate = new RestTemplate();
-        this.objectMapper = new ObjectMapper();
+    public MapboxService(@Qualifier("mapboxRestTemplate") RestTemplate restTemplate, ObjectMapper objectMapper,
+            RedisCacheService redisCacheService, MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.requestExecutor = new ThreadPoolExecutor(REQUEST_THREADS, REQUEST_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(REQUEST_QUEUE_CAPACITY));
+        this.mapboxGuard = new ProviderCallGuard("Mapbox", MAX_CONCURRENT_CALLS, CIRCUIT_FAILURE_THRESHOLD,
+                CIRCUIT_OPEN_MILLIS);
+        this.redisCacheService = redisCacheService;
+        this.localCacheHits = meterRegistry.counter("mapbox.route.cache", "tier", "local", "result", "hit");
+        this.localCacheMisses = meterRegistry.counter("mapbox.route.cache", "tier", "local", "result", "miss");
+        this.redisCacheHits = meterRegistry.counter("mapbox.route.cache", "tier", "redis", "result", "hit");
+        this.redisCacheMisses = meterRegistry.counter("mapbox.route.cache", "tier", "redis", "result", "miss");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        requestExecutor.shutdown();
     }
 
     /**
@@ -40,18 +115,120 @@ public class MapboxService {
      * @return Distance in kilometers, or null if API call fails
      */
     public BigDecimal getDrivingDistance(BigDecimal fromLat, BigDecimal fromLng, BigDecimal toLat, BigDecimal toLng) {
+        RouteMetrics route = getDrivingRoute(fromLat, fromLng, toLat, toLng);
+        return route != null ? route.getDistanceKm() : null;
+    }
+
+    /**
+     * Get driving distance without blocking the caller, so it can be joined with
+     * other lookups
+     * 
+     * @return Future of the distance in kilometers; completes with null if the API
+     *         call fails or the request queue is full
+     */
+    public CompletableFuture<BigDecimal> getDrivingDistanceAsync(BigDecimal fromLat, BigDecimal fromLng,
+            BigDecimal toLat, BigDecimal toLng) {
+        try {
+            return CompletableFuture.supplyAsync(() -> getDrivingDistance(fromLat, fromLng, toLat, toLng),
+                    requestExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Mapbox request queue is full, skipping driving distance lookup");
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Get driving duration in minutes between two points
+     * 
+     * @param fromLat Starting point latitude
+     * @param fromLng Starting point longitude
+     * @param toLat   Destination latitude
+     * @param toLng   Destination longitude
+     * @return Duration in minutes, or null if API call fails
+     */
+    public BigDecimal getDrivingDuration(BigDecimal fromLat, BigDecimal fromLng, BigDecimal toLat, BigDecimal toLng) {
+        RouteMetrics route = getDrivingRoute(fromLat, fromLng, toLat, toLng);
+        return route != null ? route.getDurationMinutes() : null;
+    }
+
+    /**
+     * Get driving distance and duration between two points.
+     * Both endpoints are snapped to geohash cells; results are cached in a local
+     * LRU in front of Redis, so repeated pairs skip the Directions API call.
+     * 
+     * @param fromLat Starting point latitude
+     * @param fromLng Starting point longitude
+     * @param toLat   Destination latitude
+     * @param toLng   Destination longitude
+     * @return Route distance and duration, or null if API call fails
+     */
+    public RouteMetrics getDrivingRoute(BigDecimal fromLat, BigDecimal fromLng, BigDecimal toLat, BigDecimal toLng) {
+        if (fromLat == null || fromLng == null || toLat == null || toLng == null) {
+            log.warn("Cannot get driving route: coordinates are missing");
+            return null;
+        }
+
+        String cacheKey = ROUTE_CACHE_PREFIX +
+                GeoHashUtils.encode(fromLat.doubleValue(), fromLng.doubleValue(), ROUTE_CELL_PRECISION) + ":" +
+                GeoHashUtils.encode(toLat.doubleValue(), toLng.doubleValue(), ROUTE_CELL_PRECISION);
+
+        // Tier 1: in-process LRU
+        LocalRouteEntry localEntry;
+        synchronized (localRouteCache) {
+            localEntry = localRouteCache.get(cacheKey);
+        }
+        if (localEntry != null && localEntry.expiresAt > System.currentTimeMillis()) {
+            localCacheHits.increment();
+            return localEntry.route;
+        }
+        localCacheMisses.increment();
+
+        // Tier 2: Redis
+        Object cachedData = redisCacheService.get(cacheKey);
+        if (cachedData != null) {
+            try {
+                // Cached value comes back as a Map (JSON serializer has no type info)
+                RouteMetrics route = cachedData instanceof RouteMetrics
+                        ? (RouteMetrics) cachedData
+                        : objectMapper.convertValue(cachedData, RouteMetrics.class);
+                redisCacheHits.increment();
+                putLocalRoute(cacheKey, route);
+                return route;
+            } catch (Exception e) {
+                log.warn("Error reading route from cache: {}", e.getMessage());
+            }
+        }
+        redisCacheMisses.increment();
+
+        RouteMetrics route = fetchDrivingRoute(fromLat, fromLng, toLat, toLng);
+        if (route != null) {
+            redisCacheService.set(cacheKey, route, ROUTE_REDIS_TTL_HOURS, TimeUnit.HOURS);
+            putLocalRoute(cacheKey, route);
+        }
+        return route;
+    }
+
+    private void putLocalRoute(String cacheKey, RouteMetrics route) {
+        long expiresAt = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(ROUTE_LOCAL_TTL_MINUTES);
+        synchronized (localRouteCache) {
+            localRouteCache.put(cacheKey, new LocalRouteEntry(route, expiresAt));
+        }
+    }
+
+    private RouteMetrics fetchDrivingRoute(BigDecimal fromLat, BigDecimal fromLng, BigDecimal toLat,
+            BigDecimal toLng) {
         try {
             // Format: {longitude},{latitude};{longitude},{latitude}
             String coordinates = fromLng + "," + fromLat + ";" + toLng + "," + toLat;
 
             String url = UriComponentsBuilder
-                    .fromHttpUrl(MAPBOX_DIRECTIONS_URL + "/" + coordinates)
+                    .fromHttpUrl(mapboxBaseUrl + DIRECTIONS_PATH + "/" + coordinates)
                     .queryParam("access_token", mapboxToken)
                     .queryParam("geometries", "geojson")
                     .queryParam("overview", "false")
                     .toUriString();
 
-            String response = restTemplate.getForObject(url, String.class);
+            String response = mapboxGuard.call(() -> restTemplate.getForObject(url, String.class));
 
             if (response == null) {
                 log.warn("Mapbox API returned null response");
@@ -67,68 +244,183 @@ public class MapboxService {
                 return null;
             }
 
-            // Get distance in meters from first route
+            // Distance in meters and duration in seconds from first route
             JsonNode firstRoute = routes.get(0);
             double distanceInMeters = firstRoute.get("distance").asDouble();
+            double durationInSeconds = firstRoute.get("duration").asDouble();
 
-            // Convert to kilometers
-            BigDecimal distanceInKm = new BigDecimal(distanceInMeters / 1000.0);
+            // Convert to kilometers and minutes
+            RouteMetrics route = new RouteMetrics(
+                    new BigDecimal(distanceInMeters / 1000.0),
+                    new BigDecimal(durationInSeconds / 60.0));
 
-            log.debug("Mapbox distance from ({},{}) to ({},{}): {} km",
-                    fromLat, fromLng, toLat, toLng, distanceInKm);
+            log.debug("Mapbox route from ({},{}) to ({},{}): {} km, {} min",
+                    fromLat, fromLng, toLat, toLng, route.getDistanceKm(), route.getDurationMinutes());
 
-            return distanceInKm;
+            return route;
 
         } catch (Exception e) {
-            log.error("Failed to get driving distance from Mapbox API: {}", e.getMessage(), e);
+            log.error("Failed to get driving route from Mapbox API: {}", e.getMessage(), e);
             return null;
         }
     }
 
     /**
-     * Get driving duration in minutes between two points
-     * 
-     * @param fromLat Starting point latitude
-     * @param fromLng Starting point longitude
+     * Get driving distances in kilometers from one origin to many destinations
+     * using the Mapbox Matrix API (chunked to the provider's coordinate limit)
+     *
+     * @param fromLat      Origin latitude
+     * @param fromLng      Origin longitude
+     * @param destinations Destinations as Point(longitude, latitude)
+     * @return Distances in kilometers, aligned with destinations; an entry is null
+     *         if no route was found or the request for its chunk failed
+     */
+    public List<BigDecimal> getDrivingDistancesFromOrigin(BigDecimal fromLat, BigDecimal fromLng,
+            List<Point> destinations) {
+        return getDrivingDistanceMatrix(fromLat, fromLng, destinations, true);
+    }
+
+    /**
+     * Get driving distances in kilometers from many origins to one destination
+     * using the Mapbox Matrix API (chunked to the provider's coordinate limit)
+     *
+     * @param origins Origins as Point(longitude, latitude)
      * @param toLat   Destination latitude
      * @param toLng   Destination longitude
-     * @return Duration in minutes, or null if API call fails
+     * @return Distances in kilometers, aligned with origins; an entry is null if
+     *         no route was found or the request for its chunk failed
      */
-    public BigDecimal getDrivingDuration(BigDecimal fromLat, BigDecimal fromLng, BigDecimal toLat, BigDecimal toLng) {
+    public List<BigDecimal> getDrivingDistancesToDestination(List<Point> origins, BigDecimal toLat,
+            BigDecimal toLng) {
+        return getDrivingDistanceMatrix(toLat, toLng, origins, false);
+    }
+
+    private List<BigDecimal> getDrivingDistanceMatrix(BigDecimal anchorLat, BigDecimal anchorLng,
+            List<Point> others, boolean anchorIsSource) {
+        BigDecimal[] distances = new BigDecimal[others.size()];
+        int chunkSize = MATRIX_MAX_COORDINATES - 1;
+
+        if (others.size() <= chunkSize) {
+            fetchMatrixChunk(anchorLat, anchorLng, others, anchorIsSource, distances, 0);
+            return Arrays.asList(distances);
+        }
+
+        // Several chunks: fan out and join so latency stays at one round trip
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int start = 0; start < others.size(); start += chunkSize) {
+            int offset = start;
+            List<Point> chunk = others.subList(start, Math.min(start + chunkSize, others.size()));
+            try {
+                futures.add(CompletableFuture.runAsync(
+                        () -> fetchMatrixChunk(anchorLat, anchorLng, chunk, anchorIsSource, distances, offset),
+                        requestExecutor));
+            } catch (RejectedExecutionException e) {
+                // Distances of this chunk stay null, as for a failed call
+                log.warn("Mapbox request queue is full, skipping matrix chunk at offset {}", offset);
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        return Arrays.asList(distances);
+    }
+
+    private void fetchMatrixChunk(BigDecimal anchorLat, BigDecimal anchorLng, List<Point> chunk,
+            boolean anchorIsSource, BigDecimal[] distances, int offset) {
         try {
-            String coordinates = fromLng + "," + fromLat + ";" + toLng + "," + toLat;
+            // Format: anchor first, then the chunk -
+            // {longitude},{latitude};{longitude},{latitude};...
+            StringBuilder coordinates = new StringBuilder();
+            coordinates.append(anchorLng).append(",").append(anchorLat);
+            StringBuilder otherIndexes = new StringBuilder();
+            for (int i = 0; i < chunk.size(); i++) {
+                Point point = chunk.get(i);
+                coordinates.append(";").append(point.getX()).append(",").append(point.getY());
+                if (i > 0) {
+                    otherIndexes.append(";");
+                }
+                otherIndexes.append(i + 1);
+            }
 
             String url = UriComponentsBuilder
-                    .fromHttpUrl(MAPBOX_DIRECTIONS_URL + "/" + coordinates)
+                    .fromHttpUrl(mapboxBaseUrl + MATRIX_PATH + "/" + coordinates)
                     .queryParam("access_token", mapboxToken)
-                    .queryParam("geometries", "geojson")
-                    .queryParam("overview", "false")
+                    .queryParam("annotations", "distance")
+                    .queryParam("sources", anchorIsSource ? "0" : otherIndexes.toString())
+                    .queryParam("destinations", anchorIsSource ? otherIndexes.toString() : "0")
                     .toUriString();
 
-            String response = restTemplate.getForObject(url, String.class);
+            String response = mapboxGuard.call(() -> restTemplate.getForObject(url, String.class));
 
             if (response == null) {
-                return null;
+                log.warn("Mapbox Matrix API returned null response");
+                return;
             }
 
             JsonNode root = objectMapper.readTree(response);
-            JsonNode routes = root.get("routes");
+            JsonNode matrix = root.get("distances");
 
-            if (routes == null || routes.isEmpty()) {
-                return null;
+            if (matrix == null || matrix.isEmpty()) {
+                log.warn("No distances found in Mapbox Matrix response");
+                return;
             }
 
-            JsonNode firstRoute = routes.get(0);
-            double durationInSeconds = firstRoute.get("duration").asDouble();
-
-            // Convert to minutes
-            BigDecimal durationInMinutes = new BigDecimal(durationInSeconds / 60.0);
+            // Rows are sources, columns are destinations
+            for (int i = 0; i < chunk.size(); i++) {
+                JsonNode cell = anchorIsSource ? matrix.get(0).get(i) : matrix.get(i).get(0);
+                if (cell != null && !cell.isNull()) {
+                    distances[offset + i] = new BigDecimal(cell.asDouble() / 1000.0);
+                }
+            }
 
-            return durationInMinutes;
+            log.debug("Mapbox matrix distances for {} points around ({},{})", chunk.size(), anchorLat, anchorLng);
 
         } catch (Exception e) {
-            log.error("Failed to get driving duration from Mapbox API: {}", e.getMessage(), e);
-            return null;
+            log.error("Failed to get driving distance matrix from Mapbox API: {}", e.getMessage(), e);
+        }
+    }
+
+    private static class LocalRouteEntry {
+        private final RouteMetrics route;
+        private final long expiresAt;
+
+        private LocalRouteEntry(RouteMetrics route, long expiresAt) {
+            this.route = route;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Route metrics holder class
+     */
+    public static class RouteMetrics implements java.io.Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private BigDecimal distanceKm;
+        private BigDecimal durationMinutes;
+
+        public RouteMetrics() {
+        }
+
+        public RouteMetrics(BigDecimal distanceKm, BigDecimal durationMinutes) {
+            this.distanceKm = distanceKm;
+            this.durationMinutes = durationMinutes;
+        }
+
+        // Getters and Setters
+        public BigDecimal getDistanceKm() {
+            return distanceKm;
+        }
+
+        public void setDistanceKm(BigDecimal distanceKm) {
+            this.distanceKm = distanceKm;
+        }
+
+        public BigDecimal getDurationMinutes() {
+            return durationMinutes;
+        }
+
+        public void setDurationMinutes(BigDecimal durationMinutes) {
+            this.durationMinutes = durationMinutes;
         }
     }
 }
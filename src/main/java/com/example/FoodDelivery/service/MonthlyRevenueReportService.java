@@ -5,35 +5,66 @@ import java.math.RoundingMode;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.sql.Timestamp;
 import java.time.ZoneId;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.FoodDelivery.domain.MonthlyRevenueReport;
-import com.example.FoodDelivery.domain.OrderEarningsSummary;
 import com.example.FoodDelivery.domain.Restaurant;
 import com.example.FoodDelivery.domain.res.ResultPaginationDTO;
 import com.example.FoodDelivery.repository.MonthlyRevenueReportRepository;
+import com.example.FoodDelivery.repository.OrderEarningsSummaryRepository;
+import com.example.FoodDelivery.repository.RestaurantRepository;
 import com.example.FoodDelivery.util.error.IdInvalidException;
 
+import lombok.extern.slf4j.Slf4j;
+
 @Service
+@Slf4j
 public class MonthlyRevenueReportService {
+    private static final int UPSERT_BATCH_SIZE = 500;
+
+    // Re-running the month close overwrites the figures of an existing report
+    private static final String UPSERT_REPORT_SQL = "INSERT INTO monthly_revenue_reports "
+            + "(restaurant_id, month, year, total_revenue, total_commission, net_payout, total_orders, generated_at) "
+            + "VALUES (:restaurantId, :month, :year, :totalRevenue, :totalCommission, :netPayout, :totalOrders, "
+            + ":generatedAt) ON DUPLICATE KEY UPDATE total_revenue = VALUES(total_revenue), "
+            + "total_commission = VALUES(total_commission), net_payout = VALUES(net_payout), "
+            + "total_orders = VALUES(total_orders), generated_at = VALUES(generated_at)";
+
+    private static final String PERIOD_INDEX_NAME = "idx_monthly_revenue_restaurant_period";
+
+    private static final String PERIOD_INDEX_EXISTS_SQL = "SHOW INDEX FROM monthly_revenue_reports "
+            + "WHERE Key_name = '" + PERIOD_INDEX_NAME + "'";
+
     private final MonthlyRevenueReportRepository monthlyRevenueReportRepository;
     private final RestaurantService restaurantService;
-    private final OrderEarningsSummaryService orderEarningsSummaryService;
+    private final OrderEarningsSummaryRepository orderEarningsSummaryRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
 
     public MonthlyRevenueReportService(MonthlyRevenueReportRepository monthlyRevenueReportRepository,
             RestaurantService restaurantService,
-            OrderEarningsSummaryService orderEarningsSummaryService) {
+            OrderEarningsSummaryRepository orderEarningsSummaryRepository,
+            RestaurantRepository restaurantRepository,
+            NamedParameterJdbcTemplate jdbcTemplate) {
         this.monthlyRevenueReportRepository = monthlyRevenueReportRepository;
         this.restaurantService = restaurantService;
-        this.orderEarningsSummaryService = orderEarningsSummaryService;
+        this.orderEarningsSummaryRepository = orderEarningsSummaryRepository;
+        this.restaurantRepository = restaurantRepository;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     public boolean existsByRestaurantIdAndMonthAndYear(Long restaurantId, Integer month, Integer year) {
@@ -127,50 +158,109 @@ public class MonthlyRevenueReportService {
             throw new IdInvalidException("Monthly revenue report already exists for this restaurant, month and year");
         }
 
-        // calculate date range for the month
+        // sum this restaurant's earnings summaries for the month in the database
         YearMonth yearMonth = YearMonth.of(year, month);
-        LocalDate startDate = yearMonth.atDay(1);
-        LocalDate endDate = yearMonth.atEndOfMonth();
-
-        Instant startInstant = startDate.atStartOfDay(ZoneId.systemDefault()).toInstant();
-        Instant endInstant = endDate.atTime(23, 59, 59).atZone(ZoneId.systemDefault()).toInstant();
-
-        // get all order earnings summaries for this restaurant in this month
-        List<OrderEarningsSummary> summaries = this.orderEarningsSummaryService
-                .getOrderEarningsSummariesByDateRange(startInstant, endInstant)
-                .stream()
-                .filter(s -> s.getRestaurant().getId().equals(restaurantId))
-                .toList();
-
-        // calculate totals
-        BigDecimal totalRevenue = summaries.stream()
-                .map(OrderEarningsSummary::getOrderSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalCommission = summaries.stream()
-                .map(OrderEarningsSummary::getRestaurantCommissionAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal netPayout = summaries.stream()
-                .map(OrderEarningsSummary::getRestaurantNetEarning)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        Integer totalOrders = summaries.size();
+        List<Object[]> rows = this.orderEarningsSummaryRepository.sumRestaurantTotals(restaurantId,
+                monthStart(yearMonth), monthEnd(yearMonth));
+        Object[] totals = rows.isEmpty() ? new Object[] { null, null, null, 0L } : rows.get(0);
 
         // create report
         MonthlyRevenueReport report = MonthlyRevenueReport.builder()
                 .restaurant(restaurant)
                 .month(month)
                 .year(year)
-                .totalRevenue(totalRevenue)
-                .totalCommission(totalCommission)
-                .netPayout(netPayout)
-                .totalOrders(totalOrders)
+                .totalRevenue(amount(totals[0]))
+                .totalCommission(amount(totals[1]))
+                .netPayout(amount(totals[2]))
+                .totalOrders(((Number) totals[3]).intValue())
                 .build();
 
         return monthlyRevenueReportRepository.save(report);
     }
 
+    /**
+     * Month close: previous month's report for every restaurant, at 02:00 on the
+     * 1st
+     */
+    @Scheduled(cron = "0 0 2 1 * *")
+    public void closePreviousMonth() {
+        YearMonth previous = YearMonth.now().minusMonths(1);
+        try {
+            generateMonthlyRevenueReports(previous.getMonthValue(), previous.getYear());
+        } catch (Exception e) {
+            log.error("Month close failed for {}", previous, e);
+        }
+    }
+
+    /**
+     * Generate the reports of all restaurants for a month
+     * Totals come from one grouped query and are written as batched upserts, so
+     * re-running (or resuming after a failure) overwrites instead of duplicating.
+     * Restaurants without orders get a zero report.
+     *
+     * @return number of reports written
+     */
+    public int generateMonthlyRevenueReports(Integer month, Integer year) throws IdInvalidException {
+        if (month == null || month < 1 || month > 12) {
+            throw new IdInvalidException("Month must be between 1 and 12");
+        }
+        if (year == null || year < 2000) {
+            throw new IdInvalidException("Invalid year");
+        }
+
+        // Without the unique index the upsert would insert duplicates instead of
+        // overwriting; it is created by scripts/db/monthly-revenue-reports-unique-period.sql
+        if (this.jdbcTemplate.getJdbcTemplate().queryForList(PERIOD_INDEX_EXISTS_SQL).isEmpty()) {
+            throw new IllegalStateException("Unique index " + PERIOD_INDEX_NAME
+                    + " is missing; run scripts/db/monthly-revenue-reports-unique-period.sql first");
+        }
+
+        YearMonth yearMonth = YearMonth.of(year, month);
+        Map<Long, Object[]> totalsByRestaurantId = new HashMap<>();
+        for (Object[] row : this.orderEarningsSummaryRepository
+                .sumRestaurantTotalsByRecordedAtBetween(monthStart(yearMonth), monthEnd(yearMonth))) {
+            totalsByRestaurantId.put((Long) row[0], row);
+        }
+
+        List<Long> restaurantIds = this.restaurantRepository.findAllIds();
+        Timestamp generatedAt = Timestamp.from(Instant.now());
+        for (int start = 0; start < restaurantIds.size(); start += UPSERT_BATCH_SIZE) {
+            List<Long> chunk = restaurantIds.subList(start, Math.min(start + UPSERT_BATCH_SIZE,
+                    restaurantIds.size()));
+            MapSqlParameterSource[] params = new MapSqlParameterSource[chunk.size()];
+            for (int i = 0; i < chunk.size(); i++) {
+                Object[] totals = totalsByRestaurantId.get(chunk.get(i));
+                params[i] = new MapSqlParameterSource()
+                        .addValue("restaurantId", chunk.get(i))
+                        .addValue("month", month)
+                        .addValue("year", year)
+                        .addValue("totalRevenue", totals != null ? amount(totals[1]) : BigDecimal.ZERO)
+                        .addValue("totalCommission", totals != null ? amount(totals[2]) : BigDecimal.ZERO)
+                        .addValue("netPayout", totals != null ? amount(totals[3]) : BigDecimal.ZERO)
+                        .addValue("totalOrders", totals != null ? ((Number) totals[4]).intValue() : 0)
+                        .addValue("generatedAt", generatedAt);
+            }
+            this.jdbcTemplate.batchUpdate(UPSERT_REPORT_SQL, params);
+        }
+
+        log.info("📅 Generated {} monthly revenue reports for {} ({} restaurants with orders)",
+                restaurantIds.size(), yearMonth, totalsByRestaurantId.size());
+        return restaurantIds.size();
+    }
+
+    private static Instant monthStart(YearMonth yearMonth) {
+        return yearMonth.atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static Instant monthEnd(YearMonth yearMonth) {
+        LocalDate nextMonth = yearMonth.plusMonths(1).atDay(1);
+        return nextMonth.atStartOfDay(ZoneId.systemDefault()).toInstant().minusNanos(1);
+    }
+
+    private static BigDecimal amount(Object value) {
+        return value != null ? (BigDecimal) value : BigDecimal.ZERO;
+    }
+
     @Transactional
     public MonthlyRevenueReport updateMonthlyRevenueReport(MonthlyRevenueReport monthlyRevenueReport)
             throws IdInvalidException {
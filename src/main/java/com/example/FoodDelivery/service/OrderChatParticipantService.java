@@ -0,0 +1,269 @@
+package com.example.FoodDelivery.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.FoodDelivery.domain.Order;
+import com.example.FoodDelivery.domain.User;
+import com.example.FoodDelivery.repository.OrderRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory participant set (customer, driver, restaurant owner) of each active
+ * order, used to authorize and route chat and typing frames without touching
+ * the database. Entries are refreshed on order state transitions, dropped once
+ * the order is finished, and evicted on other nodes through Redis pub/sub.
+ */
+@Service
+@Slf4j
+public class OrderChatParticipantService implements MessageListener {
+    // Other nodes evict the order named in the message body ("nodeId:orderId")
+    private static final String PARTICIPANTS_CHANGED_CHANNEL = "order:participants:changed";
+
+    private static final Set<String> FINISHED_STATUSES = Set.of("DELIVERED", "CANCELLED", "REJECTED");
+    // Orders that never reach a final status are reloaded after this long
+    private static final Duration MAX_ENTRY_AGE = Duration.ofHours(4);
+
+    private final OrderRepository orderRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<Long, Participants> participantsByOrderId = new ConcurrentHashMap<>();
+
+    public OrderChatParticipantService(OrderRepository orderRepository,
+            StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer redisMessageListenerContainer) {
+        this.orderRepository = orderRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisMessageListenerContainer = redisMessageListenerContainer;
+    }
+
+    @PostConstruct
+    public void subscribeToParticipantChanges() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(PARTICIPANTS_CHANGED_CHANNEL));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        if (separator < 0 || nodeId.equals(body.substring(0, separator))) {
+            return;
+        }
+        try {
+            participantsByOrderId.remove(Long.parseLong(body.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed participant change message: {}", body);
+        }
+    }
+
+    /**
+     * Get the participants of an order
+     * Active orders are served from memory; a miss loads one row from the database
+     *
+     * @param orderId Order ID
+     * @return participants, or null if the order does not exist
+     */
+    public Participants getParticipants(Long orderId) {
+        if (orderId == null) {
+            return null;
+        }
+        Participants cached = participantsByOrderId.get(orderId);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+
+        List<Object[]> rows = orderRepository.findChatParticipantsById(orderId);
+        if (rows.isEmpty()) {
+            participantsByOrderId.remove(orderId);
+            return null;
+        }
+        Object[] row = rows.get(0);
+        Participants participants = new Participants(orderId,
+                (Long) row[0], (String) row[1],
+                (Long) row[2], (String) row[3], row[4] != null,
+                (Long) row[5], (String) row[6]);
+        String orderStatus = (String) row[7];
+        if (!FINISHED_STATUSES.contains(orderStatus)) {
+            participantsByOrderId.put(orderId, participants);
+        }
+        return participants;
+    }
+
+    /**
+     * Update the cached participants after an order changes state
+     * Finished orders are evicted instead. Applied locally and announced to other
+     * nodes once the surrounding transaction commits, so a rolled-back change is
+     * never cached and other nodes never reload uncommitted state.
+     *
+     * @param order Order entity as just saved
+     */
+    public void refresh(Order order) {
+        if (order == null || order.getId() == null) {
+            return;
+        }
+        Long orderId = order.getId();
+        // Read the entity now, while its lazy associations can still be loaded
+        Participants participants = FINISHED_STATUSES.contains(order.getOrderStatus()) ? null : fromOrder(order);
+        afterCommit(() -> {
+            if (participants == null) {
+                participantsByOrderId.remove(orderId);
+            } else {
+                participantsByOrderId.put(orderId, participants);
+            }
+            sendChange(orderId);
+        });
+    }
+
+    /**
+     * Drop an order's participants locally and on other nodes once the
+     * surrounding transaction commits
+     * Call when the order is deleted
+     */
+    public void evict(Long orderId) {
+        if (orderId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            participantsByOrderId.remove(orderId);
+            sendChange(orderId);
+        });
+    }
+
+    /**
+     * Drop entries of orders that stayed active longer than MAX_ENTRY_AGE
+     */
+    @Scheduled(fixedRate = 600000)
+    public void purgeExpired() {
+        int before = participantsByOrderId.size();
+        participantsByOrderId.values().removeIf(Participants::isExpired);
+        int purged = before - participantsByOrderId.size();
+        if (purged > 0) {
+            log.debug("Purged {} expired chat participant entries", purged);
+        }
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private void sendChange(Long orderId) {
+        try {
+            stringRedisTemplate.convertAndSend(PARTICIPANTS_CHANGED_CHANNEL, nodeId + ":" + orderId);
+        } catch (Exception e) {
+            log.error("Failed to publish participant change for order {}", orderId, e);
+        }
+    }
+
+    private static Participants fromOrder(Order order) {
+        User customer = order.getCustomer();
+        User driver = order.getDriver();
+        User owner = order.getRestaurant() != null ? order.getRestaurant().getOwner() : null;
+        return new Participants(order.getId(),
+                customer != null ? customer.getId() : null,
+                customer != null ? customer.getEmail() : null,
+                driver != null ? driver.getId() : null,
+                driver != null ? driver.getEmail() : null,
+                driver != null && driver.getDriverProfile() != null,
+                owner != null ? owner.getId() : null,
+                owner != null ? owner.getEmail() : null);
+    }
+
+    /**
+     * Immutable participant set of one order
+     */
+    public static class Participants {
+        private final Long orderId;
+        private final Long customerId;
+        private final String customerEmail;
+        private final Long driverId;
+        private final String driverEmail;
+        private final boolean driverHasProfile;
+        private final Long ownerId;
+        private final String ownerEmail;
+        private final Instant cachedAt = Instant.now();
+
+        public Participants(Long orderId, Long customerId, String customerEmail, Long driverId,
+                String driverEmail, boolean driverHasProfile, Long ownerId, String ownerEmail) {
+            this.orderId = orderId;
+            this.customerId = customerId;
+            this.customerEmail = customerEmail;
+            this.driverId = driverId;
+            this.driverEmail = driverEmail;
+            this.driverHasProfile = driverHasProfile;
+            this.ownerId = ownerId;
+            this.ownerEmail = ownerEmail;
+        }
+
+        public Long getOrderId() {
+            return orderId;
+        }
+
+        public Long getCustomerId() {
+            return customerId;
+        }
+
+        public String getCustomerEmail() {
+            return customerEmail;
+        }
+
+        public Long getDriverId() {
+            return driverId;
+        }
+
+        public String getDriverEmail() {
+            return driverEmail;
+        }
+
+        public boolean isDriverHasProfile() {
+            return driverHasProfile;
+        }
+
+        public Long getOwnerId() {
+            return ownerId;
+        }
+
+        public String getOwnerEmail() {
+            return ownerEmail;
+        }
+
+        /**
+         * Only the customer and driver of the order take part in its chat
+         */
+        public boolean isChatParticipant(String email) {
+            return email != null && (email.equals(customerEmail) || email.equals(driverEmail));
+        }
+
+        private boolean isExpired() {
+            return cachedAt.plus(MAX_ENTRY_AGE).isBefore(Instant.now());
+        }
+    }
+}
@@ -9,7 +9,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.FoodDelivery.domain.Order;
-import com.example.FoodDelivery.domain.SystemConfiguration;
 import com.example.FoodDelivery.repository.OrderRepository;
 import com.example.FoodDelivery.util.error.IdInvalidException;
 
@@ -21,13 +20,16 @@ public class OrderCleanupService {
     private final OrderRepository orderRepository;
     private final SystemConfigurationService systemConfigurationService;
     private final OrderService orderService;
+    private final OrderChatParticipantService orderChatParticipantService;
 
     public OrderCleanupService(OrderRepository orderRepository,
             SystemConfigurationService systemConfigurationService,
-            OrderService orderService) {
+            OrderService orderService,
+            OrderChatParticipantService orderChatParticipantService) {
         this.orderRepository = orderRepository;
         this.systemConfigurationService = systemConfigurationService;
         this.orderService = orderService;
+        this.orderChatParticipantService = orderChatParticipantService;
     }
 
     /**
@@ -55,6 +57,7 @@ public class OrderCleanupService {
                             ChronoUnit.MINUTES.between(order.getCreatedAt(), Instant.now()));
 
                     orderRepository.delete(order);
+                    orderChatParticipantService.evict(order.getId());
                 }
 
                 log.info("Successfully cleaned up {} expired VNPAY orders", expiredOrders.size());
@@ -75,30 +78,10 @@ public class OrderCleanupService {
     public void autoCancelStaleOrders() {
         try {
             // Get timeout for PENDING orders (restaurant response timeout)
-            int restaurantTimeoutMinutes = 15;
-            try {
-                SystemConfiguration config = systemConfigurationService
-                        .getSystemConfigurationByKey("RESTAURANT_RESPONSE_TIMEOUT_MINUTES");
-                if (config != null && config.getConfigValue() != null && !config.getConfigValue().isEmpty()) {
-                    restaurantTimeoutMinutes = Integer.parseInt(config.getConfigValue());
-                }
-            } catch (Exception e) {
-                log.warn("Failed to get RESTAURANT_RESPONSE_TIMEOUT_MINUTES config, using default {} minutes",
-                        restaurantTimeoutMinutes);
-            }
+            int restaurantTimeoutMinutes = systemConfigurationService.getInteger("RESTAURANT_RESPONSE_TIMEOUT_MINUTES", 15);
 
             // Get timeout for PREPARING orders (driver assignment timeout)
-            int driverTimeoutMinutes = 30;
-            try {
-                SystemConfiguration config = systemConfigurationService
-                        .getSystemConfigurationByKey("DRIVER_ASSIGNMENT_TIMEOUT_MINUTES");
-                if (config != null && config.getConfigValue() != null && !config.getConfigValue().isEmpty()) {
-                    driverTimeoutMinutes = Integer.parseInt(config.getConfigValue());
-                }
-            } catch (Exception e) {
-                log.warn("Failed to get DRIVER_ASSIGNMENT_TIMEOUT_MINUTES config, using default {} minutes",
-                        driverTimeoutMinutes);
-            }
+            int driverTimeoutMinutes = systemConfigurationService.getInteger("DRIVER_ASSIGNMENT_TIMEOUT_MINUTES", 30);
 
             // Process PENDING orders
             Instant restaurantCutoffTime = Instant.now().minus(restaurantTimeoutMinutes, ChronoUnit.MINUTES);
@@ -161,17 +144,7 @@ public class OrderCleanupService {
     public void autoAcceptUnrespondedOrders() {
         try {
             // Get timeout from system configuration (default 30 seconds)
-            int acceptTimeoutSeconds = 30;
-            try {
-                SystemConfiguration config = systemConfigurationService
-                        .getSystemConfigurationByKey("DRIVER_ACCEPT_TIMEOUT_SEC");
-                if (config != null && config.getConfigValue() != null && !config.getConfigValue().isEmpty()) {
-                    acceptTimeoutSeconds = Integer.parseInt(config.getConfigValue());
-                }
-            } catch (Exception e) {
-                log.warn("Failed to get DRIVER_ACCEPT_TIMEOUT_SEC config, using default {} seconds",
-                        acceptTimeoutSeconds);
-            }
+            int acceptTimeoutSeconds = systemConfigurationService.getInteger("DRIVER_ACCEPT_TIMEOUT_SEC", 30);
 
             // Calculate cutoff time
             Instant cutoffTime = Instant.now().minus(acceptTimeoutSeconds, ChronoUnit.SECONDS);
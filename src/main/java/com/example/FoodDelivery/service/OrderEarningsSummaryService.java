@@ -256,14 +256,11 @@ public class OrderEarningsSummaryService {
                 && summary.getDriverNetEarning().compareTo(BigDecimal.ZERO) > 0) {
             Wallet driverWallet = walletService.getWalletByUserId(summary.getDriver().getId());
             if (driverWallet != null) {
-                driverWallet = walletService.addBalance(driverWallet.getId(), summary.getDriverNetEarning());
-
-                // Create transaction record
+                // Transaction record; a SUCCESS transaction credits the wallet atomically
                 WalletTransaction driverTransaction = WalletTransaction.builder()
                         .wallet(driverWallet)
                         .transactionType("DELIVERY_EARNING")
                         .amount(summary.getDriverNetEarning())
-                        .balanceAfter(driverWallet.getBalance())
                         .description("Delivery earning from order #" + orderId)
                         .order(summary.getOrder())
                         .status("SUCCESS")
@@ -284,15 +281,11 @@ public class OrderEarningsSummaryService {
             if (restaurantOwner != null) {
                 Wallet restaurantWallet = walletService.getWalletByUserId(restaurantOwner.getId());
                 if (restaurantWallet != null) {
-                    restaurantWallet = walletService.addBalance(restaurantWallet.getId(),
-                            summary.getRestaurantNetEarning());
-
-                    // Create transaction record
+                    // Transaction record; a SUCCESS transaction credits the wallet atomically
                     WalletTransaction restaurantTransaction = WalletTransaction.builder()
                             .wallet(restaurantWallet)
                             .transactionType("RESTAURANT_EARNING")
                             .amount(summary.getRestaurantNetEarning())
-                            .balanceAfter(restaurantWallet.getBalance())
                             .description("Restaurant earning from order #" + orderId + " ("
                                     + summary.getRestaurant().getName() + ")")
                             .order(summary.getOrder())
@@ -314,16 +307,12 @@ public class OrderEarningsSummaryService {
             if (admin != null) {
                 Wallet adminWallet = walletService.getWalletByUserId(admin.getId());
                 if (adminWallet != null) {
-                    // Check if admin has enough balance
-                    if (adminWallet.getBalance().compareTo(totalCommission) >= 0) {
-                        adminWallet = walletService.subtractBalance(adminWallet.getId(), totalCommission);
-
-                        // Create transaction record
+                    // The debit only applies if the admin wallet has enough balance
+                    try {
                         WalletTransaction adminTransaction = WalletTransaction.builder()
                                 .wallet(adminWallet)
                                 .transactionType("COMMISSION_PAID")
                                 .amount(totalCommission.negate()) // negative for deduction
-                                .balanceAfter(adminWallet.getBalance())
                                 .description("Commission paid to driver and restaurant for order #" + orderId)
                                 .order(summary.getOrder())
                                 .status("SUCCESS")
@@ -332,10 +321,10 @@ public class OrderEarningsSummaryService {
                                 .build();
                         walletTransactionService.createWalletTransaction(adminTransaction);
                         log.info("Deducted {} commission from admin wallet for order {}", totalCommission, orderId);
-                    } else {
+                    } catch (IdInvalidException e) {
                         log.warn(
-                                "Admin wallet has insufficient balance to pay commission for order {}. Required: {}, Available: {}",
-                                orderId, totalCommission, adminWallet.getBalance());
+                                "Admin wallet has insufficient balance to pay commission for order {}. Required: {}",
+                                orderId, totalCommission);
                     }
                 }
             }
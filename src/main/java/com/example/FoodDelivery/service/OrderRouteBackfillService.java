@@ -0,0 +1,80 @@
+package com.example.FoodDelivery.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.FoodDelivery.repository.OrderRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fills routeDistanceKm/routeDurationMinutes of orders placed before the route
+ * was stored on the order, a small batch at a time, so rendering an order never
+ * has to call Mapbox.
+ * Orders whose route cannot be fetched are skipped and retried on the next pass
+ * over the table.
+ */
+@Service
+@Slf4j
+public class OrderRouteBackfillService {
+
+    private static final int BATCH_SIZE = 50;
+
+    private final OrderRepository orderRepository;
+    private final MapboxService mapboxService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Last order ID looked at; wraps to 0 at the end of the table
+    private long afterId = 0;
+
+    public OrderRouteBackfillService(OrderRepository orderRepository, MapboxService mapboxService,
+            PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.mapboxService = mapboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Store the route of the next batch of orders without one
+     * Mapbox is called outside any transaction; each order is updated in its own
+     */
+    @Scheduled(fixedDelay = 60000, initialDelay = 90000) // 1 minute = 60,000 milliseconds
+    public void backfill() {
+        List<Object[]> rows = orderRepository.findMissingRoutes(afterId, PageRequest.of(0, BATCH_SIZE));
+        if (rows.isEmpty()) {
+            afterId = 0;
+            return;
+        }
+
+        int stored = 0;
+        for (Object[] row : rows) {
+            Long orderId = (Long) row[0];
+            afterId = orderId;
+            MapboxService.RouteMetrics route = mapboxService.getDrivingRoute(
+                    (BigDecimal) row[1], (BigDecimal) row[2], (BigDecimal) row[3], (BigDecimal) row[4]);
+            if (route == null || route.getDistanceKm() == null) {
+                continue;
+            }
+            BigDecimal distanceKm = route.getDistanceKm().setScale(2, RoundingMode.HALF_UP);
+            BigDecimal durationMinutes = route.getDurationMinutes() != null
+                    ? route.getDurationMinutes().setScale(2, RoundingMode.HALF_UP)
+                    : null;
+            Integer updated = transactionTemplate.execute(
+                    status -> orderRepository.setRouteMetricsIfMissing(orderId, distanceKm, durationMinutes));
+            if (updated != null && updated > 0) {
+                stored++;
+            }
+        }
+        if (rows.size() < BATCH_SIZE) {
+            afterId = 0;
+        }
+        log.info("🛣️ Backfilled route metrics of {} of {} orders", stored, rows.size());
+    }
+}
@@ -6,12 +6,17 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.geo.GeoResults;
+import org.springframework.data.geo.Point;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.redis.connection.RedisGeoCommands.GeoLocation;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,7 +29,6 @@ import com.example.FoodDelivery.domain.OrderEarningsSummary;
 import com.example.FoodDelivery.domain.OrderItem;
 import com.example.FoodDelivery.domain.OrderItemOption;
 import com.example.FoodDelivery.domain.Restaurant;
-import com.example.FoodDelivery.domain.SystemConfiguration;
 import com.example.FoodDelivery.domain.User;
 import com.example.FoodDelivery.domain.Voucher;
 import com.example.FoodDelivery.domain.req.ReqOrderDTO;
@@ -43,6 +47,7 @@ import com.example.FoodDelivery.service.UserScoringService;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -53,6 +58,16 @@ import org.slf4j.LoggerFactory;
 public class OrderService {
     private static final Logger log = LoggerFactory.getLogger(OrderService.class);
 
+    // Number of straight-line nearest drivers ranked by real driving distance
+    private static final int DRIVER_DISTANCE_SHORTLIST_SIZE = 10;
+
+    // Defaults used when a configuration key is missing
+    private static final BigDecimal DEFAULT_DELIVERY_BASE_FEE = new BigDecimal("15000"); // 15,000 VND
+    private static final BigDecimal DEFAULT_DELIVERY_BASE_DISTANCE = new BigDecimal("3"); // 3 km
+    private static final BigDecimal DEFAULT_DELIVERY_PER_KM_FEE = new BigDecimal("5000"); // 5,000 VND per km
+    private static final BigDecimal DEFAULT_DELIVERY_MIN_FEE = new BigDecimal("10000"); // 10,000 VND
+    private static final BigDecimal DEFAULT_DRIVER_SEARCH_RADIUS_KM = new BigDecimal("10.0");
+
     private final OrderEarningsSummaryService orderEarningsSummaryService;
 
     private final OrderRepository orderRepository;
@@ -73,6 +88,9 @@ public class OrderService {
     private final OrderEarningsSummaryRepository orderEarningsSummaryRepository;
     private final UserScoringService userScoringService;
     private final DynamicPricingService dynamicPricingService;
+    private final OrderChatParticipantService orderChatParticipantService;
+    private final RestaurantRevenueRollupService restaurantRevenueRollupService;
+    private final DishSalesService dishSalesService;
 
     public OrderService(OrderRepository orderRepository, UserService userService,
             RestaurantService restaurantService, VoucherService voucherService, DishService dishService,
@@ -88,7 +106,10 @@ public class OrderService {
             RedisRejectionService redisRejectionService,
             OrderEarningsSummaryRepository orderEarningsSummaryRepository,
             @Lazy UserScoringService userScoringService,
-            DynamicPricingService dynamicPricingService) {
+            DynamicPricingService dynamicPricingService,
+            OrderChatParticipantService orderChatParticipantService,
+            RestaurantRevenueRollupService restaurantRevenueRollupService,
+            DishSalesService dishSalesService) {
         this.orderRepository = orderRepository;
         this.userService = userService;
         this.restaurantService = restaurantService;
@@ -108,9 +129,69 @@ public class OrderService {
         this.orderEarningsSummaryRepository = orderEarningsSummaryRepository;
         this.userScoringService = userScoringService;
         this.dynamicPricingService = dynamicPricingService;
+        this.orderChatParticipantService = orderChatParticipantService;
+        this.restaurantRevenueRollupService = restaurantRevenueRollupService;
+        this.dishSalesService = dishSalesService;
     }
 
     public ResOrderDTO convertToResOrderDTO(Order order) {
+        return convertToResOrderDTOs(List.of(order)).get(0);
+    }
+
+    /**
+     * Convert orders to DTOs with a fixed number of lookups per call: one driver
+     * profile query, one earnings summary query and one Redis GEOPOS for all
+     * drivers
+     */
+    public List<ResOrderDTO> convertToResOrderDTOs(List<Order> orders) {
+        List<Long> driverIds = orders.stream()
+                .filter(order -> order.getDriver() != null)
+                .map(order -> order.getDriver().getId())
+                .distinct()
+                .collect(Collectors.toList());
+        List<Long> orderIds = orders.stream()
+                .map(Order::getId)
+                .filter(id -> id != null)
+                .collect(Collectors.toList());
+
+        // Load children for the whole list up front instead of one lazy load per
+        // order, item and option
+        if (orderIds.size() > 1) {
+            orderRepository.fetchOrderItemsByIdIn(orderIds);
+            orderRepository.fetchOrderItemOptionsByOrderIdIn(orderIds);
+            orderRepository.fetchVouchersByIdIn(orderIds);
+        }
+
+        Map<Long, DriverProfile> driverProfilesByUserId = new HashMap<>();
+        Map<Long, Point> driverLocations = new HashMap<>();
+        if (!driverIds.isEmpty()) {
+            for (DriverProfile driverProfile : driverProfileRepository.findByUserIdIn(driverIds)) {
+                driverProfilesByUserId.put(driverProfile.getUser().getId(), driverProfile);
+            }
+            Map<Long, Point> locations = redisGeoService.getDriverLocations(driverIds);
+            if (locations != null) {
+                driverLocations = locations;
+            }
+        }
+
+        Map<Long, OrderEarningsSummary> earningsSummariesByOrderId = new HashMap<>();
+        if (!orderIds.isEmpty()) {
+            for (OrderEarningsSummary earningsSummary : orderEarningsSummaryRepository.findByOrderIdIn(orderIds)) {
+                earningsSummariesByOrderId.put(earningsSummary.getOrder().getId(), earningsSummary);
+            }
+        }
+
+        List<ResOrderDTO> dtos = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            dtos.add(convertToResOrderDTO(order, driverProfilesByUserId, driverLocations,
+                    earningsSummariesByOrderId));
+        }
+        return dtos;
+    }
+
+    private ResOrderDTO convertToResOrderDTO(Order order, Map<Long, DriverProfile> driverProfilesByUserId,
+            Map<Long, Point> driverLocations,
+            Map<Long, OrderEarningsSummary> earningsSummariesByOrderId) {
         ResOrderDTO dto = new ResOrderDTO();
         dto.setId(order.getId());
         dto.setOrderStatus(order.getOrderStatus());
@@ -167,11 +248,9 @@ public class OrderService {
             dto.setRestaurant(restaurant);
         }
 
-        BigDecimal distance = mapboxService.getDrivingDistance(
-                order.getRestaurant().getLatitude(),
-                order.getRestaurant().getLongitude(),
-                order.getDeliveryLatitude(),
-                order.getDeliveryLongitude());
+        // Route distance is stored when the order is placed; older orders get it
+        // from OrderRouteBackfillService and show no distance until then
+        BigDecimal distance = order.getRouteDistanceKm();
         // Get distance from order entity and format to 2 decimal places
         dto.setDistance(distance != null
                 ? distance.setScale(2, java.math.RoundingMode.HALF_UP)
@@ -185,9 +264,8 @@ public class OrderService {
             driver.setPhoneNumber(order.getDriver().getPhoneNumber());
 
             // Get driver profile for additional information
-            Optional<DriverProfile> driverProfileOpt = driverProfileRepository.findByUserId(order.getDriver().getId());
-            if (driverProfileOpt.isPresent()) {
-                DriverProfile driverProfile = driverProfileOpt.get();
+            DriverProfile driverProfile = driverProfilesByUserId.get(order.getDriver().getId());
+            if (driverProfile != null) {
                 driver.setVehicleType(driverProfile.getVehicleType());
                 driver.setAverageRating(
                         driverProfile.getAverageRating() != null ? driverProfile.getAverageRating().toString() : null);
@@ -196,8 +274,7 @@ public class OrderService {
                                 : null);
                 driver.setVehicleLicensePlate(driverProfile.getVehicleLicensePlate());
                 driver.setVehicleDetails(driverProfile.getVehicleDetails());
-                org.springframework.data.geo.Point location = redisGeoService
-                        .getDriverLocation(order.getDriver().getId());
+                Point location = driverLocations.get(order.getDriver().getId());
                 if (location != null) {
                     driver.setLatitude(location.getX());
                     driver.setLongitude(location.getY());
@@ -269,9 +346,8 @@ public class OrderService {
         }
 
         // Get earnings summary information
-        Optional<OrderEarningsSummary> earningsSummaryOpt = orderEarningsSummaryRepository.findByOrderId(order.getId());
-        if (earningsSummaryOpt.isPresent()) {
-            OrderEarningsSummary earningsSummary = earningsSummaryOpt.get();
+        OrderEarningsSummary earningsSummary = earningsSummariesByOrderId.get(order.getId());
+        if (earningsSummary != null) {
             dto.setRestaurantCommissionAmount(earningsSummary.getRestaurantCommissionAmount());
             dto.setRestaurantNetEarning(earningsSummary.getRestaurantNetEarning());
             dto.setDriverCommissionAmount(earningsSummary.getDriverCommissionAmount());
@@ -281,6 +357,27 @@ public class OrderService {
         return dto;
     }
 
+    /**
+     * Store the restaurant-to-customer driving route on the order so DTO assembly
+     * never calls Mapbox
+     */
+    private void applyRouteMetrics(Order order) {
+        if (order.getRestaurant() == null) {
+            return;
+        }
+        MapboxService.RouteMetrics route = mapboxService.getDrivingRoute(
+                order.getRestaurant().getLatitude(),
+                order.getRestaurant().getLongitude(),
+                order.getDeliveryLatitude(),
+                order.getDeliveryLongitude());
+        order.setRouteDistanceKm(route != null && route.getDistanceKm() != null
+                ? route.getDistanceKm().setScale(2, java.math.RoundingMode.HALF_UP)
+                : null);
+        order.setRouteDurationMinutes(route != null && route.getDurationMinutes() != null
+                ? route.getDurationMinutes().setScale(2, java.math.RoundingMode.HALF_UP)
+                : null);
+    }
+
     /**
      * Helper method to calculate delivery fee based on real driving distance
      * with dynamic pricing (weather, peak hours, supply/demand)
@@ -295,61 +392,42 @@ public class OrderService {
             throw new IdInvalidException("Delivery location is required to calculate delivery fee");
         }
 
-        // Get configuration values
-        BigDecimal baseFee = new BigDecimal("15000"); // Default 15,000 VND
-        BigDecimal baseDistance = new BigDecimal("3"); // Default 3 km
-        BigDecimal perKmFee = new BigDecimal("5000"); // Default 5,000 VND per km
-        BigDecimal minFee = new BigDecimal("10000"); // Default minimum fee 10,000 VND
-
-        try {
-            SystemConfiguration baseFeeConfig = systemConfigurationService
-                    .getSystemConfigurationByKey("DELIVERY_BASE_FEE");
-            if (baseFeeConfig != null && baseFeeConfig.getConfigValue() != null
-                    && !baseFeeConfig.getConfigValue().isEmpty()) {
-                baseFee = new BigDecimal(baseFeeConfig.getConfigValue());
-            }
-
-            SystemConfiguration baseDistanceConfig = systemConfigurationService
-                    .getSystemConfigurationByKey("DELIVERY_BASE_DISTANCE");
-            if (baseDistanceConfig != null && baseDistanceConfig.getConfigValue() != null
-                    && !baseDistanceConfig.getConfigValue().isEmpty()) {
-                baseDistance = new BigDecimal(baseDistanceConfig.getConfigValue());
-            }
-
-            SystemConfiguration perKmFeeConfig = systemConfigurationService
-                    .getSystemConfigurationByKey("DELIVERY_PER_KM_FEE");
-            if (perKmFeeConfig != null && perKmFeeConfig.getConfigValue() != null
-                    && !perKmFeeConfig.getConfigValue().isEmpty()) {
-                perKmFee = new BigDecimal(perKmFeeConfig.getConfigValue());
-            }
-
-            SystemConfiguration minFeeConfig = systemConfigurationService
-                    .getSystemConfigurationByKey("DELIVERY_MIN_FEE");
-            if (minFeeConfig != null && minFeeConfig.getConfigValue() != null
-                    && !minFeeConfig.getConfigValue().isEmpty()) {
-                minFee = new BigDecimal(minFeeConfig.getConfigValue());
-            }
-        } catch (Exception e) {
-            log.warn("Failed to get delivery fee configuration, using defaults", e);
-        }
+        // Get configuration values (pre-parsed in-memory snapshot)
+        BigDecimal baseFee = systemConfigurationService.getDecimal("DELIVERY_BASE_FEE",
+                DEFAULT_DELIVERY_BASE_FEE);
+        BigDecimal baseDistance = systemConfigurationService.getDecimal("DELIVERY_BASE_DISTANCE",
+                DEFAULT_DELIVERY_BASE_DISTANCE);
+        BigDecimal perKmFee = systemConfigurationService.getDecimal("DELIVERY_PER_KM_FEE",
+                DEFAULT_DELIVERY_PER_KM_FEE);
+        BigDecimal minFee = systemConfigurationService.getDecimal("DELIVERY_MIN_FEE",
+                DEFAULT_DELIVERY_MIN_FEE);
 
-        // Get real driving distance using Mapbox API
-        BigDecimal distance = mapboxService.getDrivingDistance(
+        // Start the Mapbox driving distance lookup and compute the surge while it runs
+        CompletableFuture<BigDecimal> distanceFuture = mapboxService.getDrivingDistanceAsync(
                 restaurant.getLatitude(),
                 restaurant.getLongitude(),
                 deliveryLatitude,
                 deliveryLongitude);
 
+        // Get surge multiplier from dynamic pricing service
+        BigDecimal surgeMultiplier = dynamicPricingService.getSurgeMultiplier(
+                restaurant.getLatitude(),
+                restaurant.getLongitude());
+
+        BigDecimal distance = distanceFuture.join();
         if (distance == null) {
             log.warn("Failed to get driving distance from Mapbox, using base fee");
             return baseFee;
         }
 
-        // Get surge multiplier from dynamic pricing service
-        BigDecimal surgeMultiplier = dynamicPricingService.getSurgeMultiplier(
-                restaurant.getLatitude(),
-                restaurant.getLongitude());
+        return applyDeliveryFeeFormula(distance, surgeMultiplier, baseFee, baseDistance, perKmFee, minFee);
+    }
 
+    /**
+     * Apply the delivery fee formula to a known distance and surge multiplier
+     */
+    private BigDecimal applyDeliveryFeeFormula(BigDecimal distance, BigDecimal surgeMultiplier, BigDecimal baseFee,
+            BigDecimal baseDistance, BigDecimal perKmFee, BigDecimal minFee) {
         // Calculate delivery fee using formula: (F_base + D_extra × R_km) × K_surge
         // Surge applies to the entire fee (base + distance component)
         BigDecimal extraDistance = distance.subtract(baseDistance).max(BigDecimal.ZERO);
@@ -390,55 +468,37 @@ public class OrderService {
             throw new IdInvalidException("Delivery location is required to calculate delivery fee");
         }
 
-        // Get configuration values
-        BigDecimal baseFee = new BigDecimal("15000"); // Default 15,000 VND
-        BigDecimal baseDistance = new BigDecimal("3"); // Default 3 km
-        BigDecimal perKmFee = new BigDecimal("5000"); // Default 5,000 VND per km
+        // Get configuration values (pre-parsed in-memory snapshot)
+        BigDecimal baseFee = systemConfigurationService.getDecimal("DELIVERY_BASE_FEE",
+                DEFAULT_DELIVERY_BASE_FEE);
+        BigDecimal baseDistance = systemConfigurationService.getDecimal("DELIVERY_BASE_DISTANCE",
+                DEFAULT_DELIVERY_BASE_DISTANCE);
+        BigDecimal perKmFee = systemConfigurationService.getDecimal("DELIVERY_PER_KM_FEE",
+                DEFAULT_DELIVERY_PER_KM_FEE);
+        BigDecimal minFee = systemConfigurationService.getDecimal("DELIVERY_MIN_FEE",
+                DEFAULT_DELIVERY_MIN_FEE);
 
-        try {
-            SystemConfiguration baseFeeConfig = systemConfigurationService
-                    .getSystemConfigurationByKey("DELIVERY_BASE_FEE");
-            if (baseFeeConfig != null && baseFeeConfig.getConfigValue() != null
-                    && !baseFeeConfig.getConfigValue().isEmpty()) {
-                baseFee = new BigDecimal(baseFeeConfig.getConfigValue());
-            }
-
-            SystemConfiguration baseDistanceConfig = systemConfigurationService
-                    .getSystemConfigurationByKey("DELIVERY_BASE_DISTANCE");
-            if (baseDistanceConfig != null && baseDistanceConfig.getConfigValue() != null
-                    && !baseDistanceConfig.getConfigValue().isEmpty()) {
-                baseDistance = new BigDecimal(baseDistanceConfig.getConfigValue());
-            }
-
-            SystemConfiguration perKmFeeConfig = systemConfigurationService
-                    .getSystemConfigurationByKey("DELIVERY_PER_KM_FEE");
-            if (perKmFeeConfig != null && perKmFeeConfig.getConfigValue() != null
-                    && !perKmFeeConfig.getConfigValue().isEmpty()) {
-                perKmFee = new BigDecimal(perKmFeeConfig.getConfigValue());
-            }
-        } catch (Exception e) {
-            log.warn("Failed to get delivery fee configuration, using defaults", e);
-        }
-
-        // Get real driving distance using Mapbox API
-        BigDecimal distance = mapboxService.getDrivingDistance(
+        // Start the Mapbox driving distance lookup and compute the surge while it runs
+        CompletableFuture<BigDecimal> distanceFuture = mapboxService.getDrivingDistanceAsync(
                 restaurant.getLatitude(),
                 restaurant.getLongitude(),
                 deliveryLatitude,
                 deliveryLongitude);
 
-        if (distance == null) {
-            log.warn("Failed to get driving distance from Mapbox, using base fee");
-            return new ResDeliveryFeeDTO(baseFee, null, BigDecimal.ONE, baseFee, baseDistance, perKmFee);
-        }
-
         // Get surge multiplier from dynamic pricing service
         BigDecimal surgeMultiplier = dynamicPricingService.getSurgeMultiplier(
                 restaurant.getLatitude(),
                 restaurant.getLongitude());
 
-        // Calculate final delivery fee using the private helper
-        BigDecimal deliveryFee = calculateDeliveryFee(restaurant, deliveryLatitude, deliveryLongitude);
+        BigDecimal distance = distanceFuture.join();
+        if (distance == null) {
+            log.warn("Failed to get driving distance from Mapbox, using base fee");
+            return new ResDeliveryFeeDTO(baseFee, null, BigDecimal.ONE, baseFee, baseDistance, perKmFee);
+        }
+
+        // Calculate final delivery fee from the same distance and surge
+        BigDecimal deliveryFee = applyDeliveryFeeFormula(distance, surgeMultiplier, baseFee, baseDistance,
+                perKmFee, minFee);
 
         // Build response DTO with breakdown
         ResDeliveryFeeDTO response = new ResDeliveryFeeDTO();
@@ -550,44 +610,89 @@ public class OrderService {
 
     /**
      * Helper method to find the closest available driver using Mapbox API for real
-     * driving distance
+     * driving distance. Candidates are first shortlisted by their Redis GEO
+     * straight-line distance, then the shortlist is ranked with a single batched
+     * Matrix request.
      */
-    private DriverProfile findClosestDriverWithMapbox(List<DriverProfile> candidates, Restaurant restaurant) {
+    private DriverProfile findClosestDriverWithMapbox(List<DriverProfile> candidates, Restaurant restaurant,
+            Map<Long, Double> straightLineDistances) {
         if (candidates == null || candidates.isEmpty()) {
             return null;
         }
 
-        // Calculate real driving distance for each candidate using Mapbox API
+        // Shortlist the top-K candidates by straight-line distance from Redis GEO
+        List<DriverProfile> shortlist = candidates.stream()
+                .filter(driver -> driver.getCurrentLatitude() != null && driver.getCurrentLongitude() != null)
+                .sorted(Comparator.comparingDouble(
+                        (DriverProfile driver) -> straightLineDistances.getOrDefault(driver.getUser().getId(),
+                                Double.MAX_VALUE)))
+                .limit(DRIVER_DISTANCE_SHORTLIST_SIZE)
+                .collect(Collectors.toList());
+
+        if (shortlist.isEmpty()) {
+            return null;
+        }
+
+        // Calculate real driving distance for the whole shortlist in one batch
+        List<Point> origins = shortlist.stream()
+                .map(driver -> new Point(
+                        driver.getCurrentLongitude().doubleValue(),
+                        driver.getCurrentLatitude().doubleValue()))
+                .collect(Collectors.toList());
+        List<BigDecimal> drivingDistances = mapboxService.getDrivingDistancesToDestination(
+                origins,
+                restaurant.getLatitude(),
+                restaurant.getLongitude());
+
         DriverProfile closestDriver = null;
         BigDecimal shortestDistance = null;
 
-        for (DriverProfile driver : candidates) {
-            if (driver.getCurrentLatitude() == null || driver.getCurrentLongitude() == null) {
-                continue;
-            }
-
-            BigDecimal drivingDistance = mapboxService.getDrivingDistance(
-                    driver.getCurrentLatitude(),
-                    driver.getCurrentLongitude(),
-                    restaurant.getLatitude(),
-                    restaurant.getLongitude());
+        for (int i = 0; i < shortlist.size(); i++) {
+            BigDecimal drivingDistance = drivingDistances.get(i);
 
             // If Mapbox API fails for this driver, skip them
             if (drivingDistance == null) {
-                log.warn("Failed to get driving distance from Mapbox for driver {}", driver.getUser().getId());
+                log.warn("Failed to get driving distance from Mapbox for driver {}",
+                        shortlist.get(i).getUser().getId());
                 continue;
             }
 
             // Check if this is the closest driver so far
             if (shortestDistance == null || drivingDistance.compareTo(shortestDistance) < 0) {
                 shortestDistance = drivingDistance;
-                closestDriver = driver;
+                closestDriver = shortlist.get(i);
             }
         }
 
+        // Mapbox unavailable for the whole shortlist: fall back to the straight-line
+        // nearest driver rather than failing the assignment
+        if (closestDriver == null) {
+            log.warn("Mapbox distance matrix unavailable, falling back to straight-line nearest driver");
+            closestDriver = shortlist.get(0);
+        }
+
         return closestDriver;
     }
 
+    /**
+     * Helper method to map driver IDs to their straight-line distance (km) from
+     * Redis GEO radius results
+     */
+    private Map<Long, Double> extractStraightLineDistances(GeoResults<GeoLocation<Object>> geoResults) {
+        Map<Long, Double> distances = new HashMap<>();
+        for (var result : geoResults.getContent()) {
+            try {
+                Long driverId = Long.parseLong(result.getContent().getName().toString());
+                if (result.getDistance() != null) {
+                    distances.put(driverId, result.getDistance().getValue());
+                }
+            } catch (Exception e) {
+                log.error("Failed to parse driver ID: {}", result.getContent().getName());
+            }
+        }
+        return distances;
+    }
+
     public Order getOrderById(Long id) {
         Optional<Order> orderOpt = this.orderRepository.findById(id);
         return orderOpt.orElse(null);
@@ -621,32 +726,28 @@ public class OrderService {
         return this.orderRepository.findByCustomerIdAndOrderStatus(customerId, orderStatus);
     }
 
+    @Transactional(readOnly = true)
     public List<ResOrderDTO> getOrdersDTOByRestaurantId(Long restaurantId) {
         List<Order> orders = this.orderRepository.findByRestaurantIdOrderByCreatedAtDesc(restaurantId);
-        return orders.stream()
-                .map(this::convertToResOrderDTO)
-                .collect(Collectors.toList());
+        return convertToResOrderDTOs(orders);
     }
 
+    @Transactional(readOnly = true)
     public List<ResOrderDTO> getOrdersDTOByRestaurantIdAndStatus(Long restaurantId, String orderStatus) {
         List<Order> orders = this.orderRepository.findByRestaurantIdAndOrderStatus(restaurantId, orderStatus);
-        return orders.stream()
-                .map(this::convertToResOrderDTO)
-                .collect(Collectors.toList());
+        return convertToResOrderDTOs(orders);
     }
 
+    @Transactional(readOnly = true)
     public List<ResOrderDTO> getOrdersDTOByCustomerId(Long customerId) {
         List<Order> orders = this.orderRepository.findByCustomerIdOrderByCreatedAtDesc(customerId);
-        return orders.stream()
-                .map(this::convertToResOrderDTO)
-                .collect(Collectors.toList());
+        return convertToResOrderDTOs(orders);
     }
 
+    @Transactional(readOnly = true)
     public List<ResOrderDTO> getOrdersDTOByDriverId(Long driverId) {
         List<Order> orders = this.orderRepository.findByDriverIdOrderByCreatedAtDesc(driverId);
-        return orders.stream()
-                .map(this::convertToResOrderDTO)
-                .collect(Collectors.toList());
+        return convertToResOrderDTOs(orders);
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -738,6 +839,9 @@ public class OrderService {
         order.setDeliveryFee(deliveryFee);
         // ===== END VALIDATE DELIVERY FEE =====
 
+        // Store the driving route (already cached by the fee calculation)
+        applyRouteMetrics(order);
+
         // Save order first (now after all validations pass)
         Order savedOrder = orderRepository.save(order);
 
@@ -830,6 +934,7 @@ public class OrderService {
                 savedOrder.getId(), subtotal, deliveryFee, discountAmount, totalAmount);
 
         savedOrder = orderRepository.save(savedOrder);
+        orderChatParticipantService.refresh(savedOrder);
 
         // Convert to DTO for response and WebSocket notification
         ResOrderDTO orderDTO = convertToResOrderDTO(savedOrder);
@@ -850,6 +955,7 @@ public class OrderService {
             if (!(Boolean) paymentResult.get("success")) {
                 // Rollback order creation if payment fails
                 orderRepository.delete(savedOrder);
+                orderChatParticipantService.evict(savedOrder.getId());
                 throw new IdInvalidException((String) paymentResult.get("message"));
             }
             savedOrder.setPaymentStatus("PAID");
@@ -881,6 +987,16 @@ public class OrderService {
             throw new IdInvalidException("Order not found with id: " + order.getId());
         }
 
+        // A finished order already in the revenue rollup and dish sales leaves them
+        // before its status or amounts change, and is counted again below if it is
+        // still finished
+        boolean revenueChanged = order.getOrderStatus() != null || order.getSubtotal() != null
+                || order.getDeliveryFee() != null;
+        if (revenueChanged) {
+            restaurantRevenueRollupService.retractOrder(currentOrder.getId());
+            dishSalesService.retractOrder(currentOrder.getId());
+        }
+
         // update fields
         if (order.getOrderStatus() != null) {
             currentOrder.setOrderStatus(order.getOrderStatus());
@@ -908,6 +1024,9 @@ public class OrderService {
         if (order.getDeliveryLongitude() != null) {
             currentOrder.setDeliveryLongitude(order.getDeliveryLongitude());
         }
+        if (order.getDeliveryLatitude() != null || order.getDeliveryLongitude() != null) {
+            applyRouteMetrics(currentOrder);
+        }
         if (order.getSpecialInstructions() != null) {
             currentOrder.setSpecialInstructions(order.getSpecialInstructions());
         }
@@ -931,6 +1050,11 @@ public class OrderService {
         }
 
         currentOrder = orderRepository.save(currentOrder);
+        if (revenueChanged) {
+            restaurantRevenueRollupService.recordOrder(currentOrder.getId());
+            dishSalesService.recordOrder(currentOrder.getId());
+        }
+        orderChatParticipantService.refresh(currentOrder);
         return convertToResOrderDTO(currentOrder);
     }
 
@@ -949,17 +1073,8 @@ public class OrderService {
         }
 
         // Get search radius from system configuration (default 10 km if not set)
-        BigDecimal radiusKm = new BigDecimal("10.0");
-        try {
-            SystemConfiguration radiusConfig = systemConfigurationService
-                    .getSystemConfigurationByKey("DRIVER_SEARCH_RADIUS_KM");
-            if (radiusConfig != null && radiusConfig.getConfigValue() != null
-                    && !radiusConfig.getConfigValue().isEmpty()) {
-                radiusKm = new BigDecimal(radiusConfig.getConfigValue());
-            }
-        } catch (Exception e) {
-            log.warn("Failed to get DRIVER_SEARCH_RADIUS_KM config, using default 10 km", e);
-        }
+        BigDecimal radiusKm = systemConfigurationService.getDecimal("DRIVER_SEARCH_RADIUS_KM",
+                DEFAULT_DRIVER_SEARCH_RADIUS_KM);
 
         log.info("🔍 Step 1: Searching drivers using Redis GEO within {} km of restaurant (lat: {}, lng: {})",
                 radiusKm, restaurant.getLatitude(), restaurant.getLongitude());
@@ -1014,7 +1129,8 @@ public class OrderService {
 
         // STEP 3: Find the closest driver using Mapbox API for real driving distance
         log.info("🚗 Step 3: Calculating real driving distances using Mapbox API");
-        DriverProfile closestDriver = findClosestDriverWithMapbox(candidateDrivers, restaurant);
+        DriverProfile closestDriver = findClosestDriverWithMapbox(candidateDrivers, restaurant,
+                extractStraightLineDistances(geoResults));
         if (closestDriver == null) {
             throw new IdInvalidException(
                     "Failed to calculate driving distance to available drivers");
@@ -1030,6 +1146,7 @@ public class OrderService {
         order.setDriver(driver);
         order.setAssignedAt(Instant.now()); // Set assignedAt for timeout tracking
         order = orderRepository.save(order);
+        orderChatParticipantService.refresh(order);
 
         // Set driver status to UNAVAILABLE after assignment
         try {
@@ -1074,6 +1191,8 @@ public class OrderService {
         }
 
         order = orderRepository.save(order);
+        orderChatParticipantService.refresh(order);
+        restaurantRevenueRollupService.recordOrder(order.getId());
 
         ResOrderDTO orderDTO = convertToResOrderDTO(order);
 
@@ -1114,6 +1233,8 @@ public class OrderService {
         }
 
         order = orderRepository.save(order);
+        orderChatParticipantService.refresh(order);
+        restaurantRevenueRollupService.recordOrder(order.getId());
 
         ResOrderDTO orderDTO = convertToResOrderDTO(order);
 
@@ -1145,6 +1266,7 @@ public class OrderService {
 
         order.setOrderStatus("READY");
         order = orderRepository.save(order);
+        orderChatParticipantService.refresh(order);
 
         ResOrderDTO orderDTO = convertToResOrderDTO(order);
 
@@ -1178,6 +1300,7 @@ public class OrderService {
         order.setOrderStatus("PREPARING");
         order.setPreparingAt(Instant.now());
         order = orderRepository.save(order);
+        orderChatParticipantService.refresh(order);
 
         // Notify customer about order acceptance (using email)
         webSocketService.notifyCustomerOrderUpdate(order.getCustomer().getEmail(),
@@ -1215,6 +1338,7 @@ public class OrderService {
             if (!(Boolean) paymentResult.get("success")) {
                 // Rollback order creation if payment fails
                 orderRepository.delete(order);
+                orderChatParticipantService.evict(order.getId());
                 throw new IdInvalidException((String) paymentResult.get("message"));
             }
         }
@@ -1223,6 +1347,7 @@ public class OrderService {
         order.setOrderStatus("DRIVER_ASSIGNED");
         order.setAssignedAt(null); // Clear assignedAt after successful acceptance
         order = orderRepository.save(order);
+        orderChatParticipantService.refresh(order);
 
         ResOrderDTO orderDTO = convertToResOrderDTO(order);
 
@@ -1299,17 +1424,8 @@ public class OrderService {
         }
 
         // Get search radius
-        BigDecimal radiusKm = new BigDecimal("10.0");
-        try {
-            SystemConfiguration radiusConfig = systemConfigurationService
-                    .getSystemConfigurationByKey("DRIVER_SEARCH_RADIUS_KM");
-            if (radiusConfig != null && radiusConfig.getConfigValue() != null
-                    && !radiusConfig.getConfigValue().isEmpty()) {
-                radiusKm = new BigDecimal(radiusConfig.getConfigValue());
-            }
-        } catch (Exception e) {
-            log.warn("Failed to get DRIVER_SEARCH_RADIUS_KM config, using default 10 km", e);
-        }
+        BigDecimal radiusKm = systemConfigurationService.getDecimal("DRIVER_SEARCH_RADIUS_KM",
+                DEFAULT_DRIVER_SEARCH_RADIUS_KM);
 
         log.info("🔍 Searching for alternative drivers using Redis GEO (excluding {} rejected drivers)",
                 rejectedDriverIds.size());
@@ -1326,6 +1442,7 @@ public class OrderService {
             order.setDriver(null);
             log.warn("No alternative drivers found in Redis GEO");
             order = orderRepository.save(order);
+            orderChatParticipantService.refresh(order);
             ResOrderDTO orderDTO = convertToResOrderDTO(order);
             return orderDTO;
         }
@@ -1347,6 +1464,7 @@ public class OrderService {
         if (nearbyDriverIds.isEmpty()) {
             order.setDriver(null);
             order = orderRepository.save(order);
+            orderChatParticipantService.refresh(order);
             ResOrderDTO orderDTO = convertToResOrderDTO(order);
             return orderDTO;
         }
@@ -1364,7 +1482,8 @@ public class OrderService {
         // If we found candidates, assign the closest one using Mapbox
         if (!candidateDrivers.isEmpty()) {
             log.info("✅ {} drivers passed validation", candidateDrivers.size());
-            DriverProfile closestDriver = findClosestDriverWithMapbox(candidateDrivers, restaurant);
+            DriverProfile closestDriver = findClosestDriverWithMapbox(candidateDrivers, restaurant,
+                    extractStraightLineDistances(geoResults));
             if (closestDriver != null) {
                 // Assign to next driver and keep current status
                 order.setDriver(closestDriver.getUser());
@@ -1396,6 +1515,7 @@ public class OrderService {
         }
 
         order = orderRepository.save(order);
+        orderChatParticipantService.refresh(order);
 
         ResOrderDTO orderDTO = convertToResOrderDTO(order);
 
@@ -1438,6 +1558,7 @@ public class OrderService {
 
         order.setOrderStatus("PICKED_UP");
         order = orderRepository.save(order);
+        orderChatParticipantService.refresh(order);
 
         ResOrderDTO orderDTO = convertToResOrderDTO(order);
 
@@ -1482,6 +1603,7 @@ public class OrderService {
 
         order.setOrderStatus("ARRIVED");
         order = orderRepository.save(order);
+        orderChatParticipantService.refresh(order);
 
         ResOrderDTO orderDTO = convertToResOrderDTO(order);
 
@@ -1553,6 +1675,9 @@ public class OrderService {
         orderEarningsSummaryService.createOrderEarningsSummaryFromOrder(orderId);
 
         order = orderRepository.save(order);
+        orderChatParticipantService.refresh(order);
+        restaurantRevenueRollupService.recordOrder(order.getId());
+        dishSalesService.recordOrder(order.getId());
 
         ResOrderDTO orderDTO = convertToResOrderDTO(order);
 
@@ -1593,6 +1718,7 @@ public class OrderService {
         return result;
     }
 
+    @Transactional(readOnly = true)
     public ResultPaginationDTO getAllOrdersDTO(Specification<Order> spec, Pageable pageable) {
         Page<Order> page = this.orderRepository.findAll(spec, pageable);
         ResultPaginationDTO result = new ResultPaginationDTO();
@@ -1602,16 +1728,16 @@ public class OrderService {
         meta.setTotal(page.getTotalElements());
         meta.setPages(page.getTotalPages());
         result.setMeta(meta);
-        result.setResult(page.getContent().stream()
-                .map(this::convertToResOrderDTO)
-                .collect(Collectors.toList()));
+        result.setResult(convertToResOrderDTOs(page.getContent()));
         return result;
     }
 
     public void deleteOrder(Long id) {
         this.orderRepository.deleteById(id);
+        orderChatParticipantService.evict(id);
     }
 
+    @Transactional(readOnly = true)
     public ResultPaginationDTO getOrdersDTOByRestaurantIdWithSpec(Long restaurantId, Specification<Order> spec,
             Pageable pageable) {
         // Combine base filter (restaurantId) with additional spec from @Filter
@@ -1626,12 +1752,11 @@ public class OrderService {
         meta.setTotal(page.getTotalElements());
         meta.setPages(page.getTotalPages());
         result.setMeta(meta);
-        result.setResult(page.getContent().stream()
-                .map(this::convertToResOrderDTO)
-                .collect(Collectors.toList()));
+        result.setResult(convertToResOrderDTOs(page.getContent()));
         return result;
     }
 
+    @Transactional(readOnly = true)
     public ResultPaginationDTO getOrdersDTOByCustomerIdWithSpec(Long customerId, Specification<Order> spec,
             Pageable pageable) {
         // Combine base filter (customerId) with additional spec from @Filter
@@ -1646,12 +1771,11 @@ public class OrderService {
         meta.setTotal(page.getTotalElements());
         meta.setPages(page.getTotalPages());
         result.setMeta(meta);
-        result.setResult(page.getContent().stream()
-                .map(this::convertToResOrderDTO)
-                .collect(Collectors.toList()));
+        result.setResult(convertToResOrderDTOs(page.getContent()));
         return result;
     }
 
+    @Transactional(readOnly = true)
     public ResultPaginationDTO getOrdersDTOByDriverIdWithSpec(Long driverId, Specification<Order> spec,
             Pageable pageable) {
         // Combine base filter (driverId) with additional spec from @Filter
@@ -1666,9 +1790,7 @@ public class OrderService {
         meta.setTotal(page.getTotalElements());
         meta.setPages(page.getTotalPages());
         result.setMeta(meta);
-        result.setResult(page.getContent().stream()
-                .map(this::convertToResOrderDTO)
-                .collect(Collectors.toList()));
+        result.setResult(convertToResOrderDTOs(page.getContent()));
         return result;
     }
 }
@@ -79,7 +79,6 @@ public class PaymentService {
                 .wallet(customerWallet)
                 .transactionType("PAYMENT")
                 .amount(totalAmount.negate()) // negative for deduction
-                .balanceAfter(customerWallet.getBalance().add(totalAmount.negate()))
                 .description("Payment for order #" + order.getId())
                 .order(order)
                 .status("SUCCESS")
@@ -97,7 +96,6 @@ public class PaymentService {
                         .wallet(adminWallet)
                         .transactionType("PAYMENT_RECEIVED")
                         .amount(totalAmount)
-                        .balanceAfter(adminWallet.getBalance().add(totalAmount))
                         .description("Payment received from order #" + order.getId())
                         .order(order)
                         .status("SUCCESS")
@@ -164,7 +162,6 @@ public class PaymentService {
                 .wallet(adminWallet)
                 .transactionType("REFUND")
                 .amount(refundAmount.negate()) // negative for deduction
-                .balanceAfter(adminWallet.getBalance().add(refundAmount.negate()))
                 .description("Refund for order #" + order.getId())
                 .order(order)
                 .status("SUCCESS")
@@ -177,7 +174,6 @@ public class PaymentService {
                 .wallet(customerWallet)
                 .transactionType("REFUND")
                 .amount(refundAmount)
-                .balanceAfter(customerWallet.getBalance().add(refundAmount))
                 .description("Refund for order #" + order.getId())
                 .order(order)
                 .status("SUCCESS")
@@ -275,20 +271,17 @@ public class PaymentService {
             throw new IdInvalidException("Driver wallet not found");
         }
 
-        // Check sufficient balance
         BigDecimal totalAmount = order.getTotalAmount();
 
-        // Deduct from driver wallet
-        walletService.subtractBalance(driverWallet.getId(), totalAmount);
-
-        // Create wallet transaction for driver
+        // Deduct from driver wallet; the SUCCESS transaction debits atomically and
+        // fails on insufficient balance
         WalletTransaction driverTransaction = WalletTransaction.builder()
                 .wallet(driverWallet)
                 .transactionType("PAYMENT")
                 .amount(totalAmount.negate()) // negative for deduction
-                .balanceAfter(driverWallet.getBalance())
                 .description("Payment for order #" + order.getId())
                 .order(order)
+                .status("SUCCESS")
                 .transactionDate(Instant.now())
                 .build();
         walletTransactionService.createWalletTransaction(driverTransaction);
@@ -304,16 +297,14 @@ public class PaymentService {
             throw new IdInvalidException("Admin wallet not found");
         }
 
-        walletService.addBalance(adminWallet.getId(), totalAmount);
-
-        // Create wallet transaction for admin
+        // Credit admin wallet with the COD amount
         WalletTransaction adminTransaction = WalletTransaction.builder()
                 .wallet(adminWallet)
                 .transactionType("COD_RECEIVED")
                 .amount(totalAmount)
-                .balanceAfter(adminWallet.getBalance())
                 .description("COD payment received from order #" + order.getId())
                 .order(order)
+                .status("SUCCESS")
                 .transactionDate(Instant.now())
                 .build();
         walletTransactionService.createWalletTransaction(adminTransaction);
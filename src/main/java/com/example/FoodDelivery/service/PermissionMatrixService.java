@@ -0,0 +1,102 @@
+package com.example.FoodDelivery.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import com.example.FoodDelivery.repository.RoleRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory authorization table: role ID -> set of allowed "METHOD path" keys.
+ * Each role is loaded on first use and dropped whenever roles or permissions
+ * change on any node.
+ */
+@Service
+@Slf4j
+public class PermissionMatrixService implements MessageListener {
+    // Other nodes clear their table when a message arrives on this channel
+    private static final String PERMISSIONS_CHANGED_CHANNEL = "permissions:changed";
+
+    private final RoleRepository roleRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<Long, Set<String>> allowedByRole = new ConcurrentHashMap<>();
+
+    public PermissionMatrixService(RoleRepository roleRepository,
+            StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer redisMessageListenerContainer) {
+        this.roleRepository = roleRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisMessageListenerContainer = redisMessageListenerContainer;
+    }
+
+    @PostConstruct
+    public void subscribeToPermissionChanges() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(PERMISSIONS_CHANGED_CHANNEL));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String senderNodeId = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (!nodeId.equals(senderNodeId)) {
+            log.info("Permissions changed on node {}, clearing permission matrix", senderNodeId);
+            allowedByRole.clear();
+        }
+    }
+
+    /**
+     * Check whether a role may call an API
+     *
+     * @param roleId  Role ID
+     * @param method  HTTP method
+     * @param apiPath Matched handler path pattern (e.g. /api/v1/orders/{id})
+     */
+    public boolean isAllowed(Long roleId, String method, String apiPath) {
+        if (roleId == null) {
+            return false;
+        }
+        return allowedByRole.computeIfAbsent(roleId, this::loadRolePermissions)
+                .contains(permissionKey(method, apiPath));
+    }
+
+    /**
+     * Drop the whole table locally and on other nodes
+     * Call after any role or permission is created, updated or deleted
+     */
+    public void invalidateAll() {
+        allowedByRole.clear();
+        try {
+            stringRedisTemplate.convertAndSend(PERMISSIONS_CHANGED_CHANNEL, nodeId);
+        } catch (Exception e) {
+            log.error("Failed to publish permission change notification", e);
+        }
+    }
+
+    private Set<String> loadRolePermissions(Long roleId) {
+        Set<String> allowed = new HashSet<>();
+        for (Object[] row : roleRepository.findPermissionMethodsAndPathsByRoleId(roleId)) {
+            allowed.add(permissionKey((String) row[0], (String) row[1]));
+        }
+        log.debug("Loaded {} permissions for role {}", allowed.size(), roleId);
+        return Set.copyOf(allowed);
+    }
+
+    private static String permissionKey(String method, String apiPath) {
+        return method + " " + apiPath;
+    }
+}
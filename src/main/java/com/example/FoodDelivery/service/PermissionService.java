@@ -16,9 +16,12 @@ import com.example.FoodDelivery.util.error.IdInvalidException;
 @Service
 public class PermissionService {
     private final PermissionRepository permissionRepository;
+    private final PermissionMatrixService permissionMatrixService;
 
-    public PermissionService(PermissionRepository permissionRepository) {
+    public PermissionService(PermissionRepository permissionRepository,
+            PermissionMatrixService permissionMatrixService) {
         this.permissionRepository = permissionRepository;
+        this.permissionMatrixService = permissionMatrixService;
     }
 
     public Permission getPermissionById(Long id) {
@@ -35,7 +38,9 @@ public class PermissionService {
     }
 
     public Permission createPermission(Permission permission) {
-        return permissionRepository.save(permission);
+        Permission savedPermission = permissionRepository.save(permission);
+        permissionMatrixService.invalidateAll();
+        return savedPermission;
     }
 
     public Permission updatePermission(Permission permission) throws IdInvalidException {
@@ -66,7 +71,9 @@ public class PermissionService {
                 throw new IdInvalidException("Permission already exists: " + currentPermission.getName());
             }
         }
-        return permissionRepository.save(currentPermission);
+        Permission savedPermission = permissionRepository.save(currentPermission);
+        permissionMatrixService.invalidateAll();
+        return savedPermission;
     }
 
     public ResultPaginationDTO getAllPermissions(Specification<Permission> spec,
@@ -90,5 +97,6 @@ public class PermissionService {
             role.getPermissions().remove(permission);
         });
         this.permissionRepository.deleteById(id);
+        permissionMatrixService.invalidateAll();
     }
 }
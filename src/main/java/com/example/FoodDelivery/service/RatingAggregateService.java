@@ -0,0 +1,201 @@
+package com.example.FoodDelivery.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.FoodDelivery.domain.Order;
+import com.example.FoodDelivery.repository.DriverProfileRepository;
+import com.example.FoodDelivery.repository.RestaurantRepository;
+import com.example.FoodDelivery.repository.ReviewRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Incremental rating aggregates for restaurants and drivers.
+ * Each review adds or removes its rating with in-place SQL increments on the
+ * target's star buckets / review count and rating sum, so a review costs the
+ * same regardless of how many reviews the target already has. A periodic full
+ * recount corrects any drift.
+ */
+@Service
+@Slf4j
+public class RatingAggregateService {
+
+    private final ReviewRepository reviewRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final DriverProfileRepository driverProfileRepository;
+
+    public RatingAggregateService(ReviewRepository reviewRepository, RestaurantRepository restaurantRepository,
+            DriverProfileRepository driverProfileRepository) {
+        this.reviewRepository = reviewRepository;
+        this.restaurantRepository = restaurantRepository;
+        this.driverProfileRepository = driverProfileRepository;
+    }
+
+    /**
+     * Count a new review into its target's aggregates
+     *
+     * @param reviewTarget "restaurant" or "driver"
+     * @param order        reviewed order; identifies the restaurant / driver
+     * @param rating       1-5 stars
+     */
+    @Transactional
+    public void addReview(String reviewTarget, Order order, Integer rating) {
+        applyDelta(reviewTarget, order, rating, 1);
+    }
+
+    /**
+     * Remove a review from its target's aggregates
+     */
+    @Transactional
+    public void removeReview(String reviewTarget, Order order, Integer rating) {
+        applyDelta(reviewTarget, order, rating, -1);
+    }
+
+    /**
+     * Only the add path initializes missing aggregates: a recount on removal would
+     * already see an updated review's new rating, which the add that follows would
+     * count a second time. Uninitialized targets are left to the add path or to
+     * the periodic recount.
+     */
+    private void applyDelta(String reviewTarget, Order order, Integer rating, int sign) {
+        if (reviewTarget == null || order == null || rating == null || rating < 1 || rating > 5) {
+            return;
+        }
+        String target = reviewTarget.toLowerCase();
+        if (target.equals("restaurant") && order.getRestaurant() != null) {
+            Long restaurantId = order.getRestaurant().getId();
+            int[] buckets = new int[5];
+            buckets[rating - 1] = sign;
+            int updated = restaurantRepository.addRatingDelta(restaurantId,
+                    buckets[0], buckets[1], buckets[2], buckets[3], buckets[4], (long) sign * rating);
+            if (updated == 0 && sign > 0) {
+                // Aggregates not initialized yet: count once (including this review),
+                // then increments take over
+                recountRestaurant(restaurantId);
+            }
+            restaurantRepository.refreshAverageRating(restaurantId);
+        } else if (target.equals("driver") && order.getDriver() != null) {
+            Long driverId = order.getDriver().getId();
+            int updated = driverProfileRepository.addRatingDelta(driverId, sign, (long) sign * rating);
+            if (updated == 0 && sign > 0) {
+                recountDriver(driverId);
+            }
+            driverProfileRepository.refreshAverageRating(driverId);
+        }
+    }
+
+    private void recountRestaurant(Long restaurantId) {
+        int[] buckets = new int[5];
+        long sum = 0;
+        for (Object[] row : reviewRepository.countRatingsByRestaurantId(restaurantId)) {
+            int rating = ((Number) row[0]).intValue();
+            int count = ((Number) row[1]).intValue();
+            if (rating >= 1 && rating <= 5) {
+                buckets[rating - 1] = count;
+                sum += (long) rating * count;
+            }
+        }
+        restaurantRepository.setRatingAggregates(restaurantId,
+                buckets[0], buckets[1], buckets[2], buckets[3], buckets[4], sum);
+    }
+
+    private void recountDriver(Long driverId) {
+        List<Object[]> rows = reviewRepository.summarizeRatingsByDriverId(driverId);
+        Object[] row = rows.isEmpty() ? new Object[] { 0L, null } : rows.get(0);
+        int count = ((Number) row[0]).intValue();
+        long sum = row[1] != null ? ((Number) row[1]).longValue() : 0L;
+        driverProfileRepository.setRatingAggregates(driverId, count, sum);
+    }
+
+    /**
+     * Recount every restaurant and driver from the reviews table and fix the ones
+     * that drifted
+     * Targets that never had aggregates and have no reviews are left untouched.
+     * Runs a minute after startup (initializing existing data) and then every 6
+     * hours.
+     */
+    @Scheduled(fixedDelay = 21600000, initialDelay = 60000) // 6 hours = 21,600,000 milliseconds
+    @Transactional
+    public void recomputeAll() {
+        int restaurantsFixed = recomputeRestaurants();
+        int driversFixed = recomputeDrivers();
+        if (restaurantsFixed > 0 || driversFixed > 0) {
+            log.info("⭐ Rating aggregates corrected: {} restaurants, {} drivers", restaurantsFixed, driversFixed);
+        }
+    }
+
+    private int recomputeRestaurants() {
+        // restaurantId -> [one, two, three, four, five]
+        Map<Long, int[]> counted = new HashMap<>();
+        for (Object[] row : reviewRepository.countRestaurantRatings()) {
+            int rating = ((Number) row[1]).intValue();
+            if (rating >= 1 && rating <= 5) {
+                counted.computeIfAbsent((Long) row[0], id -> new int[5])[rating - 1] = ((Number) row[2]).intValue();
+            }
+        }
+
+        int fixed = 0;
+        for (Object[] row : restaurantRepository.findAllRatingAggregates()) {
+            Long restaurantId = (Long) row[0];
+            int[] buckets = counted.get(restaurantId);
+            Long storedSum = (Long) row[6];
+            if (buckets == null) {
+                if (storedSum == null) {
+                    continue;
+                }
+                buckets = new int[5];
+            }
+            long sum = 0;
+            boolean drifted = false;
+            for (int i = 0; i < 5; i++) {
+                sum += (long) (i + 1) * buckets[i];
+                drifted |= !Objects.equals(row[i + 1], buckets[i]);
+            }
+            if (drifted || !Objects.equals(storedSum, sum)) {
+                restaurantRepository.setRatingAggregates(restaurantId,
+                        buckets[0], buckets[1], buckets[2], buckets[3], buckets[4], sum);
+                restaurantRepository.refreshAverageRating(restaurantId);
+                fixed++;
+            }
+        }
+        return fixed;
+    }
+
+    private int recomputeDrivers() {
+        // driverUserId -> [count, sum]
+        Map<Long, long[]> counted = new HashMap<>();
+        for (Object[] row : reviewRepository.summarizeDriverRatings()) {
+            counted.put((Long) row[0], new long[] { ((Number) row[1]).longValue(),
+                    row[2] != null ? ((Number) row[2]).longValue() : 0L });
+        }
+
+        int fixed = 0;
+        for (Object[] row : driverProfileRepository.findAllRatingAggregates()) {
+            Long driverId = (Long) row[0];
+            if (driverId == null) {
+                continue;
+            }
+            long[] summary = counted.get(driverId);
+            Long storedSum = (Long) row[2];
+            if (summary == null) {
+                if (storedSum == null) {
+                    continue;
+                }
+                summary = new long[2];
+            }
+            if (!Objects.equals(row[1], (int) summary[0]) || !Objects.equals(storedSum, summary[1])) {
+                driverProfileRepository.setRatingAggregates(driverId, (int) summary[0], summary[1]);
+                driverProfileRepository.refreshAverageRating(driverId);
+                fixed++;
+            }
+        }
+        return fixed;
+    }
+}
@@ -1,33 +1,53 @@
 package com.example.FoodDelivery.service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.Set;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.geo.Circle;
 import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.GeoResult;
 import org.springframework.data.geo.GeoResults;
 import org.springframework.data.geo.Point;
 import org.springframework.data.redis.connection.RedisGeoCommands.DistanceUnit;
 import org.springframework.data.redis.connection.RedisGeoCommands.GeoRadiusCommandArgs;
+import org.springframework.data.redis.core.DefaultTypedTuple;
 import org.springframework.data.redis.core.GeoOperations;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Service for handling geospatial data in Redis
- * Used for storing and querying driver locations
+ * Used for storing and querying driver and open restaurant locations
  */
 @Service
 @Slf4j
 public class RedisGeoService {
 
     private static final String DRIVER_LOCATION_KEY = "geo:drivers:active";
+    // Companion sorted set: driver ID -> last ping time (epoch millis)
+    private static final String DRIVER_LAST_SEEN_KEY = "geo:drivers:last-seen";
+    private static final int SWEEP_BATCH_SIZE = 1000;
+    private static final String RESTAURANT_LOCATION_KEY = "geo:restaurants:open";
     private final GeoOperations<String, Object> geoOps;
     private final RedisTemplate<String, Object> redisTemplate;
 
+    // Drivers silent for longer than this are excluded from queries and swept
+    @Value("${driver.location.stale-after-seconds:120}")
+    private long staleAfterSeconds;
+
     public RedisGeoService(RedisTemplate<String, Object> redisTemplate) {
         this.redisTemplate = redisTemplate;
         this.geoOps = redisTemplate.opsForGeo();
@@ -41,18 +61,50 @@ public class RedisGeoService {
      * @param longitude Longitude coordinate
      */
     public void updateDriverLocation(Long driverId, BigDecimal latitude, BigDecimal longitude) {
+        Point point = new Point(longitude.doubleValue(), latitude.doubleValue()); // Redis GEO uses (longitude,
+                                                                                  // latitude)
+        if (updateDriverLocations(Map.of(driverId, point))) {
+            log.debug("📍 Updated driver {} location in Redis GEO: lat={}, lng={}",
+                    driverId, latitude, longitude);
+        }
+    }
+
+    /**
+     * Add or update many driver locations in one pipelined round trip
+     * Each driver's last-seen time is refreshed in the same pipeline
+     * 
+     * @param locations Driver ID to Point(longitude, latitude)
+     * @return true if the batch was written
+     */
+    public boolean updateDriverLocations(Map<Long, Point> locations) {
+        if (locations == null || locations.isEmpty()) {
+            return true;
+        }
         try {
-            Point point = new Point(longitude.doubleValue(), latitude.doubleValue()); // Redis GEO uses (longitude,
-                                                                                      // latitude)
-            geoOps.add(DRIVER_LOCATION_KEY, point, driverId.toString());
+            double now = System.currentTimeMillis();
+            Map<Object, Point> members = new LinkedHashMap<>();
+            Set<TypedTuple<Object>> lastSeen = new HashSet<>();
+            locations.forEach((id, point) -> {
+                members.put(id.toString(), point);
+                lastSeen.add(new DefaultTypedTuple<Object>(id.toString(), now));
+            });
 
-            // Set expiration for the entire key (24 hours)
-            redisTemplate.expire(DRIVER_LOCATION_KEY, 24, TimeUnit.HOURS);
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    ops.opsForGeo().add(DRIVER_LOCATION_KEY, members);
+                    ops.opsForZSet().add(DRIVER_LAST_SEEN_KEY, lastSeen);
+                    return null;
+                }
+            });
 
-            log.debug("📍 Updated driver {} location in Redis GEO: lat={}, lng={}",
-                    driverId, latitude, longitude);
+            log.debug("📍 Updated {} driver locations in Redis GEO", locations.size());
+            return true;
         } catch (Exception e) {
-            log.error("Failed to update driver location in Redis", e);
+            log.error("Failed to update driver locations in Redis", e);
+            return false;
         }
     }
 
@@ -75,7 +127,65 @@ public class RedisGeoService {
     }
 
     /**
-     * Find nearby drivers within radius
+     * Get the current locations of several drivers with a single GEOPOS
+     * 
+     * @param driverIds Drivers' user IDs
+     * @return Driver ID to Point(longitude, latitude) for drivers found, or null
+     *         if the query fails
+     */
+    public Map<Long, Point> getDriverLocations(List<Long> driverIds) {
+        try {
+            Map<Long, Point> locations = new LinkedHashMap<>();
+            if (driverIds == null || driverIds.isEmpty()) {
+                return locations;
+            }
+
+            Object[] members = driverIds.stream().map(String::valueOf).toArray();
+            List<Point> positions = geoOps.position(DRIVER_LOCATION_KEY, members);
+            for (int i = 0; i < driverIds.size(); i++) {
+                Point point = positions != null && i < positions.size() ? positions.get(i) : null;
+                if (point != null) {
+                    locations.put(driverIds.get(i), point);
+                }
+            }
+            return locations;
+        } catch (Exception e) {
+            log.error("Failed to get driver locations from Redis", e);
+            return null;
+        }
+    }
+
+    /**
+     * Get the locations of all drivers seen within the staleness window
+     * 
+     * @return Driver ID to Point(longitude, latitude), or null if the query fails
+     */
+    public Map<Long, Point> getAllDriverLocations() {
+        try {
+            Set<Object> members = redisTemplate.opsForZSet().rangeByScore(DRIVER_LAST_SEEN_KEY,
+                    freshCutoffMillis(null), Double.POSITIVE_INFINITY);
+            Map<Long, Point> locations = new LinkedHashMap<>();
+            if (members == null || members.isEmpty()) {
+                return locations;
+            }
+
+            List<Object> memberList = new ArrayList<>(members);
+            List<Point> positions = geoOps.position(DRIVER_LOCATION_KEY, memberList.toArray());
+            for (int i = 0; i < memberList.size(); i++) {
+                Point point = positions != null && i < positions.size() ? positions.get(i) : null;
+                if (point != null) {
+                    locations.put(Long.parseLong(memberList.get(i).toString()), point);
+                }
+            }
+            return locations;
+        } catch (Exception e) {
+            log.error("Failed to get all driver locations from Redis", e);
+            return null;
+        }
+    }
+
+    /**
+     * Find nearby drivers within radius that pinged within the staleness window
      * 
      * @param latitude   Center latitude
      * @param longitude  Center longitude
@@ -85,6 +195,22 @@ public class RedisGeoService {
      */
     public GeoResults<org.springframework.data.redis.connection.RedisGeoCommands.GeoLocation<Object>> findNearbyDrivers(
             BigDecimal latitude, BigDecimal longitude, Double radiusInKm, Integer limit) {
+        return findNearbyDrivers(latitude, longitude, radiusInKm, limit, Duration.ofSeconds(staleAfterSeconds));
+    }
+
+    /**
+     * Find nearby drivers within radius, optionally only those seen recently
+     * 
+     * @param latitude   Center latitude
+     * @param longitude  Center longitude
+     * @param radiusInKm Search radius in kilometers
+     * @param limit      Maximum number of results
+     * @param maxAge     Maximum time since the driver's last ping (null = no
+     *                   freshness filter)
+     * @return GeoResults with driver IDs and distances
+     */
+    public GeoResults<org.springframework.data.redis.connection.RedisGeoCommands.GeoLocation<Object>> findNearbyDrivers(
+            BigDecimal latitude, BigDecimal longitude, Double radiusInKm, Integer limit, Duration maxAge) {
         try {
             Point center = new Point(longitude.doubleValue(), latitude.doubleValue());
             Distance radius = new Distance(radiusInKm, DistanceUnit.KILOMETERS);
@@ -99,13 +225,43 @@ public class RedisGeoService {
                 args = args.limit(limit);
             }
 
-            return geoOps.radius(DRIVER_LOCATION_KEY, within, args);
+            GeoResults<org.springframework.data.redis.connection.RedisGeoCommands.GeoLocation<Object>> results = geoOps
+                    .radius(DRIVER_LOCATION_KEY, within, args);
+            if (maxAge == null || results == null || results.getContent().isEmpty()) {
+                return results;
+            }
+            return filterFresh(results, freshCutoffMillis(maxAge));
         } catch (Exception e) {
             log.error("Failed to find nearby drivers", e);
             return null;
         }
     }
 
+    /**
+     * Keep only results whose last-seen time is at or after the cutoff (one
+     * ZMSCORE)
+     */
+    private GeoResults<org.springframework.data.redis.connection.RedisGeoCommands.GeoLocation<Object>> filterFresh(
+            GeoResults<org.springframework.data.redis.connection.RedisGeoCommands.GeoLocation<Object>> results,
+            double cutoffMillis) {
+        List<GeoResult<org.springframework.data.redis.connection.RedisGeoCommands.GeoLocation<Object>>> content = results
+                .getContent();
+        Object[] members = content.stream().map(result -> result.getContent().getName()).toArray();
+        List<Double> lastSeen = redisTemplate.opsForZSet().score(DRIVER_LAST_SEEN_KEY, members);
+
+        List<GeoResult<org.springframework.data.redis.connection.RedisGeoCommands.GeoLocation<Object>>> fresh = new ArrayList<>();
+        for (int i = 0; i < content.size(); i++) {
+            Double seenAt = lastSeen != null && i < lastSeen.size() ? lastSeen.get(i) : null;
+            if (seenAt != null && seenAt >= cutoffMillis) {
+                fresh.add(content.get(i));
+            }
+        }
+        if (fresh.size() < content.size()) {
+            log.debug("Filtered {} stale drivers out of {} nearby", content.size() - fresh.size(), content.size());
+        }
+        return new GeoResults<>(fresh, results.getAverageDistance().getMetric());
+    }
+
     /**
      * Calculate distance between two drivers
      * 
@@ -135,12 +291,87 @@ public class RedisGeoService {
     public void removeDriverLocation(Long driverId) {
         try {
             geoOps.remove(DRIVER_LOCATION_KEY, driverId.toString());
+            redisTemplate.opsForZSet().remove(DRIVER_LAST_SEEN_KEY, driverId.toString());
             log.debug("🗑️ Removed driver {} location from Redis GEO", driverId);
         } catch (Exception e) {
             log.error("Failed to remove driver location from Redis", e);
         }
     }
 
+    /**
+     * Remove drivers that stopped pinging from the GEO index
+     * Also drops GEO members without a last-seen entry (written before
+     * freshness tracking existed)
+     * Runs every 30 seconds on each node; removals are idempotent
+     */
+    @Scheduled(fixedDelayString = "${driver.location.sweep-interval-ms:30000}")
+    public void evictStaleDrivers() {
+        try {
+            double cutoff = freshCutoffMillis(null);
+            int evicted = 0;
+            Set<Object> stale;
+            do {
+                stale = redisTemplate.opsForZSet().rangeByScore(DRIVER_LAST_SEEN_KEY,
+                        Double.NEGATIVE_INFINITY, cutoff, 0, SWEEP_BATCH_SIZE);
+                if (stale == null || stale.isEmpty()) {
+                    break;
+                }
+                removeDriverMembers(stale.toArray());
+                evicted += stale.size();
+            } while (stale.size() == SWEEP_BATCH_SIZE);
+
+            evicted += evictUntrackedDrivers();
+            if (evicted > 0) {
+                log.info("🧹 Evicted {} stale drivers from Redis GEO", evicted);
+            }
+        } catch (Exception e) {
+            log.error("Failed to evict stale drivers from Redis GEO", e);
+        }
+    }
+
+    private int evictUntrackedDrivers() {
+        Long geoCount = redisTemplate.opsForZSet().size(DRIVER_LOCATION_KEY);
+        Long trackedCount = redisTemplate.opsForZSet().size(DRIVER_LAST_SEEN_KEY);
+        if (geoCount == null || trackedCount == null || geoCount <= trackedCount) {
+            return 0;
+        }
+
+        Set<Object> members = redisTemplate.opsForZSet().range(DRIVER_LOCATION_KEY, 0, -1);
+        if (members == null || members.isEmpty()) {
+            return 0;
+        }
+        List<Object> memberList = new ArrayList<>(members);
+        List<Double> lastSeen = redisTemplate.opsForZSet().score(DRIVER_LAST_SEEN_KEY, memberList.toArray());
+        List<Object> untracked = new ArrayList<>();
+        for (int i = 0; i < memberList.size(); i++) {
+            if (lastSeen == null || i >= lastSeen.size() || lastSeen.get(i) == null) {
+                untracked.add(memberList.get(i));
+            }
+        }
+        if (!untracked.isEmpty()) {
+            removeDriverMembers(untracked.toArray());
+        }
+        return untracked.size();
+    }
+
+    private void removeDriverMembers(Object[] members) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                ops.opsForZSet().remove(DRIVER_LOCATION_KEY, members);
+                ops.opsForZSet().remove(DRIVER_LAST_SEEN_KEY, members);
+                return null;
+            }
+        });
+    }
+
+    private double freshCutoffMillis(Duration maxAge) {
+        Duration age = maxAge != null ? maxAge : Duration.ofSeconds(staleAfterSeconds);
+        return System.currentTimeMillis() - age.toMillis();
+    }
+
     /**
      * Get total count of active drivers in Redis
      */
@@ -152,4 +383,108 @@ public class RedisGeoService {
             return 0L;
         }
     }
+
+    /**
+     * Add or update an open restaurant's location
+     * 
+     * @param restaurantId Restaurant ID
+     * @param latitude     Latitude coordinate
+     * @param longitude    Longitude coordinate
+     */
+    public void updateRestaurantLocation(Long restaurantId, BigDecimal latitude, BigDecimal longitude) {
+        try {
+            Point point = new Point(longitude.doubleValue(), latitude.doubleValue());
+            geoOps.add(RESTAURANT_LOCATION_KEY, point, restaurantId.toString());
+            log.debug("📍 Updated restaurant {} location in Redis GEO: lat={}, lng={}",
+                    restaurantId, latitude, longitude);
+        } catch (Exception e) {
+            log.error("Failed to update restaurant location in Redis", e);
+        }
+    }
+
+    /**
+     * Remove restaurant location from Redis (when restaurant closes or is deleted)
+     * 
+     * @param restaurantId Restaurant ID
+     */
+    public void removeRestaurantLocation(Long restaurantId) {
+        try {
+            geoOps.remove(RESTAURANT_LOCATION_KEY, restaurantId.toString());
+            log.debug("🗑️ Removed restaurant {} location from Redis GEO", restaurantId);
+        } catch (Exception e) {
+            log.error("Failed to remove restaurant location from Redis", e);
+        }
+    }
+
+    /**
+     * Replace all open restaurant locations (backfill from database).
+     * Diffs against the live key (GEOADD current members, ZREM missing ones)
+     * instead of swapping it, so readers never see a partial index, overlapping
+     * backfills from several nodes cannot wipe each other, and updates made by
+     * other nodes meanwhile are only overwritten per member, not dropped.
+     * 
+     * @param locations Restaurant ID to Point(longitude, latitude)
+     */
+    public void replaceRestaurantLocations(Map<Long, Point> locations) {
+        try {
+            if (!locations.isEmpty()) {
+                Map<Object, Point> members = new LinkedHashMap<>();
+                locations.forEach((id, point) -> members.put(id.toString(), point));
+                geoOps.add(RESTAURANT_LOCATION_KEY, members);
+            }
+
+            Set<Object> liveMembers = redisTemplate.opsForZSet().range(RESTAURANT_LOCATION_KEY, 0, -1);
+            List<Object> staleMembers = new ArrayList<>();
+            if (liveMembers != null) {
+                for (Object member : liveMembers) {
+                    if (!locations.containsKey(Long.parseLong(member.toString()))) {
+                        staleMembers.add(member);
+                    }
+                }
+            }
+            if (!staleMembers.isEmpty()) {
+                geoOps.remove(RESTAURANT_LOCATION_KEY, staleMembers.toArray());
+            }
+
+            log.debug("📍 Backfilled {} restaurant locations in Redis GEO, removed {} stale",
+                    locations.size(), staleMembers.size());
+        } catch (Exception e) {
+            log.error("Failed to backfill restaurant locations in Redis", e);
+        }
+    }
+
+    /**
+     * Find open restaurants within radius
+     * 
+     * @param latitude   Center latitude
+     * @param longitude  Center longitude
+     * @param radiusInKm Search radius in kilometers
+     * @return Restaurant IDs mapped to straight-line distance in kilometers
+     *         (closest first), or null if the query fails
+     */
+    public Map<Long, Double> findNearbyRestaurants(BigDecimal latitude, BigDecimal longitude, Double radiusInKm) {
+        try {
+            Point center = new Point(longitude.doubleValue(), latitude.doubleValue());
+            Distance radius = new Distance(radiusInKm, DistanceUnit.KILOMETERS);
+
+            GeoRadiusCommandArgs args = GeoRadiusCommandArgs.newGeoRadiusArgs()
+                    .includeDistance()
+                    .sortAscending();
+
+            GeoResults<org.springframework.data.redis.connection.RedisGeoCommands.GeoLocation<Object>> results = geoOps
+                    .radius(RESTAURANT_LOCATION_KEY, new Circle(center, radius), args);
+            if (results == null) {
+                return null;
+            }
+
+            Map<Long, Double> restaurants = new LinkedHashMap<>();
+            results.getContent().forEach(result -> restaurants.put(
+                    Long.parseLong(result.getContent().getName().toString()),
+                    result.getDistance().getValue()));
+            return restaurants;
+        } catch (Exception e) {
+            log.error("Failed to find nearby restaurants", e);
+            return null;
+        }
+    }
 }
@@ -26,24 +26,27 @@ public class RestaurantReportService {
         private final ReviewRepository reviewRepository;
         private final RestaurantService restaurantService;
         private final DishRepository dishRepository;
-        private final OrderEarningsSummaryRepository orderEarningsSummaryRepository;
         private final RestaurantRepository restaurantRepository;
         private final UserService userService;
+        private final DishSalesService dishSalesService;
+        private final RestaurantRevenueRollupService restaurantRevenueRollupService;
 
         public RestaurantReportService(OrderRepository orderRepository,
                         ReviewRepository reviewRepository,
                         RestaurantService restaurantService,
                         DishRepository dishRepository,
-                        OrderEarningsSummaryRepository orderEarningsSummaryRepository,
                         RestaurantRepository restaurantRepository,
-                        UserService userService) {
+                        UserService userService,
+                        DishSalesService dishSalesService,
+                        RestaurantRevenueRollupService restaurantRevenueRollupService) {
                 this.orderRepository = orderRepository;
                 this.reviewRepository = reviewRepository;
                 this.restaurantService = restaurantService;
                 this.dishRepository = dishRepository;
-                this.orderEarningsSummaryRepository = orderEarningsSummaryRepository;
                 this.restaurantRepository = restaurantRepository;
                 this.userService = userService;
+                this.dishSalesService = dishSalesService;
+                this.restaurantRevenueRollupService = restaurantRevenueRollupService;
         }
 
         /**
@@ -68,28 +71,31 @@ public class RestaurantReportService {
 
         /**
          * Get full dashboard report for a restaurant
+         * Totals come from the daily revenue rollup, so the cost grows with the
+         * number of days rather than the number of orders
          */
         public FullReportDTO getFullReport(Long restaurantId, Instant startDate, Instant endDate)
                         throws IdInvalidException {
                 Restaurant restaurant = validateRestaurant(restaurantId);
 
-                List<Order> orders = orderRepository.findByRestaurantIdAndCreatedAtBetweenOrderByCreatedAtDesc(
-                                restaurantId, startDate, endDate);
+                Map<LocalDate, RestaurantRevenueRollupService.DailyTotals> dailyTotals = restaurantRevenueRollupService
+                                .getDailyTotals(restaurantId, startDate, endDate);
 
                 // Calculate totals
-                BigDecimal totalRevenue = orders.stream()
-                                .filter(o -> "DELIVERED".equals(o.getOrderStatus()))
-                                .map(o -> o.getSubtotal() != null ? o.getSubtotal() : BigDecimal.ZERO)
-                                .reduce(BigDecimal.ZERO, BigDecimal::add);
+                BigDecimal totalRevenue = BigDecimal.ZERO;
+                BigDecimal netRevenue = BigDecimal.ZERO;
+                Map<String, Integer> statusCounts = new HashMap<>();
+                for (RestaurantRevenueRollupService.DailyTotals day : dailyTotals.values()) {
+                        totalRevenue = totalRevenue.add(day.getFoodRevenue());
+                        netRevenue = netRevenue.add(day.getNetRevenue());
+                        day.getOrdersByStatus().forEach((status, count) -> statusCounts.merge(status, count,
+                                        Integer::sum));
+                }
 
-                int totalOrders = orders.size();
-                int completedOrders = (int) orders.stream()
-                                .filter(o -> "DELIVERED".equals(o.getOrderStatus()))
-                                .count();
-                int cancelledOrders = (int) orders.stream()
-                                .filter(o -> "CANCELLED".equals(o.getOrderStatus())
-                                                || "REJECTED".equals(o.getOrderStatus()))
-                                .count();
+                int totalOrders = statusCounts.values().stream().mapToInt(Integer::intValue).sum();
+                int completedOrders = statusCounts.getOrDefault("DELIVERED", 0);
+                int cancelledOrders = statusCounts.getOrDefault("CANCELLED", 0)
+                                + statusCounts.getOrDefault("REJECTED", 0);
 
                 BigDecimal cancelRate = totalOrders > 0
                                 ? BigDecimal.valueOf(cancelledOrders).multiply(BigDecimal.valueOf(100))
@@ -100,28 +106,20 @@ public class RestaurantReportService {
                                 ? totalRevenue.divide(BigDecimal.valueOf(totalOrders), 2, RoundingMode.HALF_UP)
                                 : BigDecimal.ZERO;
 
-                // Calculate net revenue from order earnings summaries
-                BigDecimal netRevenue = orders.stream()
-                                .map(o -> orderEarningsSummaryRepository.findByOrderId(o.getId()))
-                                .filter(Optional::isPresent)
-                                .map(Optional::get)
-                                .map(s -> s.getRestaurantNetEarning() != null ? s.getRestaurantNetEarning()
-                                                : BigDecimal.ZERO)
-                                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
                 // Get review stats
                 BigDecimal averageRating = restaurant.getAverageRating() != null ? restaurant.getAverageRating()
                                 : BigDecimal.ZERO;
                 int totalReviews = getTotalReviewCount(restaurant);
 
                 // Get top performing dish
-                String topPerformingDish = getTopPerformingDishName(restaurantId, orders);
+                String topPerformingDish = getTopPerformingDishName(restaurantId, startDate, endDate);
 
                 // Generate revenue chart
-                List<RevenueReportItemDTO> revenueChart = getRevenueReport(restaurantId, startDate, endDate);
+                List<RevenueReportItemDTO> revenueChart = buildRevenueChart(dailyTotals, startDate, endDate);
 
                 // Generate order status breakdown
-                List<OrderStatusBreakdownDTO> orderStatusBreakdown = generateOrderStatusBreakdown(orders);
+                List<OrderStatusBreakdownDTO> orderStatusBreakdown = generateOrderStatusBreakdown(statusCounts,
+                                totalOrders);
 
                 return FullReportDTO.builder()
                                 .totalRevenue(totalRevenue)
@@ -146,77 +144,8 @@ public class RestaurantReportService {
                         throws IdInvalidException {
                 validateRestaurant(restaurantId);
 
-                List<Order> orders = orderRepository.findByRestaurantIdAndCreatedAtBetweenOrderByCreatedAtDesc(
-                                restaurantId, startDate, endDate);
-
-                // Group orders by date
-                Map<LocalDate, List<Order>> ordersByDate = orders.stream()
-                                .filter(o -> o.getCreatedAt() != null)
-                                .collect(Collectors.groupingBy(
-                                                o -> o.getCreatedAt().atZone(ZoneId.systemDefault()).toLocalDate()));
-
-                // Get earnings summaries for all orders
-                Map<Long, OrderEarningsSummary> earningsByOrderId = orders.stream()
-                                .map(o -> orderEarningsSummaryRepository.findByOrderId(o.getId()))
-                                .filter(Optional::isPresent)
-                                .map(Optional::get)
-                                .collect(Collectors.toMap(s -> s.getOrder().getId(), s -> s, (a, b) -> a));
-
-                List<RevenueReportItemDTO> result = new ArrayList<>();
-
-                // Generate data for each date in range
-                LocalDate start = startDate.atZone(ZoneId.systemDefault()).toLocalDate();
-                LocalDate end = endDate.atZone(ZoneId.systemDefault()).toLocalDate();
-
-                for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
-                        List<Order> dayOrders = ordersByDate.getOrDefault(date, Collections.emptyList());
-
-                        BigDecimal foodRevenue = BigDecimal.ZERO;
-                        BigDecimal deliveryFee = BigDecimal.ZERO;
-                        BigDecimal discountAmount = BigDecimal.ZERO;
-                        BigDecimal commissionAmount = BigDecimal.ZERO;
-                        BigDecimal netRevenue = BigDecimal.ZERO;
-
-                        for (Order order : dayOrders) {
-                                // Only count revenue for delivered orders
-                                if ("DELIVERED".equals(order.getOrderStatus())) {
-                                        foodRevenue = foodRevenue.add(
-                                                        order.getSubtotal() != null ? order.getSubtotal()
-                                                                        : BigDecimal.ZERO);
-                                        deliveryFee = deliveryFee
-                                                        .add(order.getDeliveryFee() != null ? order.getDeliveryFee()
-                                                                        : BigDecimal.ZERO);
-                                        discountAmount = discountAmount
-                                                        .add(order.getDiscountAmount() != null
-                                                                        ? order.getDiscountAmount()
-                                                                        : BigDecimal.ZERO);
-
-                                        OrderEarningsSummary summary = earningsByOrderId.get(order.getId());
-                                        if (summary != null) {
-                                                commissionAmount = commissionAmount.add(
-                                                                summary.getRestaurantCommissionAmount() != null
-                                                                                ? summary.getRestaurantCommissionAmount()
-                                                                                : BigDecimal.ZERO);
-                                                netRevenue = netRevenue
-                                                                .add(summary.getRestaurantNetEarning() != null
-                                                                                ? summary.getRestaurantNetEarning()
-                                                                                : BigDecimal.ZERO);
-                                        }
-                                }
-                        }
-
-                        result.add(RevenueReportItemDTO.builder()
-                                        .date(date)
-                                        .foodRevenue(foodRevenue)
-                                        .deliveryFee(deliveryFee)
-                                        .discountAmount(discountAmount)
-                                        .commissionAmount(commissionAmount)
-                                        .netRevenue(netRevenue)
-                                        .totalOrders(dayOrders.size())
-                                        .build());
-                }
-
-                return result;
+                return buildRevenueChart(restaurantRevenueRollupService.getDailyTotals(restaurantId, startDate,
+                                endDate), startDate, endDate);
         }
 
         /**
@@ -246,12 +175,9 @@ public class RestaurantReportService {
                                 .count();
                 int outOfStockDishes = totalDishes - activeDishes;
 
-                // Get all orders for this restaurant to calculate dish stats
-                List<Order> orders = orderRepository.findByRestaurantId(restaurantId);
-
-                // Calculate dish analytics
+                // Calculate dish analytics from the per-dish sales counters
                 List<MenuAnalyticsItemDTO> dishAnalytics = dishes.stream()
-                                .map(dish -> calculateDishAnalytics(dish, orders))
+                                .map(this::calculateDishAnalytics)
                                 .collect(Collectors.toList());
 
                 // Sort by total revenue
@@ -356,29 +282,10 @@ public class RestaurantReportService {
                 return count;
         }
 
-        private String getTopPerformingDishName(Long restaurantId, List<Order> orders) {
-                Map<Long, Integer> dishOrderCount = new HashMap<>();
-
-                for (Order order : orders) {
-                        if (order.getOrderItems() != null) {
-                                for (OrderItem item : order.getOrderItems()) {
-                                        if (item.getDish() != null) {
-                                                Long dishId = item.getDish().getId();
-                                                int quantity = item.getQuantity() != null ? item.getQuantity() : 1;
-                                                dishOrderCount.merge(dishId, quantity, Integer::sum);
-                                        }
-                                }
-                        }
-                }
-
-                if (dishOrderCount.isEmpty()) {
-                        return "N/A";
-                }
-
-                Long topDishId = dishOrderCount.entrySet().stream()
-                                .max(Map.Entry.comparingByValue())
-                                .map(Map.Entry::getKey)
-                                .orElse(null);
+        private String getTopPerformingDishName(Long restaurantId, Instant startDate, Instant endDate) {
+                Long topDishId = dishSalesService.getTopDishId(restaurantId,
+                                startDate.atZone(ZoneId.systemDefault()).toLocalDate(),
+                                endDate.atZone(ZoneId.systemDefault()).toLocalDate());
 
                 if (topDishId != null) {
                         return dishRepository.findById(topDishId)
@@ -389,17 +296,53 @@ public class RestaurantReportService {
                 return "N/A";
         }
 
-        private List<OrderStatusBreakdownDTO> generateOrderStatusBreakdown(List<Order> orders) {
-                Map<String, Long> statusCounts = orders.stream()
-                                .filter(o -> o.getOrderStatus() != null)
-                                .collect(Collectors.groupingBy(Order::getOrderStatus, Collectors.counting()));
+        /**
+         * One revenue item per day in range, zero-filled for days without orders
+         */
+        private List<RevenueReportItemDTO> buildRevenueChart(
+                        Map<LocalDate, RestaurantRevenueRollupService.DailyTotals> dailyTotals,
+                        Instant startDate, Instant endDate) {
+                List<RevenueReportItemDTO> result = new ArrayList<>();
+
+                // Generate data for each date in range
+                LocalDate start = startDate.atZone(ZoneId.systemDefault()).toLocalDate();
+                LocalDate end = endDate.atZone(ZoneId.systemDefault()).toLocalDate();
+
+                for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+                        RestaurantRevenueRollupService.DailyTotals day = dailyTotals.get(date);
+                        if (day == null) {
+                                result.add(RevenueReportItemDTO.builder()
+                                                .date(date)
+                                                .foodRevenue(BigDecimal.ZERO)
+                                                .deliveryFee(BigDecimal.ZERO)
+                                                .discountAmount(BigDecimal.ZERO)
+                                                .commissionAmount(BigDecimal.ZERO)
+                                                .netRevenue(BigDecimal.ZERO)
+                                                .totalOrders(0)
+                                                .build());
+                                continue;
+                        }
+
+                        result.add(RevenueReportItemDTO.builder()
+                                        .date(date)
+                                        .foodRevenue(day.getFoodRevenue())
+                                        .deliveryFee(day.getDeliveryFee())
+                                        .discountAmount(day.getDiscountAmount())
+                                        .commissionAmount(day.getCommissionAmount())
+                                        .netRevenue(day.getNetRevenue())
+                                        .totalOrders(day.getTotalOrders())
+                                        .build());
+                }
 
-                int total = orders.size();
+                return result;
+        }
 
+        private List<OrderStatusBreakdownDTO> generateOrderStatusBreakdown(Map<String, Integer> statusCounts,
+                        int total) {
                 return statusCounts.entrySet().stream()
                                 .map(entry -> OrderStatusBreakdownDTO.builder()
                                                 .status(entry.getKey())
-                                                .count(entry.getValue().intValue())
+                                                .count(entry.getValue())
                                                 .percent(total > 0
                                                                 ? BigDecimal.valueOf(entry.getValue() * 100.0 / total)
                                                                                 .setScale(2, RoundingMode.HALF_UP)
@@ -445,28 +388,9 @@ public class RestaurantReportService {
                                 .build();
         }
 
-        private MenuAnalyticsItemDTO calculateDishAnalytics(Dish dish, List<Order> orders) {
-                int totalOrdered = 0;
-                BigDecimal totalRevenue = BigDecimal.ZERO;
-
-                for (Order order : orders) {
-                        if (order.getOrderItems() != null) {
-                                for (OrderItem item : order.getOrderItems()) {
-                                        if (item.getDish() != null && item.getDish().getId().equals(dish.getId())) {
-                                                int quantity = item.getQuantity() != null ? item.getQuantity() : 1;
-                                                totalOrdered += quantity;
-
-                                                BigDecimal price = item.getPriceAtPurchase() != null
-                                                                ? item.getPriceAtPurchase()
-                                                                : dish.getPrice();
-                                                if (price != null) {
-                                                        totalRevenue = totalRevenue.add(
-                                                                        price.multiply(BigDecimal.valueOf(quantity)));
-                                                }
-                                        }
-                                }
-                        }
-                }
+        private MenuAnalyticsItemDTO calculateDishAnalytics(Dish dish) {
+                int totalOrdered = dish.getSoldQuantity() != null ? dish.getSoldQuantity().intValue() : 0;
+                BigDecimal totalRevenue = dish.getSoldRevenue() != null ? dish.getSoldRevenue() : BigDecimal.ZERO;
 
                 String categoryName = dish.getCategory() != null ? dish.getCategory().getName() : "Uncategorized";
 
@@ -493,15 +417,15 @@ public class RestaurantReportService {
                                 .map(MenuAnalyticsItemDTO::getTotalRevenue)
                                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
+                Map<Long, MenuAnalyticsItemDTO> analyticsByDishId = dishAnalytics.stream()
+                                .collect(Collectors.toMap(MenuAnalyticsItemDTO::getDishId, a -> a, (a, b) -> a));
+
                 for (Dish dish : dishes) {
                         Long categoryId = dish.getCategory() != null ? dish.getCategory().getId() : 0L;
                         String categoryName = dish.getCategory() != null ? dish.getCategory().getName()
                                         : "Uncategorized";
 
-                        MenuAnalyticsItemDTO analytics = dishAnalytics.stream()
-                                        .filter(a -> a.getDishId().equals(dish.getId()))
-                                        .findFirst()
-                                        .orElse(null);
+                        MenuAnalyticsItemDTO analytics = analyticsByDishId.get(dish.getId());
 
                         if (analytics != null) {
                                 CategoryAnalyticsItemDTO existing = categoryMap.get(categoryId);
@@ -0,0 +1,239 @@
+package com.example.FoodDelivery.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.FoodDelivery.domain.RestaurantDailyRevenue;
+import com.example.FoodDelivery.repository.OrderRepository;
+import com.example.FoodDelivery.repository.RestaurantDailyRevenueRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Daily revenue rollup per restaurant.
+ * An order is added to its restaurant's row for the day it was created once it
+ * reaches a final status, exactly once (guarded by orders.revenue_rolled_up).
+ * Orders missed by the status hooks, and all history on first deploy, are
+ * picked up by a periodic sweep. Report reads combine the rollup rows with the
+ * few orders not rolled up yet, so they stay exact while the sweep catches up.
+ * Admin edits of a finished order retract it first and count it again after.
+ */
+@Service
+@Slf4j
+public class RestaurantRevenueRollupService {
+
+    public static final List<String> FINAL_STATUSES = List.of("DELIVERED", "CANCELLED", "REJECTED");
+
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    private final OrderRepository orderRepository;
+    private final RestaurantDailyRevenueRepository restaurantDailyRevenueRepository;
+
+    public RestaurantRevenueRollupService(OrderRepository orderRepository,
+            RestaurantDailyRevenueRepository restaurantDailyRevenueRepository) {
+        this.orderRepository = orderRepository;
+        this.restaurantDailyRevenueRepository = restaurantDailyRevenueRepository;
+    }
+
+    /**
+     * Add a finished order to the rollup
+     * No-op for orders that are not finished or were already counted. Runs in the
+     * caller's transaction, so call it after the order and its earnings summary
+     * are saved.
+     */
+    @Transactional
+    public void recordOrder(Long orderId) {
+        if (orderId == null || orderRepository.claimForRevenueRollup(orderId, FINAL_STATUSES) == 0) {
+            return;
+        }
+        addToRollup(orderId, 1);
+    }
+
+    /**
+     * Take a rolled-up order back out of the rollup
+     * Call before changing the status or amounts of a finished order, then call
+     * recordOrder once it is saved so it is counted again with its new figures.
+     * No-op for orders not in the rollup.
+     */
+    @Transactional
+    public void retractOrder(Long orderId) {
+        if (orderId == null || orderRepository.releaseRevenueRollupById(orderId) == 0) {
+            return;
+        }
+        addToRollup(orderId, -1);
+    }
+
+    /**
+     * Add (sign 1) or subtract (sign -1) an order's current figures on its day
+     */
+    private void addToRollup(Long orderId, int sign) {
+        List<Object[]> rows = orderRepository.findRevenueFiguresById(orderId);
+        if (rows.isEmpty() || rows.get(0)[0] == null || rows.get(0)[1] == null) {
+            return;
+        }
+
+        Object[] row = rows.get(0);
+        String status = (String) row[2];
+        boolean delivered = "DELIVERED".equals(status);
+        BigDecimal factor = BigDecimal.valueOf(sign);
+        restaurantDailyRevenueRepository.addOrder((Long) row[0], toDay((Instant) row[1]),
+                delivered ? sign : 0,
+                "CANCELLED".equals(status) ? sign : 0,
+                "REJECTED".equals(status) ? sign : 0,
+                delivered ? amount(row[3]).multiply(factor) : BigDecimal.ZERO,
+                delivered ? amount(row[4]).multiply(factor) : BigDecimal.ZERO,
+                delivered ? amount(row[5]).multiply(factor) : BigDecimal.ZERO,
+                delivered ? amount(row[6]).multiply(factor) : BigDecimal.ZERO,
+                delivered ? amount(row[7]).multiply(factor) : BigDecimal.ZERO,
+                Instant.now());
+    }
+
+    /**
+     * Roll up finished orders not counted yet (missed hooks and backfill)
+     */
+    @Scheduled(fixedDelay = 60000, initialDelay = 30000) // 1 minute = 60,000 milliseconds
+    @Transactional
+    public void sweep() {
+        List<Long> orderIds = orderRepository.findIdsPendingRevenueRollup(FINAL_STATUSES,
+                PageRequest.of(0, SWEEP_BATCH_SIZE));
+        for (Long orderId : orderIds) {
+            recordOrder(orderId);
+        }
+        if (!orderIds.isEmpty()) {
+            log.info("📊 Rolled up {} finished orders into daily restaurant revenue", orderIds.size());
+        }
+    }
+
+    /**
+     * Drop a restaurant's rollup and let the sweep rebuild it from its orders
+     * Reports stay exact in between because unrolled orders are read directly.
+     *
+     * @return number of orders released for the sweep
+     */
+    @Transactional
+    public int rebuild(Long restaurantId) {
+        restaurantDailyRevenueRepository.deleteByRestaurantId(restaurantId);
+        int released = orderRepository.releaseRevenueRollup(restaurantId);
+        log.info("📊 Released {} orders of restaurant {} for revenue rollup rebuild", released, restaurantId);
+        return released;
+    }
+
+    /**
+     * Per-day totals of a restaurant between two instants, day by order creation
+     * date. Whole days are read from the rollup, so the range is widened to full
+     * days.
+     *
+     * @return totals keyed by day, only for days that have orders
+     */
+    @Transactional(readOnly = true)
+    public Map<LocalDate, DailyTotals> getDailyTotals(Long restaurantId, Instant startDate, Instant endDate) {
+        LocalDate firstDay = toDay(startDate);
+        LocalDate lastDay = toDay(endDate);
+        Map<LocalDate, DailyTotals> totals = new TreeMap<>();
+
+        for (RestaurantDailyRevenue day : restaurantDailyRevenueRepository
+                .findByRestaurantIdAndRevenueDateBetweenOrderByRevenueDateAsc(restaurantId, firstDay, lastDay)) {
+            DailyTotals dayTotals = totals.computeIfAbsent(day.getRevenueDate(), d -> new DailyTotals());
+            dayTotals.addOrders("DELIVERED", day.getDeliveredOrders());
+            dayTotals.addOrders("CANCELLED", day.getCancelledOrders());
+            dayTotals.addOrders("REJECTED", day.getRejectedOrders());
+            dayTotals.addMoney(day.getFoodRevenue(), day.getDeliveryFee(), day.getDiscountAmount(),
+                    day.getCommissionAmount(), day.getNetRevenue());
+        }
+
+        Instant rangeStart = firstDay.atStartOfDay(ZoneId.systemDefault()).toInstant();
+        Instant rangeEnd = lastDay.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().minusNanos(1);
+        for (Object[] row : orderRepository.findUnrolledRevenueFigures(restaurantId, rangeStart, rangeEnd,
+                FINAL_STATUSES)) {
+            if (row[1] == null) {
+                continue;
+            }
+            String status = (String) row[2];
+            DailyTotals dayTotals = totals.computeIfAbsent(toDay((Instant) row[1]), d -> new DailyTotals());
+            dayTotals.addOrders(status, 1);
+            if ("DELIVERED".equals(status)) {
+                dayTotals.addMoney(amount(row[3]), amount(row[4]), amount(row[5]), amount(row[6]),
+                        amount(row[7]));
+            }
+        }
+        return totals;
+    }
+
+    private static LocalDate toDay(Instant instant) {
+        return instant.atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private static BigDecimal amount(Object value) {
+        return value != null ? (BigDecimal) value : BigDecimal.ZERO;
+    }
+
+    /**
+     * Order counts by status and delivered-order money totals of one day
+     */
+    public static class DailyTotals {
+        private final Map<String, Integer> ordersByStatus = new HashMap<>();
+        private BigDecimal foodRevenue = BigDecimal.ZERO;
+        private BigDecimal deliveryFee = BigDecimal.ZERO;
+        private BigDecimal discountAmount = BigDecimal.ZERO;
+        private BigDecimal commissionAmount = BigDecimal.ZERO;
+        private BigDecimal netRevenue = BigDecimal.ZERO;
+
+        private void addOrders(String status, Integer count) {
+            if (status != null && count != null && count > 0) {
+                ordersByStatus.merge(status, count, Integer::sum);
+            }
+        }
+
+        private void addMoney(BigDecimal food, BigDecimal delivery, BigDecimal discount, BigDecimal commission,
+                BigDecimal net) {
+            foodRevenue = foodRevenue.add(amount(food));
+            deliveryFee = deliveryFee.add(amount(delivery));
+            discountAmount = discountAmount.add(amount(discount));
+            commissionAmount = commissionAmount.add(amount(commission));
+            netRevenue = netRevenue.add(amount(net));
+        }
+
+        public Map<String, Integer> getOrdersByStatus() {
+            return ordersByStatus;
+        }
+
+        public int getTotalOrders() {
+            return ordersByStatus.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        public int getOrders(String status) {
+            return ordersByStatus.getOrDefault(status, 0);
+        }
+
+        public BigDecimal getFoodRevenue() {
+            return foodRevenue;
+        }
+
+        public BigDecimal getDeliveryFee() {
+            return deliveryFee;
+        }
+
+        public BigDecimal getDiscountAmount() {
+            return discountAmount;
+        }
+
+        public BigDecimal getCommissionAmount() {
+            return commissionAmount;
+        }
+
+        public BigDecimal getNetRevenue() {
+            return netRevenue;
+        }
+    }
+}
@@ -44,6 +44,8 @@ public class RestaurantService {
     private final UserTypeScoreRepository userTypeScoreRepository;
     private final UserRestaurantScoreRepository userRestaurantScoreRepository;
     private final UserScoringService userScoringService;
+    private final RestaurantSpatialIndexService restaurantSpatialIndexService;
+    private final SitemapService sitemapService;
 
     public RestaurantService(RestaurantRepository restaurantRepository, UserService userService,
             RestaurantTypeRepository restaurantTypeRepository,
@@ -52,7 +54,9 @@ public class RestaurantService {
             RedisCacheService redisCacheService,
             UserTypeScoreRepository userTypeScoreRepository,
             UserRestaurantScoreRepository userRestaurantScoreRepository,
-            @org.springframework.context.annotation.Lazy UserScoringService userScoringService) {
+            @org.springframework.context.annotation.Lazy UserScoringService userScoringService,
+            RestaurantSpatialIndexService restaurantSpatialIndexService,
+            SitemapService sitemapService) {
         this.restaurantRepository = restaurantRepository;
         this.userService = userService;
         this.restaurantTypeRepository = restaurantTypeRepository;
@@ -62,6 +66,8 @@ public class RestaurantService {
         this.userTypeScoreRepository = userTypeScoreRepository;
         this.userRestaurantScoreRepository = userRestaurantScoreRepository;
         this.userScoringService = userScoringService;
+        this.restaurantSpatialIndexService = restaurantSpatialIndexService;
+        this.sitemapService = sitemapService;
     }
 
     public boolean existsByName(String name) {
@@ -353,7 +359,10 @@ public class RestaurantService {
             restaurant.setSlug(uniqueSlug);
         }
 
-        return restaurantRepository.save(restaurant);
+        Restaurant savedRestaurant = restaurantRepository.save(restaurant);
+        restaurantSpatialIndexService.upsert(savedRestaurant);
+        sitemapService.invalidate();
+        return savedRestaurant;
     }
 
     public ResRestaurantDTO createRestaurantDTO(Restaurant restaurant) throws IdInvalidException {
@@ -428,6 +437,8 @@ public class RestaurantService {
         }
 
         Restaurant savedRestaurant = restaurantRepository.save(currentRestaurant);
+        restaurantSpatialIndexService.upsert(savedRestaurant);
+        sitemapService.invalidate();
 
         // Clear search cache when restaurant data changes
         clearSearchCache();
@@ -458,6 +469,8 @@ public class RestaurantService {
 
     public void deleteRestaurant(Long id) {
         this.restaurantRepository.deleteById(id);
+        restaurantSpatialIndexService.remove(id);
+        sitemapService.invalidate();
     }
 
     /**
@@ -471,6 +484,7 @@ public class RestaurantService {
 
         restaurant.setStatus("OPEN");
         Restaurant savedRestaurant = restaurantRepository.save(restaurant);
+        restaurantSpatialIndexService.upsert(savedRestaurant);
         return convertToResRestaurantDTO(savedRestaurant);
     }
 
@@ -485,6 +499,7 @@ public class RestaurantService {
 
         restaurant.setStatus("CLOSED");
         Restaurant savedRestaurant = restaurantRepository.save(restaurant);
+        restaurantSpatialIndexService.upsert(savedRestaurant);
         return convertToResRestaurantDTO(savedRestaurant);
     }
 
@@ -535,16 +550,8 @@ public class RestaurantService {
 
         // 3. Cache miss - Query database
         // Get max distance from configuration (default 10 km)
-        BigDecimal maxDistanceKm = new BigDecimal("10.0");
-        try {
-            com.example.FoodDelivery.domain.SystemConfiguration config = systemConfigurationService
-                    .getSystemConfigurationByKey("MAX_RESTAURANT_DISTANCE_KM");
-            if (config != null && config.getConfigValue() != null && !config.getConfigValue().isEmpty()) {
-                maxDistanceKm = new BigDecimal(config.getConfigValue());
-            }
-        } catch (Exception e) {
-            log.warn("Failed to get MAX_RESTAURANT_DISTANCE_KM config, using default {} km", maxDistanceKm);
-        }
+        BigDecimal maxDistanceKm = systemConfigurationService.getDecimal("MAX_RESTAURANT_DISTANCE_KM",
+                new BigDecimal("10.0"));
 
         // Build search specification if keyword is provided
         Specification<Restaurant> finalSpec = spec;
@@ -589,6 +596,21 @@ public class RestaurantService {
             finalSpec = finalSpec != null ? finalSpec.and(searchSpec) : searchSpec;
         }
 
+        // Prune candidates with the spatial index: great-circle distance is a lower
+        // bound of driving distance, so anything outside the radius can be skipped
+        if (restaurantSpatialIndexService.isLoaded()) {
+            List<Long> candidateIds = restaurantSpatialIndexService.findCandidates(
+                    latitude, longitude, maxDistanceKm.doubleValue());
+            log.info("🗺️ Geo index returned {} candidates within {} km", candidateIds.size(), maxDistanceKm);
+            if (candidateIds.isEmpty()) {
+                candidateIds = List.of(-1L); // no candidates - keep query valid but empty
+            }
+            final List<Long> finalCandidateIds = candidateIds;
+            Specification<Restaurant> candidateSpec = (root, query, criteriaBuilder) -> root.get("id")
+                    .in(finalCandidateIds);
+            finalSpec = finalSpec != null ? finalSpec.and(candidateSpec) : candidateSpec;
+        }
+
         // Get filtered restaurants using spec
         List<Restaurant> filteredRestaurants;
         if (finalSpec != null) {
@@ -597,9 +619,10 @@ public class RestaurantService {
             filteredRestaurants = restaurantRepository.findAll();
         }
 
-        // Filter only ACTIVE or OPEN restaurants
+        // Filter only ACTIVE or OPEN restaurants with location data
         filteredRestaurants = filteredRestaurants.stream()
                 .filter(r -> "ACTIVE".equals(r.getStatus()) || "OPEN".equals(r.getStatus()))
+                .filter(r -> r.getLatitude() != null && r.getLongitude() != null)
                 .collect(Collectors.toList());
 
         log.info("Checking {} ACTIVE/OPEN restaurants within {} km from location ({}, {})",
@@ -612,18 +635,16 @@ public class RestaurantService {
         // Track search scoring only once per search (not per restaurant)
         boolean hasTrackedSearchScoring = false;
 
-        for (Restaurant restaurant : filteredRestaurants) {
-            // Skip restaurants without location data
-            if (restaurant.getLatitude() == null || restaurant.getLongitude() == null) {
-                continue;
-            }
+        // Calculate driving distances for all candidates using batched Mapbox requests
+        List<org.springframework.data.geo.Point> destinations = filteredRestaurants.stream()
+                .map(r -> new org.springframework.data.geo.Point(
+                        r.getLongitude().doubleValue(), r.getLatitude().doubleValue()))
+                .collect(Collectors.toList());
+        List<BigDecimal> distances = mapboxService.getDrivingDistancesFromOrigin(latitude, longitude, destinations);
 
-            // Calculate driving distance using Mapbox API
-            BigDecimal distance = mapboxService.getDrivingDistance(
-                    latitude,
-                    longitude,
-                    restaurant.getLatitude(),
-                    restaurant.getLongitude());
+        for (int i = 0; i < filteredRestaurants.size(); i++) {
+            Restaurant restaurant = filteredRestaurants.get(i);
+            BigDecimal distance = distances.get(i);
 
             // Skip if Mapbox API fails
             if (distance == null) {
@@ -893,6 +914,7 @@ public class RestaurantService {
         Restaurant restaurant = getCurrentOwnerRestaurant();
         restaurant.setStatus("OPEN");
         Restaurant savedRestaurant = restaurantRepository.save(restaurant);
+        restaurantSpatialIndexService.upsert(savedRestaurant);
         return convertToResRestaurantDTO(savedRestaurant);
     }
 
@@ -904,6 +926,7 @@ public class RestaurantService {
         Restaurant restaurant = getCurrentOwnerRestaurant();
         restaurant.setStatus("CLOSED");
         Restaurant savedRestaurant = restaurantRepository.save(restaurant);
+        restaurantSpatialIndexService.upsert(savedRestaurant);
         return convertToResRestaurantDTO(savedRestaurant);
     }
 }
@@ -0,0 +1,303 @@
+package com.example.FoodDelivery.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.data.geo.Point;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.FoodDelivery.domain.Restaurant;
+import com.example.FoodDelivery.repository.RestaurantRepository;
+import com.example.FoodDelivery.util.GeoHashUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory grid index of searchable (ACTIVE/OPEN) restaurant coordinates,
+ * mirrored into the Redis GEO key geo:restaurants:open.
+ * Used to prune nearby search candidates with a great-circle bound before any
+ * road-distance work. Changes are applied once the surrounding transaction
+ * commits; changes that land while a rebuild is reading the table are replayed
+ * on top of the rebuilt index.
+ */
+@Service
+@Slf4j
+public class RestaurantSpatialIndexService {
+
+    // Grid cell size in degrees (~5.5 km of latitude)
+    private static final double CELL_SIZE_DEGREES = 0.05;
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+    private static final int APPLY_LOCK_STRIPES = 64;
+
+    private final RestaurantRepository restaurantRepository;
+    private final RedisGeoService redisGeoService;
+
+    private volatile Map<Long, double[]> locations = new ConcurrentHashMap<>();
+    private volatile Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+    private volatile boolean loaded = false;
+    // Restaurants changed while a rebuild is running (null when none is); guarded
+    // by this
+    private Set<Long> changedDuringRebuild;
+    // Per-restaurant ordering of local + Redis writes; locks rather than monitors
+    // so virtual threads are not pinned during the Redis call
+    private final ReentrantLock[] applyLocks = new ReentrantLock[APPLY_LOCK_STRIPES];
+
+    public RestaurantSpatialIndexService(RestaurantRepository restaurantRepository,
+            RedisGeoService redisGeoService) {
+        this.restaurantRepository = restaurantRepository;
+        this.redisGeoService = redisGeoService;
+        for (int i = 0; i < APPLY_LOCK_STRIPES; i++) {
+            applyLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Rebuild the whole index from the database and backfill the Redis GEO key.
+     * Runs at startup and every 5 minutes to pick up changes made on other nodes.
+     */
+    @Scheduled(fixedRate = 300000) // 5 minutes = 300,000 milliseconds
+    public void rebuild() {
+        synchronized (this) {
+            if (changedDuringRebuild != null) {
+                return;
+            }
+            changedDuringRebuild = new HashSet<>();
+        }
+        try {
+            Map<Long, double[]> newLocations = new ConcurrentHashMap<>();
+            Map<Long, Set<Long>> newCells = new ConcurrentHashMap<>();
+
+            for (Object[] row : restaurantRepository.findAllLocations()) {
+                Long id = (Long) row[0];
+                BigDecimal latitude = (BigDecimal) row[1];
+                BigDecimal longitude = (BigDecimal) row[2];
+                String status = (String) row[3];
+                if (isSearchable(latitude, longitude, status)) {
+                    double[] point = { latitude.doubleValue(), longitude.doubleValue() };
+                    newLocations.put(id, point);
+                    newCells.computeIfAbsent(cellKey(point[0], point[1]), k -> ConcurrentHashMap.newKeySet()).add(id);
+                }
+            }
+
+            synchronized (this) {
+                this.locations = newLocations;
+                this.cells = newCells;
+                this.loaded = true;
+            }
+
+            Map<Long, Point> redisLocations = new HashMap<>();
+            newLocations.forEach((id, point) -> redisLocations.put(id, new Point(point[1], point[0])));
+            redisGeoService.replaceRestaurantLocations(redisLocations);
+
+            log.info("🗺️ Rebuilt restaurant spatial index with {} restaurants in {} cells",
+                    newLocations.size(), newCells.size());
+        } catch (Exception e) {
+            log.error("Failed to rebuild restaurant spatial index", e);
+        } finally {
+            replayChangedDuringRebuild();
+        }
+    }
+
+    /**
+     * Re-apply restaurants changed while the rebuild was reading, since the read
+     * (and the Redis replace) may predate their change
+     */
+    private void replayChangedDuringRebuild() {
+        Set<Long> changedIds;
+        synchronized (this) {
+            changedIds = changedDuringRebuild;
+            changedDuringRebuild = null;
+        }
+        if (changedIds == null || changedIds.isEmpty()) {
+            return;
+        }
+        for (Object[] row : restaurantRepository.findLocationsByIds(changedIds)) {
+            Long id = (Long) row[0];
+            changedIds.remove(id);
+            BigDecimal latitude = (BigDecimal) row[1];
+            BigDecimal longitude = (BigDecimal) row[2];
+            apply(id, isSearchable(latitude, longitude, (String) row[3])
+                    ? new double[] { latitude.doubleValue(), longitude.doubleValue() }
+                    : null);
+        }
+        // Whatever is left was deleted
+        changedIds.forEach(id -> apply(id, null));
+    }
+
+    /**
+     * Add, move or remove a restaurant after it was created, updated, opened or
+     * closed
+     * Applied after the surrounding transaction commits, so a rolled-back change
+     * never becomes searchable.
+     */
+    public void upsert(Restaurant restaurant) {
+        if (restaurant == null || restaurant.getId() == null) {
+            return;
+        }
+        Long restaurantId = restaurant.getId();
+        double[] point = isSearchable(restaurant.getLatitude(), restaurant.getLongitude(), restaurant.getStatus())
+                ? new double[] { restaurant.getLatitude().doubleValue(), restaurant.getLongitude().doubleValue() }
+                : null;
+        afterCommit(() -> apply(restaurantId, point));
+    }
+
+    /**
+     * Remove a restaurant from the index once the surrounding transaction commits
+     */
+    public void remove(Long restaurantId) {
+        if (restaurantId == null) {
+            return;
+        }
+        afterCommit(() -> apply(restaurantId, null));
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    /**
+     * Put a restaurant at a point (null = not searchable) locally and in Redis
+     * Both writes happen under the restaurant's stripe lock, so Redis sees changes
+     * to one restaurant in the same order as the local index.
+     */
+    private void apply(Long restaurantId, double[] point) {
+        ReentrantLock lock = applyLocks[Math.floorMod(restaurantId.hashCode(), APPLY_LOCK_STRIPES)];
+        lock.lock();
+        try {
+            // The monitor only covers the in-memory update, never the Redis call
+            synchronized (this) {
+                removeLocal(restaurantId);
+                if (point != null) {
+                    locations.put(restaurantId, point);
+                    cells.computeIfAbsent(cellKey(point[0], point[1]), k -> ConcurrentHashMap.newKeySet())
+                            .add(restaurantId);
+                }
+                if (changedDuringRebuild != null) {
+                    changedDuringRebuild.add(restaurantId);
+                }
+            }
+
+            if (point != null) {
+                redisGeoService.updateRestaurantLocation(restaurantId, BigDecimal.valueOf(point[0]),
+                        BigDecimal.valueOf(point[1]));
+            } else {
+                redisGeoService.removeRestaurantLocation(restaurantId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeLocal(Long restaurantId) {
+        double[] previous = locations.remove(restaurantId);
+        if (previous != null) {
+            Set<Long> cell = cells.get(cellKey(previous[0], previous[1]));
+            if (cell != null) {
+                cell.remove(restaurantId);
+            }
+        }
+    }
+
+    /**
+     * Whether the index has been built at least once
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Find candidate restaurants within the radius.
+     * Queries the shared Redis GEO index first and falls back to the local grid
+     * if Redis is unavailable.
+     *
+     * @param latitude   Center latitude
+     * @param longitude  Center longitude
+     * @param radiusInKm Search radius in kilometers
+     * @return Restaurant IDs within the radius
+     */
+    public List<Long> findCandidates(BigDecimal latitude, BigDecimal longitude, double radiusInKm) {
+        Map<Long, Double> nearby = redisGeoService.findNearbyRestaurants(latitude, longitude, radiusInKm);
+        if (nearby != null) {
+            return new ArrayList<>(nearby.keySet());
+        }
+        log.warn("Redis GEO restaurant lookup failed, using local spatial index");
+        return findWithinRadius(latitude, longitude, radiusInKm);
+    }
+
+    /**
+     * Find restaurants whose great-circle distance is within the radius
+     *
+     * @param latitude   Center latitude
+     * @param longitude  Center longitude
+     * @param radiusInKm Search radius in kilometers
+     * @return Restaurant IDs within the radius
+     */
+    public List<Long> findWithinRadius(BigDecimal latitude, BigDecimal longitude, double radiusInKm) {
+        double lat = latitude.doubleValue();
+        double lng = longitude.doubleValue();
+
+        // Bounding box of the search circle, in cells
+        double latDelta = radiusInKm / KM_PER_DEGREE_LAT;
+        double lngDelta = radiusInKm / (KM_PER_DEGREE_LAT * Math.max(Math.cos(Math.toRadians(lat)), 0.01));
+        long minRow = cellIndex(lat - latDelta);
+        long maxRow = cellIndex(lat + latDelta);
+        long minCol = cellIndex(lng - lngDelta);
+        long maxCol = cellIndex(lng + lngDelta);
+
+        Map<Long, double[]> currentLocations = this.locations;
+        Map<Long, Set<Long>> currentCells = this.cells;
+
+        List<Long> result = new ArrayList<>();
+        for (long row = minRow; row <= maxRow; row++) {
+            for (long col = minCol; col <= maxCol; col++) {
+                Set<Long> cell = currentCells.get(cellKey(row, col));
+                if (cell == null) {
+                    continue;
+                }
+                for (Long id : cell) {
+                    double[] point = currentLocations.get(id);
+                    if (point != null && GeoHashUtils.haversineKm(lat, lng, point[0], point[1]) <= radiusInKm) {
+                        result.add(id);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private boolean isSearchable(BigDecimal latitude, BigDecimal longitude, String status) {
+        return latitude != null && longitude != null
+                && ("ACTIVE".equals(status) || "OPEN".equals(status));
+    }
+
+    private static long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / CELL_SIZE_DEGREES);
+    }
+
+    private static long cellKey(double latitude, double longitude) {
+        return cellKey(cellIndex(latitude), cellIndex(longitude));
+    }
+
+    private static long cellKey(long row, long col) {
+        return (row << 32) | (col & 0xffffffffL);
+    }
+}
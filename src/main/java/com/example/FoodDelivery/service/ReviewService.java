@@ -2,12 +2,14 @@ package com.example.FoodDelivery.service;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.FoodDelivery.domain.Review;
 import com.example.FoodDelivery.domain.User;
@@ -17,15 +19,9 @@ import com.example.FoodDelivery.domain.res.review.ResReviewDTO;
 import com.example.FoodDelivery.repository.ReviewRepository;
 import com.example.FoodDelivery.repository.UserRepository;
 import com.example.FoodDelivery.repository.OrderRepository;
-import com.example.FoodDelivery.repository.RestaurantRepository;
-import com.example.FoodDelivery.repository.DriverProfileRepository;
 import com.example.FoodDelivery.domain.Restaurant;
-import com.example.FoodDelivery.domain.DriverProfile;
 import com.example.FoodDelivery.util.error.IdInvalidException;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-
 import lombok.extern.slf4j.Slf4j;
 
 @Service
@@ -34,22 +30,19 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final UserRepository userRepository;
     private final OrderRepository orderRepository;
-    private final RestaurantRepository restaurantRepository;
-    private final DriverProfileRepository driverProfileRepository;
     private final UserService userService;
     private final UserScoringService userScoringService;
+    private final RatingAggregateService ratingAggregateService;
 
     public ReviewService(ReviewRepository reviewRepository, UserRepository userRepository,
-            OrderRepository orderRepository, RestaurantRepository restaurantRepository,
-            DriverProfileRepository driverProfileRepository, UserService userService,
-            UserScoringService userScoringService) {
+            OrderRepository orderRepository, UserService userService,
+            UserScoringService userScoringService, RatingAggregateService ratingAggregateService) {
         this.reviewRepository = reviewRepository;
         this.userRepository = userRepository;
         this.orderRepository = orderRepository;
-        this.restaurantRepository = restaurantRepository;
-        this.driverProfileRepository = driverProfileRepository;
         this.userService = userService;
         this.userScoringService = userScoringService;
+        this.ratingAggregateService = ratingAggregateService;
     }
 
     private ResReviewDTO convertToDTO(Review review) {
@@ -104,6 +97,7 @@ public class ReviewService {
                 .toList();
     }
 
+    @Transactional(rollbackFor = IdInvalidException.class)
     public ResReviewDTO createReview(Review review) throws IdInvalidException {
         String currentUserEmail = com.example.FoodDelivery.util.SecurityUtil.getCurrentUserLogin()
                 .orElseThrow(() -> new IdInvalidException("User not authenticated"));
@@ -170,71 +164,21 @@ public class ReviewService {
 
         Review savedReview = reviewRepository.save(review);
 
-        // update rating based on review target
-        if (reviewTarget.equals("restaurant")) {
-            updateRestaurantRating(savedReview.getTargetName());
+        // update rating aggregates of the review target
+        ratingAggregateService.addReview(reviewTarget, savedReview.getOrder(), savedReview.getRating());
 
+        if (reviewTarget.equals("restaurant")) {
             // Track user scoring for restaurant rating
             Restaurant restaurant = review.getOrder().getRestaurant();
             userScoringService.trackRating(customer, restaurant, review.getRating());
             log.info("⭐ User {} rated restaurant {} with {} stars", customer.getId(), restaurant.getId(),
                     review.getRating());
-        } else if (reviewTarget.equals("driver")) {
-            updateDriverRating(savedReview.getTargetName());
         }
 
         return convertToDTO(savedReview);
     }
 
-    private void updateRestaurantRating(String restaurantName) {
-        List<Review> reviews = this.reviewRepository.findByReviewTargetAndTargetName("restaurant", restaurantName);
-        if (!reviews.isEmpty()) {
-            double averageRating = reviews.stream()
-                    .mapToInt(Review::getRating)
-                    .average()
-                    .orElse(0.0);
-
-            // Count reviews by star rating
-            int oneStarCount = (int) reviews.stream().filter(r -> r.getRating() == 1).count();
-            int twoStarCount = (int) reviews.stream().filter(r -> r.getRating() == 2).count();
-            int threeStarCount = (int) reviews.stream().filter(r -> r.getRating() == 3).count();
-            int fourStarCount = (int) reviews.stream().filter(r -> r.getRating() == 4).count();
-            int fiveStarCount = (int) reviews.stream().filter(r -> r.getRating() == 5).count();
-
-            Restaurant restaurant = this.restaurantRepository.findByName(restaurantName).orElse(null);
-            if (restaurant != null) {
-                restaurant.setAverageRating(BigDecimal.valueOf(averageRating).setScale(2, RoundingMode.HALF_UP));
-                restaurant.setOneStarCount(oneStarCount);
-                restaurant.setTwoStarCount(twoStarCount);
-                restaurant.setThreeStarCount(threeStarCount);
-                restaurant.setFourStarCount(fourStarCount);
-                restaurant.setFiveStarCount(fiveStarCount);
-                this.restaurantRepository.save(restaurant);
-            }
-        }
-    }
-
-    private void updateDriverRating(String driverName) {
-        List<Review> reviews = this.reviewRepository.findByReviewTargetAndTargetName("driver", driverName);
-        if (!reviews.isEmpty()) {
-            double averageRating = reviews.stream()
-                    .mapToInt(Review::getRating)
-                    .average()
-                    .orElse(0.0);
-
-            // Find driver user by name
-            User driver = this.userRepository.findByName(driverName).orElse(null);
-            if (driver != null) {
-                // Find driver profile by user id
-                DriverProfile driverProfile = this.driverProfileRepository.findByUserId(driver.getId()).orElse(null);
-                if (driverProfile != null) {
-                    driverProfile.setAverageRating(BigDecimal.valueOf(averageRating).setScale(2, RoundingMode.HALF_UP));
-                    this.driverProfileRepository.save(driverProfile);
-                }
-            }
-        }
-    }
-
+    @Transactional(rollbackFor = IdInvalidException.class)
     public ResReviewDTO updateReview(Review review) throws IdInvalidException {
         // check id
         Review currentReview = this.reviewRepository.findById(review.getId()).orElse(null);
@@ -242,7 +186,10 @@ public class ReviewService {
             throw new IdInvalidException("Review not found with id: " + review.getId());
         }
 
-        boolean ratingChanged = false;
+        // contribution to the aggregates before the update
+        String oldReviewTarget = currentReview.getReviewTarget();
+        Order oldOrder = currentReview.getOrder();
+        Integer oldRating = currentReview.getRating();
 
         if (review.getReviewTarget() != null) {
             currentReview.setReviewTarget(review.getReviewTarget());
@@ -251,9 +198,6 @@ public class ReviewService {
             currentReview.setTargetName(review.getTargetName());
         }
         if (review.getRating() != null) {
-            if (!review.getRating().equals(currentReview.getRating())) {
-                ratingChanged = true;
-            }
             if (review.getRating() < 1 || review.getRating() > 5) {
                 throw new IdInvalidException("Rating must be between 1 and 5");
             }
@@ -282,14 +226,14 @@ public class ReviewService {
 
         Review updatedReview = reviewRepository.save(currentReview);
 
-        // update rating if rating changed
-        if (ratingChanged && updatedReview.getReviewTarget() != null && updatedReview.getTargetName() != null) {
-            String reviewTarget = updatedReview.getReviewTarget().toLowerCase();
-            if (reviewTarget.equals("restaurant")) {
-                updateRestaurantRating(updatedReview.getTargetName());
-            } else if (reviewTarget.equals("driver")) {
-                updateDriverRating(updatedReview.getTargetName());
-            }
+        // move the rating between aggregates if rating, target or order changed
+        boolean aggregateChanged = !Objects.equals(oldRating, updatedReview.getRating())
+                || !Objects.equals(oldReviewTarget, updatedReview.getReviewTarget())
+                || oldOrder != updatedReview.getOrder();
+        if (aggregateChanged) {
+            ratingAggregateService.removeReview(oldReviewTarget, oldOrder, oldRating);
+            ratingAggregateService.addReview(updatedReview.getReviewTarget(), updatedReview.getOrder(),
+                    updatedReview.getRating());
         }
 
         return convertToDTO(updatedReview);
@@ -311,25 +255,16 @@ public class ReviewService {
         return result;
     }
 
+    @Transactional(rollbackFor = IdInvalidException.class)
     public void deleteReview(Long id) throws IdInvalidException {
         Review review = this.reviewRepository.findById(id).orElse(null);
         if (review == null) {
             throw new IdInvalidException("Review not found with id: " + id);
         }
 
-        String reviewTarget = review.getReviewTarget();
-        String TargetName = review.getTargetName();
-
         this.reviewRepository.deleteById(id);
 
-        // update rating after delete
-        if (reviewTarget != null && TargetName != null) {
-            String target = reviewTarget.toLowerCase();
-            if (target.equals("restaurant")) {
-                updateRestaurantRating(TargetName);
-            } else if (target.equals("driver")) {
-                updateDriverRating(TargetName);
-            }
-        }
+        // update rating aggregates after delete
+        ratingAggregateService.removeReview(review.getReviewTarget(), review.getOrder(), review.getRating());
     }
 }
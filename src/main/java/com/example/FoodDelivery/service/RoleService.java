@@ -21,10 +21,13 @@ import com.example.FoodDelivery.util.error.IdInvalidException;
 public class RoleService {
     private final RoleRepository roleRepository;
     private final PermissionRepository permissionRepository;
+    private final PermissionMatrixService permissionMatrixService;
 
-    public RoleService(RoleRepository roleRepository, PermissionRepository permissionRepository) {
+    public RoleService(RoleRepository roleRepository, PermissionRepository permissionRepository,
+            PermissionMatrixService permissionMatrixService) {
         this.roleRepository = roleRepository;
         this.permissionRepository = permissionRepository;
+        this.permissionMatrixService = permissionMatrixService;
     }
 
     public boolean existsByName(String name) {
@@ -48,7 +51,9 @@ public class RoleService {
             List<Permission> permissions = this.permissionRepository.findByIdIn(reqRoles);
             role.setPermissions(permissions);
         }
-        return roleRepository.save(role);
+        Role savedRole = roleRepository.save(role);
+        permissionMatrixService.invalidateAll();
+        return savedRole;
     }
 
     public Role updateRole(Role role) throws IdInvalidException {
@@ -77,7 +82,9 @@ public class RoleService {
             currentRole.setPermissions(permissions);
         }
         currentRole.setActive(role.isActive());
-        return roleRepository.save(currentRole);
+        Role savedRole = roleRepository.save(currentRole);
+        permissionMatrixService.invalidateAll();
+        return savedRole;
     }
 
     public ResultPaginationDTO getAllRoles(Specification<Role> spec,
@@ -96,5 +103,6 @@ public class RoleService {
 
     public void deleteRole(Long id) {
         this.roleRepository.deleteById(id);
+        permissionMatrixService.invalidateAll();
     }
 }
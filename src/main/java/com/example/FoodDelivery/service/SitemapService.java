@@ -0,0 +1,326 @@
+package com.example.FoodDelivery.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import com.example.FoodDelivery.repository.DishCategoryRepository;
+import com.example.FoodDelivery.repository.RestaurantRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pre-rendered, gzip-compressed sitemaps.
+ * A sitemap index points to child files of at most 50,000 URLs, rendered by
+ * streaming [id, slug] rows in keyset-paginated chunks. URLs use the configured
+ * app.public-base-url, never the request's Host header, so there is a single
+ * rendered copy kept in memory; restaurant/category changes only mark it stale
+ * and a background refresh re-renders it, so crawler hits are served from memory.
+ */
+@Service
+@Slf4j
+public class SitemapService {
+
+    public static final int MAX_URLS_PER_FILE = 50000;
+
+    private static final int CHUNK_SIZE = 1000;
+    // Re-render even without local changes, to pick up changes made on other nodes
+    private static final Duration MAX_AGE = Duration.ofHours(6);
+
+    private final RestaurantRepository restaurantRepository;
+    private final DishCategoryRepository dishCategoryRepository;
+    private final String baseUrl;
+
+    private volatile Sitemap sitemap;
+    private final AtomicLong version = new AtomicLong();
+    // A lock rather than synchronized so virtual threads are not pinned during the
+    // JDBC reads
+    private final ReentrantLock renderLock = new ReentrantLock();
+
+    public SitemapService(RestaurantRepository restaurantRepository,
+            DishCategoryRepository dishCategoryRepository,
+            @Value("${app.public-base-url}") String baseUrl) {
+        this.restaurantRepository = restaurantRepository;
+        this.dishCategoryRepository = dishCategoryRepository;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    /**
+     * Rendered sitemap
+     * Served from memory (possibly slightly stale); rendered synchronously only
+     * on the first request
+     */
+    public Sitemap getSitemap() {
+        Sitemap current = sitemap;
+        if (current != null) {
+            return current;
+        }
+        renderLock.lock();
+        try {
+            if (sitemap == null) {
+                sitemap = render(null);
+            }
+            return sitemap;
+        } finally {
+            renderLock.unlock();
+        }
+    }
+
+    /**
+     * Mark the rendered sitemap stale after a restaurant or category was created,
+     * renamed or deleted
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Re-render the sitemap in the background once it is stale
+     */
+    @Scheduled(fixedDelay = 60000, initialDelay = 60000) // 1 minute = 60,000 milliseconds
+    public void refreshStale() {
+        Sitemap current = sitemap;
+        if (current == null || (current.getVersion() == version.get()
+                && current.getGeneratedAt().isAfter(Instant.now().minus(MAX_AGE)))) {
+            return;
+        }
+        renderLock.lock();
+        try {
+            Sitemap refreshed = render(current);
+            sitemap = refreshed;
+            log.info("🗺️ Sitemap refreshed: {} URLs in {} files", refreshed.getUrlCount(),
+                    refreshed.getPageCount());
+        } catch (Exception e) {
+            log.error("Failed to refresh sitemap", e);
+        } finally {
+            renderLock.unlock();
+        }
+    }
+
+    private Sitemap render(Sitemap previous) {
+        // Read the version first so changes made while rendering trigger another pass
+        long renderedVersion = version.get();
+        Instant now = Instant.now();
+
+        UrlSetWriter urlSet = new UrlSetWriter();
+        urlSet.add(baseUrl + "/", "daily", "1.0");
+
+        long afterId = 0;
+        List<Object[]> rows;
+        do {
+            rows = restaurantRepository.findSitemapEntries(afterId, PageRequest.of(0, CHUNK_SIZE));
+            for (Object[] row : rows) {
+                afterId = (Long) row[0];
+                urlSet.add(baseUrl + "/restaurant/" + row[1] + "-" + row[0], "weekly", "0.8");
+            }
+        } while (rows.size() == CHUNK_SIZE);
+
+        afterId = 0;
+        do {
+            rows = dishCategoryRepository.findSitemapEntries(afterId, PageRequest.of(0, CHUNK_SIZE));
+            for (Object[] row : rows) {
+                afterId = (Long) row[0];
+                urlSet.add(baseUrl + "/category/" + row[1] + "-" + row[0], "weekly", "0.6");
+            }
+        } while (rows.size() == CHUNK_SIZE);
+
+        List<byte[]> pages = urlSet.finish();
+
+        // Keep Last-Modified of files whose content did not change
+        List<SitemapFile> pageFiles = new ArrayList<>();
+        for (int i = 0; i < pages.size(); i++) {
+            SitemapFile previousFile = previous != null ? previous.getPage(i + 1) : null;
+            pageFiles.add(toFile(pages.get(i), previousFile, now));
+        }
+
+        StringBuilder index = new StringBuilder();
+        index.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        index.append("<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
+        for (int i = 0; i < pageFiles.size(); i++) {
+            index.append("  <sitemap>\n");
+            index.append("    <loc>").append(escape(baseUrl + "/sitemap-" + (i + 1) + ".xml")).append("</loc>\n");
+            index.append("    <lastmod>")
+                    .append(DateTimeFormatter.ISO_OFFSET_DATE_TIME
+                            .format(pageFiles.get(i).getLastModified().atOffset(ZoneOffset.UTC)))
+                    .append("</lastmod>\n");
+            index.append("  </sitemap>\n");
+        }
+        index.append("</sitemapindex>");
+        SitemapFile indexFile = toFile(gzip(index.toString()), previous != null ? previous.getIndex() : null, now);
+
+        return new Sitemap(renderedVersion, now, indexFile, pageFiles, urlSet.getUrlCount());
+    }
+
+    private static SitemapFile toFile(byte[] gzipped, SitemapFile previous, Instant now) {
+        String etag = "\"" + DigestUtils.md5DigestAsHex(gzipped) + "\"";
+        Instant lastModified = previous != null && previous.getEtag().equals(etag) ? previous.getLastModified() : now;
+        return new SitemapFile(gzipped, etag, lastModified);
+    }
+
+    private static byte[] gzip(String content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            writer.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+                .replace("\"", "&quot;").replace("'", "&apos;");
+    }
+
+    /**
+     * Writes &lt;url&gt; entries straight into gzip streams, starting a new file
+     * every MAX_URLS_PER_FILE entries
+     */
+    private static class UrlSetWriter {
+        private final List<byte[]> files = new ArrayList<>();
+        private ByteArrayOutputStream bytes;
+        private Writer writer;
+        private int urlsInFile = 0;
+        private int urlCount = 0;
+
+        void add(String loc, String changefreq, String priority) {
+            try {
+                if (writer == null) {
+                    bytes = new ByteArrayOutputStream();
+                    writer = new OutputStreamWriter(new GZIPOutputStream(bytes, 8192), StandardCharsets.UTF_8);
+                    writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+                    writer.write("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
+                }
+                writer.write("  <url>\n    <loc>");
+                writer.write(escape(loc));
+                writer.write("</loc>\n    <changefreq>");
+                writer.write(changefreq);
+                writer.write("</changefreq>\n    <priority>");
+                writer.write(priority);
+                writer.write("</priority>\n  </url>\n");
+                urlCount++;
+                if (++urlsInFile == MAX_URLS_PER_FILE) {
+                    closeFile();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        List<byte[]> finish() {
+            try {
+                closeFile();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return files;
+        }
+
+        int getUrlCount() {
+            return urlCount;
+        }
+
+        private void closeFile() throws IOException {
+            if (writer == null) {
+                return;
+            }
+            writer.write("</urlset>");
+            writer.close();
+            files.add(bytes.toByteArray());
+            writer = null;
+            bytes = null;
+            urlsInFile = 0;
+        }
+    }
+
+    /**
+     * Index plus child files of one rendering
+     */
+    public static class Sitemap {
+        private final long version;
+        private final Instant generatedAt;
+        private final SitemapFile index;
+        private final List<SitemapFile> pages;
+        private final int urlCount;
+
+        Sitemap(long version, Instant generatedAt, SitemapFile index, List<SitemapFile> pages, int urlCount) {
+            this.version = version;
+            this.generatedAt = generatedAt;
+            this.index = index;
+            this.pages = pages;
+            this.urlCount = urlCount;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public Instant getGeneratedAt() {
+            return generatedAt;
+        }
+
+        public SitemapFile getIndex() {
+            return index;
+        }
+
+        /**
+         * Child file by 1-based page number, or null if out of range
+         */
+        public SitemapFile getPage(int page) {
+            return page >= 1 && page <= pages.size() ? pages.get(page - 1) : null;
+        }
+
+        public int getPageCount() {
+            return pages.size();
+        }
+
+        public int getUrlCount() {
+            return urlCount;
+        }
+    }
+
+    /**
+     * One gzip-compressed sitemap file with its validators
+     */
+    public static class SitemapFile {
+        private final byte[] gzipped;
+        private final String etag;
+        private final Instant lastModified;
+
+        SitemapFile(byte[] gzipped, String etag, Instant lastModified) {
+            this.gzipped = gzipped;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public byte[] getGzipped() {
+            return gzipped;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public Instant getLastModified() {
+            return lastModified;
+        }
+    }
+}
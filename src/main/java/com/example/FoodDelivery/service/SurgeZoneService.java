@@ -0,0 +1,174 @@
+package com.example.FoodDelivery.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+import org.springframework.data.geo.Point;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.FoodDelivery.repository.DriverProfileRepository;
+import com.example.FoodDelivery.repository.OrderRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Background engine that computes the supply/demand multiplier per geographic
+ * zone.
+ * Supply is available drivers positioned in Redis GEO, demand is orders waiting
+ * for a driver at restaurants in the zone. Each zone is compared together with
+ * its 8 neighbours so drivers just across a border still count.
+ * The result is published as an immutable table, so a quote is an O(1) lookup.
+ */
+@Service
+@Slf4j
+public class SurgeZoneService {
+
+    // Zone size in degrees (~5.5 km of latitude)
+    private static final double ZONE_SIZE_DEGREES = 0.05;
+
+    // Supply/demand multiplier range
+    private static final BigDecimal MIN_SUPPLY_MULTIPLIER = BigDecimal.ONE;
+    private static final BigDecimal MAX_SUPPLY_MULTIPLIER = new BigDecimal("2.0");
+
+    // Order statuses that need drivers
+    private static final List<String> PENDING_ORDER_STATUSES = Arrays.asList("CONFIRMED", "PREPARING", "READY");
+
+    private final RedisGeoService redisGeoService;
+    private final DriverProfileRepository driverProfileRepository;
+    private final OrderRepository orderRepository;
+
+    private volatile Map<Long, BigDecimal> zoneMultipliers = Collections.emptyMap();
+
+    public SurgeZoneService(RedisGeoService redisGeoService,
+            DriverProfileRepository driverProfileRepository,
+            OrderRepository orderRepository) {
+        this.redisGeoService = redisGeoService;
+        this.driverProfileRepository = driverProfileRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    /**
+     * Get the supply/demand multiplier for the zone containing a location
+     *
+     * @return Supply/demand multiplier (1.0 to 2.0); 1.0 for zones with no
+     *         waiting orders
+     */
+    public BigDecimal getZoneMultiplier(BigDecimal latitude, BigDecimal longitude) {
+        if (latitude == null || longitude == null) {
+            return MIN_SUPPLY_MULTIPLIER;
+        }
+        BigDecimal multiplier = zoneMultipliers.get(zoneKey(zoneIndex(latitude.doubleValue()),
+                zoneIndex(longitude.doubleValue())));
+        return multiplier != null ? multiplier : MIN_SUPPLY_MULTIPLIER;
+    }
+
+    /**
+     * Recompute the multiplier table from Redis GEO driver positions and waiting
+     * orders
+     * Runs every 30 seconds
+     */
+    @Scheduled(fixedRate = 30000) // 30 seconds = 30,000 milliseconds
+    public void recomputeZoneMultipliers() {
+        try {
+            Map<Long, Point> driverLocations = redisGeoService.getAllDriverLocations();
+            if (driverLocations == null) {
+                log.warn("Driver locations unavailable, keeping previous surge table");
+                return;
+            }
+
+            // Supply: AVAILABLE drivers with a known position, counted per zone
+            Set<Long> availableDriverIds = new HashSet<>(driverProfileRepository.findUserIdsByStatus("AVAILABLE"));
+            Map<Long, Integer> supply = new HashMap<>();
+            driverLocations.forEach((driverId, point) -> {
+                if (availableDriverIds.contains(driverId)) {
+                    supply.merge(zoneKey(zoneIndex(point.getY()), zoneIndex(point.getX())), 1, Integer::sum);
+                }
+            });
+
+            // Demand: orders waiting for a driver, counted per restaurant zone
+            Map<Long, Integer> demand = new HashMap<>();
+            for (Object[] row : orderRepository
+                    .findRestaurantLocationsByOrderStatusInAndDriverIsNull(PENDING_ORDER_STATUSES)) {
+                if (row[0] == null || row[1] == null) {
+                    continue;
+                }
+                double latitude = ((BigDecimal) row[0]).doubleValue();
+                double longitude = ((BigDecimal) row[1]).doubleValue();
+                demand.merge(zoneKey(zoneIndex(latitude), zoneIndex(longitude)), 1, Integer::sum);
+            }
+
+            // Only zones next to waiting orders can surge
+            Map<Long, BigDecimal> multipliers = new HashMap<>();
+            Set<Long> candidateZones = new HashSet<>();
+            for (Long zone : demand.keySet()) {
+                forEachNeighbour(zone, candidateZones::add);
+            }
+            for (Long zone : candidateZones) {
+                int[] counts = new int[2];
+                forEachNeighbour(zone, neighbour -> {
+                    counts[0] += demand.getOrDefault(neighbour, 0);
+                    counts[1] += supply.getOrDefault(neighbour, 0);
+                });
+                BigDecimal multiplier = calculateMultiplier(counts[0], counts[1]);
+                if (multiplier.compareTo(MIN_SUPPLY_MULTIPLIER) > 0) {
+                    multipliers.put(zone, multiplier);
+                }
+            }
+
+            this.zoneMultipliers = Collections.unmodifiableMap(multipliers);
+            log.debug("📊 Recomputed surge table: {} zones with demand, {} zones surging",
+                    demand.size(), multipliers.size());
+        } catch (Exception e) {
+            log.error("Failed to recompute zone surge multipliers, keeping previous table", e);
+        }
+    }
+
+    /**
+     * Formula: ratio = pendingOrders / availableDrivers
+     * - ratio <= 1: multiplier = 1.0 (balanced or oversupply)
+     * - ratio > 1: multiplier = 1.0 + (ratio - 1) * 0.5, capped at 2.0
+     */
+    private BigDecimal calculateMultiplier(int pendingOrders, int availableDrivers) {
+        if (pendingOrders == 0) {
+            return MIN_SUPPLY_MULTIPLIER;
+        }
+        if (availableDrivers == 0) {
+            return MAX_SUPPLY_MULTIPLIER;
+        }
+
+        double ratio = (double) pendingOrders / availableDrivers;
+        if (ratio <= 1.0) {
+            return MIN_SUPPLY_MULTIPLIER;
+        }
+
+        double multiplier = Math.min(1.0 + (ratio - 1.0) * 0.5, MAX_SUPPLY_MULTIPLIER.doubleValue());
+        return new BigDecimal(multiplier).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static void forEachNeighbour(long zone, LongConsumer action) {
+        long row = zone >> 32;
+        long col = (int) zone;
+        for (long dRow = -1; dRow <= 1; dRow++) {
+            for (long dCol = -1; dCol <= 1; dCol++) {
+                action.accept(zoneKey(row + dRow, col + dCol));
+            }
+        }
+    }
+
+    private static long zoneIndex(double degrees) {
+        return (long) Math.floor(degrees / ZONE_SIZE_DEGREES);
+    }
+
+    private static long zoneKey(long row, long col) {
+        return (row << 32) | (col & 0xffffffffL);
+    }
+}
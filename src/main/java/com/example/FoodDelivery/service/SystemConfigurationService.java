@@ -1,11 +1,25 @@
 package com.example.FoodDelivery.service;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Service;
 
 import com.example.FoodDelivery.domain.SystemConfiguration;
@@ -13,12 +27,54 @@ import com.example.FoodDelivery.domain.res.ResultPaginationDTO;
 import com.example.FoodDelivery.repository.SystemConfigurationRepository;
 import com.example.FoodDelivery.util.error.IdInvalidException;
 
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
 @Service
-public class SystemConfigurationService {
+@Slf4j
+public class SystemConfigurationService implements MessageListener {
+    // Other nodes reload their snapshot when a message arrives on this channel
+    private static final String CONFIG_CHANGED_CHANNEL = "config:changed";
+
     private final SystemConfigurationRepository systemConfigurationRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile ConfigSnapshot snapshot;
+    // A lock rather than synchronized so virtual threads are not pinned during the
+    // JDBC load
+    private final ReentrantLock reloadLock = new ReentrantLock();
 
-    public SystemConfigurationService(SystemConfigurationRepository systemConfigurationRepository) {
+    public SystemConfigurationService(SystemConfigurationRepository systemConfigurationRepository,
+            StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer redisMessageListenerContainer) {
         this.systemConfigurationRepository = systemConfigurationRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisMessageListenerContainer = redisMessageListenerContainer;
+    }
+
+    @PostConstruct
+    public void subscribeToConfigChanges() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CONFIG_CHANGED_CHANNEL));
+    }
+
+    /**
+     * Reload once startup initializers (which write through the repository) are
+     * done
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reloadSnapshot();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String senderNodeId = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (!nodeId.equals(senderNodeId)) {
+            log.info("Configuration changed on node {}, reloading snapshot", senderNodeId);
+            reloadSnapshot();
+        }
     }
 
     public boolean existsByConfigKey(String configKey) {
@@ -30,9 +86,46 @@ public class SystemConfigurationService {
         return configOpt.orElse(null);
     }
 
+    /**
+     * Get a configuration from the in-memory snapshot
+     * Returns a copy, so changes by the caller never leak into the shared
+     * snapshot
+     */
     public SystemConfiguration getSystemConfigurationByKey(String configKey) {
-        Optional<SystemConfiguration> configOpt = this.systemConfigurationRepository.findByConfigKey(configKey);
-        return configOpt.orElse(null);
+        SystemConfiguration config = getSnapshot().byKey.get(configKey);
+        return config != null ? copyOf(config) : null;
+    }
+
+    /**
+     * Get a numeric configuration value from the in-memory snapshot
+     * 
+     * @param configKey    Configuration key
+     * @param defaultValue Value returned when the key is missing, empty or not
+     *                     numeric
+     */
+    public BigDecimal getDecimal(String configKey, BigDecimal defaultValue) {
+        BigDecimal value = getSnapshot().decimals.get(configKey);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Get an integer configuration value from the in-memory snapshot
+     * 
+     * @param configKey    Configuration key
+     * @param defaultValue Value returned when the key is missing, empty, not
+     *                     numeric or not a whole number in int range
+     */
+    public int getInteger(String configKey, int defaultValue) {
+        BigDecimal value = getSnapshot().decimals.get(configKey);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return value.intValueExact();
+        } catch (ArithmeticException e) {
+            log.warn("Configuration {} = {} is not an integer, using default {}", configKey, value, defaultValue);
+            return defaultValue;
+        }
     }
 
     public SystemConfiguration createSystemConfiguration(SystemConfiguration systemConfiguration)
@@ -43,7 +136,9 @@ public class SystemConfigurationService {
         }
 
         systemConfiguration.setUpdatedAt(Instant.now());
-        return systemConfigurationRepository.save(systemConfiguration);
+        SystemConfiguration savedConfig = systemConfigurationRepository.save(systemConfiguration);
+        onConfigurationChanged();
+        return savedConfig;
     }
 
     public SystemConfiguration updateSystemConfiguration(SystemConfiguration systemConfiguration)
@@ -73,7 +168,9 @@ public class SystemConfigurationService {
         }
 
         currentConfig.setUpdatedAt(Instant.now());
-        return systemConfigurationRepository.save(currentConfig);
+        SystemConfiguration savedConfig = systemConfigurationRepository.save(currentConfig);
+        onConfigurationChanged();
+        return savedConfig;
     }
 
     public ResultPaginationDTO getAllSystemConfigurations(Specification<SystemConfiguration> spec, Pageable pageable) {
@@ -91,5 +188,81 @@ public class SystemConfigurationService {
 
     public void deleteSystemConfiguration(Long id) {
         this.systemConfigurationRepository.deleteById(id);
+        onConfigurationChanged();
+    }
+
+    /**
+     * Reload the local snapshot and notify other nodes
+     */
+    private void onConfigurationChanged() {
+        reloadSnapshot();
+        try {
+            stringRedisTemplate.convertAndSend(CONFIG_CHANGED_CHANNEL, nodeId);
+        } catch (Exception e) {
+            log.error("Failed to publish configuration change", e);
+        }
+    }
+
+    private ConfigSnapshot getSnapshot() {
+        ConfigSnapshot current = snapshot;
+        if (current == null) {
+            current = reloadSnapshot();
+        }
+        return current;
+    }
+
+    /**
+     * Load all configurations and pre-parse numeric values into an immutable
+     * snapshot
+     */
+    private ConfigSnapshot reloadSnapshot() {
+        reloadLock.lock();
+        try {
+            Map<String, SystemConfiguration> byKey = new HashMap<>();
+            Map<String, BigDecimal> decimals = new HashMap<>();
+
+            for (SystemConfiguration config : systemConfigurationRepository.findAll()) {
+                if (config.getConfigKey() == null) {
+                    continue;
+                }
+                byKey.put(config.getConfigKey(), config);
+                String value = config.getConfigValue();
+                if (value != null && !value.isEmpty()) {
+                    try {
+                        decimals.put(config.getConfigKey(), new BigDecimal(value.trim()));
+                    } catch (NumberFormatException e) {
+                        // Non-numeric configuration (e.g. MAINTENANCE_MODE)
+                    }
+                }
+            }
+
+            ConfigSnapshot reloaded = new ConfigSnapshot(byKey, decimals);
+            this.snapshot = reloaded;
+            log.debug("Loaded {} system configurations into snapshot", byKey.size());
+            return reloaded;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private static SystemConfiguration copyOf(SystemConfiguration config) {
+        return SystemConfiguration.builder()
+                .id(config.getId())
+                .configKey(config.getConfigKey())
+                .configValue(config.getConfigValue())
+                .description(config.getDescription())
+                .lastUpdatedBy(config.getLastUpdatedBy())
+                .updatedAt(config.getUpdatedAt())
+                .build();
+    }
+
+    private static class ConfigSnapshot {
+        private final Map<String, SystemConfiguration> byKey;
+        private final Map<String, BigDecimal> decimals;
+
+        private ConfigSnapshot(Map<String, SystemConfiguration> byKey, Map<String, BigDecimal> decimals) {
+            this.byKey = Collections.unmodifiableMap(byKey);
+            this.decimals = Collections.unmodifiableMap(decimals);
+        }
     }
 }
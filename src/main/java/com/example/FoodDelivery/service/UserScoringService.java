@@ -1,43 +1,76 @@
 package com.example.FoodDelivery.service;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.example.FoodDelivery.domain.Restaurant;
 import com.example.FoodDelivery.domain.RestaurantType;
 import com.example.FoodDelivery.domain.User;
-import com.example.FoodDelivery.domain.UserRestaurantScore;
-import com.example.FoodDelivery.domain.UserTypeScore;
-import com.example.FoodDelivery.repository.UserRestaurantScoreRepository;
-import com.example.FoodDelivery.repository.UserTypeScoreRepository;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service to track user behavior and update scoring for restaurant recommendations
  * Based on scoring rules defined in the business requirements
+ *
+ * Tracking never touches the database on the caller's thread: points are summed
+ * in memory per (user, restaurant) and (user, type) and written on each flush
+ * as batched upserts, so a burst of events from one user becomes one row
+ * update per score. A batch is applied in one transaction; if it fails, rows are
+ * retried one by one so a row that violates a constraint (e.g. a deleted user or
+ * restaurant) is dropped instead of failing every flush.
  */
 @Service
 @Slf4j
 public class UserScoringService {
-    
-    private final UserTypeScoreRepository userTypeScoreRepository;
-    private final UserRestaurantScoreRepository userRestaurantScoreRepository;
 
-    public UserScoringService(
-            UserTypeScoreRepository userTypeScoreRepository,
-            UserRestaurantScoreRepository userRestaurantScoreRepository) {
-        this.userTypeScoreRepository = userTypeScoreRepository;
-        this.userRestaurantScoreRepository = userRestaurantScoreRepository;
+    private static final String UPSERT_RESTAURANT_SCORE_SQL = "INSERT INTO user_restaurant_scores "
+            + "(user_id, restaurant_id, score, last_updated) VALUES (:userId, :targetId, :points, :updatedAt) "
+            + "ON DUPLICATE KEY UPDATE score = score + VALUES(score), last_updated = VALUES(last_updated)";
+    private static final String UPSERT_TYPE_SCORE_SQL = "INSERT INTO user_type_scores "
+            + "(user_id, restaurant_type_id, score, last_updated) VALUES (:userId, :targetId, :points, :updatedAt) "
+            + "ON DUPLICATE KEY UPDATE score = score + VALUES(score), last_updated = VALUES(last_updated)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Unflushed points per score row
+    private final Map<ScoreKey, Integer> pendingRestaurantPoints = new ConcurrentHashMap<>();
+    private final Map<ScoreKey, Integer> pendingTypePoints = new ConcurrentHashMap<>();
+
+    private final Counter flushedCounter;
+    private final Counter failedCounter;
+    private final Counter droppedCounter;
+
+    public UserScoringService(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        meterRegistry.gauge("user.scoring.pending", pendingRestaurantPoints, Map::size);
+        this.flushedCounter = meterRegistry.counter("user.scoring.flushed");
+        this.failedCounter = meterRegistry.counter("user.scoring.failed");
+        this.droppedCounter = meterRegistry.counter("user.scoring.dropped");
     }
 
     /**
      * Update score when user searches for restaurant by name and clicks on it
      * Restaurant Score: +2, Type Score: +2
      */
-    @Transactional
     public void trackSearchRestaurantByNameAndClick(User user, Restaurant restaurant) {
         updateRestaurantScore(user.getId(), restaurant, 2);
         updateTypeScores(user.getId(), restaurant.getRestaurantTypes(), 2);
@@ -48,7 +81,6 @@ public class UserScoringService {
      * Update score when user searches for dish/food type and clicks on restaurant
      * Restaurant Score: 0, Type Score: +2
      */
-    @Transactional
     public void trackSearchDishAndClick(User user, Restaurant restaurant) {
         updateTypeScores(user.getId(), restaurant.getRestaurantTypes(), 2);
         log.info("👤 User {} searched dish and clicked restaurant {}: +2 type points", user.getId(), restaurant.getId());
@@ -58,7 +90,6 @@ public class UserScoringService {
      * Update score when user clicks to view restaurant details (from home/list)
      * Restaurant Score: +1, Type Score: +1
      */
-    @Transactional
     public void trackViewRestaurantDetails(User user, Restaurant restaurant) {
         updateRestaurantScore(user.getId(), restaurant, 1);
         updateTypeScores(user.getId(), restaurant.getRestaurantTypes(), 1);
@@ -69,7 +100,6 @@ public class UserScoringService {
      * Update score when user adds items to cart
      * Restaurant Score: +3, Type Score: +3
      */
-    @Transactional
     public void trackAddToCart(User user, Restaurant restaurant) {
         updateRestaurantScore(user.getId(), restaurant, 3);
         updateTypeScores(user.getId(), restaurant.getRestaurantTypes(), 3);
@@ -80,7 +110,6 @@ public class UserScoringService {
      * Update score when user places an order
      * Restaurant Score: +10, Type Score: +5
      */
-    @Transactional
     public void trackPlaceOrder(User user, Restaurant restaurant) {
         updateRestaurantScore(user.getId(), restaurant, 10);
         updateTypeScores(user.getId(), restaurant.getRestaurantTypes(), 5);
@@ -92,7 +121,6 @@ public class UserScoringService {
      * Update score when user rates 5 stars (Excellent)
      * Restaurant Score: +5, Type Score: +3
      */
-    @Transactional
     public void trackRating5Stars(User user, Restaurant restaurant) {
         updateRestaurantScore(user.getId(), restaurant, 5);
         updateTypeScores(user.getId(), restaurant.getRestaurantTypes(), 3);
@@ -104,7 +132,6 @@ public class UserScoringService {
      * Update score when user rates 4 stars (Good)
      * Restaurant Score: +3, Type Score: +1
      */
-    @Transactional
     public void trackRating4Stars(User user, Restaurant restaurant) {
         updateRestaurantScore(user.getId(), restaurant, 3);
         updateTypeScores(user.getId(), restaurant.getRestaurantTypes(), 1);
@@ -116,7 +143,6 @@ public class UserScoringService {
      * Update score when user rates 3 stars (Average)
      * Restaurant Score: 0, Type Score: 0 (no change)
      */
-    @Transactional
     public void trackRating3Stars(User user, Restaurant restaurant) {
         log.info("⭐⭐⭐ User {} rated restaurant {} 3 stars: no score change", 
                 user.getId(), restaurant.getId());
@@ -127,7 +153,6 @@ public class UserScoringService {
      * Update score when user rates 2 stars (Bad)
      * Restaurant Score: -10, Type Score: 0 (bad restaurant, not bad food type)
      */
-    @Transactional
     public void trackRating2Stars(User user, Restaurant restaurant) {
         updateRestaurantScore(user.getId(), restaurant, -10);
         log.info("⭐⭐ User {} rated restaurant {} 2 stars: -10 restaurant points", 
@@ -138,7 +163,6 @@ public class UserScoringService {
      * Update score when user rates 1 star (Terrible)
      * Restaurant Score: -50, Type Score: 0 (very bad restaurant, not bad food type)
      */
-    @Transactional
     public void trackRating1Star(User user, Restaurant restaurant) {
         updateRestaurantScore(user.getId(), restaurant, -50);
         log.info("⭐ User {} rated restaurant {} 1 star: -50 restaurant points", 
@@ -148,7 +172,6 @@ public class UserScoringService {
     /**
      * Generic method to handle rating based on star count
      */
-    @Transactional
     public void trackRating(User user, Restaurant restaurant, Integer stars) {
         switch (stars) {
             case 5:
@@ -175,45 +198,152 @@ public class UserScoringService {
      * Update restaurant score (loyalty/familiarity)
      */
     private void updateRestaurantScore(Long userId, Restaurant restaurant, int points) {
-        UserRestaurantScore score = userRestaurantScoreRepository
-                .findByUserIdAndRestaurantId(userId, restaurant.getId())
-                .orElseGet(() -> {
-                    UserRestaurantScore newScore = new UserRestaurantScore();
-                    User user = new User();
-                    user.setId(userId);
-                    newScore.setUser(user);
-                    newScore.setRestaurant(restaurant);
-                    newScore.setScore(0);
-                    return newScore;
-                });
-        
-        score.setScore(score.getScore() + points);
-        userRestaurantScoreRepository.save(score);
+        if (userId == null || restaurant == null || restaurant.getId() == null) {
+            return;
+        }
+        pendingRestaurantPoints.merge(new ScoreKey(userId, restaurant.getId()), points, Integer::sum);
     }
 
     /**
      * Update type scores for all restaurant types
      */
     private void updateTypeScores(Long userId, List<RestaurantType> types, int points) {
-        if (types == null || types.isEmpty()) {
+        if (userId == null || types == null || types.isEmpty()) {
             return;
         }
 
         for (RestaurantType type : types) {
-            UserTypeScore score = userTypeScoreRepository
-                    .findByUserIdAndRestaurantTypeId(userId, type.getId())
-                    .orElseGet(() -> {
-                        UserTypeScore newScore = new UserTypeScore();
-                        User user = new User();
-                        user.setId(userId);
-                        newScore.setUser(user);
-                        newScore.setRestaurantType(type);
-                        newScore.setScore(0);
-                        return newScore;
-                    });
-            
-            score.setScore(score.getScore() + points);
-            userTypeScoreRepository.save(score);
+            if (type.getId() == null) {
+                continue;
+            }
+            pendingTypePoints.merge(new ScoreKey(userId, type.getId()), points, Integer::sum);
+        }
+    }
+
+    /**
+     * Write the points summed since the last flush as batched upserts
+     * Rows are written in key order so concurrent flushes from several nodes lock
+     * rows in the same order
+     */
+    @Scheduled(fixedDelayString = "${user.scoring.flush-interval-ms:5000}")
+    public void flush() {
+        flush(pendingRestaurantPoints, UPSERT_RESTAURANT_SCORE_SQL);
+        flush(pendingTypePoints, UPSERT_TYPE_SCORE_SQL);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void flush(Map<ScoreKey, Integer> pending, String sql) {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<ScoreKey, Integer> batch = new TreeMap<>();
+        for (ScoreKey key : pending.keySet()) {
+            Integer delta = pending.remove(key);
+            if (delta != null && delta != 0) {
+                batch.put(key, delta);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Timestamp updatedAt = Timestamp.from(Instant.now());
+        MapSqlParameterSource[] rows = new MapSqlParameterSource[batch.size()];
+        int i = 0;
+        for (Map.Entry<ScoreKey, Integer> entry : batch.entrySet()) {
+            rows[i++] = toRow(entry.getKey(), entry.getValue(), updatedAt);
+        }
+
+        try {
+            // All or nothing, so re-applying the batch later cannot double-count rows
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, rows));
+            flushedCounter.increment(rows.length);
+            log.debug("💾 Flushed {} user score updates", rows.length);
+        } catch (Exception e) {
+            log.warn("Batch flush of {} user score updates failed, retrying row by row: {}", rows.length,
+                    e.getMessage());
+            flushRowByRow(pending, sql, batch, updatedAt);
+        }
+    }
+
+    /**
+     * Upsert each row on its own (one statement, so atomic)
+     * Rows that violate a constraint are dropped; rows that fail otherwise are
+     * kept for the next flush
+     */
+    private void flushRowByRow(Map<ScoreKey, Integer> pending, String sql, Map<ScoreKey, Integer> batch,
+            Timestamp updatedAt) {
+        int flushed = 0;
+        int dropped = 0;
+        int failed = 0;
+        for (Map.Entry<ScoreKey, Integer> entry : batch.entrySet()) {
+            ScoreKey key = entry.getKey();
+            try {
+                jdbcTemplate.update(sql, toRow(key, entry.getValue(), updatedAt));
+                flushed++;
+            } catch (DataIntegrityViolationException e) {
+                dropped++;
+                log.warn("Dropping user score update for user {} / target {}: {}", key.userId, key.targetId,
+                        e.getMessage());
+            } catch (Exception e) {
+                failed++;
+                pending.merge(key, entry.getValue(), Integer::sum);
+            }
+        }
+        flushedCounter.increment(flushed);
+        droppedCounter.increment(dropped);
+        failedCounter.increment(failed);
+        if (failed > 0) {
+            log.error("Failed to flush {} user score updates, retrying next interval", failed);
+        }
+    }
+
+    private static MapSqlParameterSource toRow(ScoreKey key, int points, Timestamp updatedAt) {
+        return new MapSqlParameterSource()
+                .addValue("userId", key.userId)
+                .addValue("targetId", key.targetId)
+                .addValue("points", points)
+                .addValue("updatedAt", updatedAt);
+    }
+
+    /**
+     * (user, restaurant) or (user, restaurant type) score row
+     */
+    private static final class ScoreKey implements Comparable<ScoreKey> {
+        private final Long userId;
+        private final Long targetId;
+
+        private ScoreKey(Long userId, Long targetId) {
+            this.userId = userId;
+            this.targetId = targetId;
+        }
+
+        @Override
+        public int compareTo(ScoreKey other) {
+            int byUser = userId.compareTo(other.userId);
+            return byUser != 0 ? byUser : targetId.compareTo(other.targetId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ScoreKey)) {
+                return false;
+            }
+            ScoreKey other = (ScoreKey) o;
+            return userId.equals(other.userId) && targetId.equals(other.targetId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * userId.hashCode() + targetId.hashCode();
         }
     }
 }
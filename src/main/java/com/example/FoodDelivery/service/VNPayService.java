@@ -31,6 +31,7 @@ public class VNPayService {
     private final WalletTransactionService walletTransactionService;
     private final UserService userService;
     private final OrderRepository orderRepository;
+    private final OrderChatParticipantService orderChatParticipantService;
 
     @Value("${vnpay.tmn_code:CTTVNP01}")
     private String vnp_TmnCode;
@@ -45,11 +46,13 @@ public class VNPayService {
             WalletService walletService,
             WalletTransactionService walletTransactionService,
             UserService userService,
-            OrderRepository orderRepository) {
+            OrderRepository orderRepository,
+            OrderChatParticipantService orderChatParticipantService) {
         this.walletService = walletService;
         this.walletTransactionService = walletTransactionService;
         this.userService = userService;
         this.orderRepository = orderRepository;
+        this.orderChatParticipantService = orderChatParticipantService;
     }
 
     /**
@@ -307,7 +310,6 @@ public class VNPayService {
                             .order(order)
                             .transactionType("VNPAY_RECEIVED")
                             .amount(amount)
-                            .balanceAfter(adminWallet.getBalance().add(amount))
                             .description("VNPAY payment received from order #" + vnp_TxnRef + ", Transaction: "
                                     + vnp_TransactionNo)
                             .status("SUCCESS")
@@ -321,6 +323,7 @@ public class VNPayService {
             result.put("message", "Payment successful");
         } else {
             orderRepository.deleteById(Long.valueOf(vnp_TxnRef));
+            orderChatParticipantService.evict(Long.valueOf(vnp_TxnRef));
             result.put("message", "Payment failed with code: " + vnp_ResponseCode);
         }
 
@@ -423,7 +426,6 @@ public class VNPayService {
                     .wallet(userWallet)
                     .transactionType("DEPOSIT_VNPAY")
                     .amount(amount)
-                    .balanceAfter(userWallet.getBalance().add(amount))
                     .description("Nap tien qua VNPAY - Transaction: " + vnp_TransactionNo)
                     .status("SUCCESS")
                     .transactionDate(Instant.now())
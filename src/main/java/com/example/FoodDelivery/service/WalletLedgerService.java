@@ -0,0 +1,194 @@
+package com.example.FoodDelivery.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.FoodDelivery.domain.Wallet;
+import com.example.FoodDelivery.domain.WalletBalanceSnapshot;
+import com.example.FoodDelivery.domain.WalletTransaction;
+import com.example.FoodDelivery.domain.res.wallet.ResWalletReconciliationDTO;
+import com.example.FoodDelivery.repository.WalletBalanceSnapshotRepository;
+import com.example.FoodDelivery.repository.WalletRepository;
+import com.example.FoodDelivery.repository.WalletTransactionRepository;
+import com.example.FoodDelivery.util.error.IdInvalidException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only wallet ledger: every applied transaction carries a per-wallet
+ * sequence number, and a balance snapshot is written every
+ * wallet.ledger.snapshot-interval entries. Balance-at-time and reconciliation
+ * read the nearest snapshot plus the entries after it instead of the whole
+ * history.
+ */
+@Service
+@Slf4j
+public class WalletLedgerService {
+
+    private final WalletRepository walletRepository;
+    private final WalletTransactionRepository walletTransactionRepository;
+    private final WalletBalanceSnapshotRepository walletBalanceSnapshotRepository;
+    // Read-only transaction per wallet for the scheduled reconciliation
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${wallet.ledger.snapshot-interval:100}")
+    private long snapshotInterval;
+
+    public WalletLedgerService(WalletRepository walletRepository,
+            WalletTransactionRepository walletTransactionRepository,
+            WalletBalanceSnapshotRepository walletBalanceSnapshotRepository,
+            PlatformTransactionManager transactionManager) {
+        this.walletRepository = walletRepository;
+        this.walletTransactionRepository = walletTransactionRepository;
+        this.walletBalanceSnapshotRepository = walletBalanceSnapshotRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Write the snapshots due after a ledger entry was inserted
+     * Runs in the transaction that applied the entry: the first entry of a wallet
+     * also records its opening balance as sequence 0
+     */
+    @Transactional
+    public void onEntryAppended(WalletTransaction entry) {
+        Long sequenceNumber = entry.getSequenceNumber();
+        if (sequenceNumber == null) {
+            return;
+        }
+        if (sequenceNumber == 1) {
+            saveSnapshot(entry.getWallet(), 0L, entry.getBalanceAfter().subtract(entry.getAmount()),
+                    entry.getCreatedAt());
+        }
+        if (sequenceNumber % snapshotInterval == 0) {
+            saveSnapshot(entry.getWallet(), sequenceNumber, entry.getBalanceAfter(), entry.getCreatedAt());
+        }
+    }
+
+    /**
+     * Balance of a wallet at a point in time
+     * Reads the nearest earlier snapshot and sums the entries up to the next one
+     *
+     * @throws IdInvalidException if the wallet does not exist or its ledger starts
+     *                            after the requested time
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getBalanceAt(Long walletId, Instant at) throws IdInvalidException {
+        if (!walletRepository.existsById(walletId)) {
+            throw new IdInvalidException("Wallet not found with id: " + walletId);
+        }
+
+        WalletBalanceSnapshot snapshot = walletBalanceSnapshotRepository
+                .findFirstByWalletIdAndSnapshotAtLessThanEqualOrderBySequenceNumberDesc(walletId, at)
+                .orElseThrow(() -> new IdInvalidException(
+                        "No ledger history for wallet " + walletId + " at " + at));
+
+        Long upToSequence = walletBalanceSnapshotRepository
+                .findFirstByWalletIdAndSequenceNumberGreaterThanOrderBySequenceNumberAsc(walletId,
+                        snapshot.getSequenceNumber())
+                .map(WalletBalanceSnapshot::getSequenceNumber)
+                .orElse(Long.MAX_VALUE);
+
+        BigDecimal tail = walletTransactionRepository.sumLedgerAmounts(walletId, snapshot.getSequenceNumber(),
+                upToSequence, at);
+        return tail != null ? snapshot.getBalance().add(tail) : snapshot.getBalance();
+    }
+
+    /**
+     * Verify Wallet.balance against the ledger, starting from the latest snapshot
+     * Consistent when the snapshot plus later entries equals the balance and the
+     * entries after the snapshot have no sequence gaps
+     */
+    @Transactional(readOnly = true)
+    public ResWalletReconciliationDTO reconcile(Long walletId) throws IdInvalidException {
+        Wallet wallet = walletRepository.findById(walletId)
+                .orElseThrow(() -> new IdInvalidException("Wallet not found with id: " + walletId));
+        return reconcile(wallet);
+    }
+
+    private ResWalletReconciliationDTO reconcile(Wallet wallet) {
+        Long walletId = wallet.getId();
+        ResWalletReconciliationDTO result = new ResWalletReconciliationDTO();
+        result.setWalletId(walletId);
+        result.setWalletBalance(wallet.getBalance());
+        result.setWalletSequenceNumber(wallet.getLastSequenceNumber());
+
+        Optional<WalletBalanceSnapshot> latest = walletBalanceSnapshotRepository
+                .findFirstByWalletIdOrderBySequenceNumberDesc(walletId);
+        if (latest.isEmpty()) {
+            // No ledger entries yet: nothing to verify against
+            result.setConsistent(wallet.getLastSequenceNumber() == null);
+            return result;
+        }
+
+        WalletBalanceSnapshot snapshot = latest.get();
+        Object[] summary = walletTransactionRepository
+                .summarizeLedgerAfter(walletId, snapshot.getSequenceNumber()).get(0);
+        long entries = ((Number) summary[0]).longValue();
+        BigDecimal tail = summary[1] != null ? new BigDecimal(summary[1].toString()) : BigDecimal.ZERO;
+        long ledgerSequence = summary[2] != null ? ((Number) summary[2]).longValue()
+                : snapshot.getSequenceNumber();
+        BigDecimal ledgerBalance = snapshot.getBalance().add(tail);
+
+        result.setLedgerBalance(ledgerBalance);
+        result.setLedgerSequenceNumber(ledgerSequence);
+        result.setSnapshotSequenceNumber(snapshot.getSequenceNumber());
+        result.setEntriesChecked(entries);
+        result.setConsistent(wallet.getBalance() != null
+                && ledgerBalance.compareTo(wallet.getBalance()) == 0
+                && entries == ledgerSequence - snapshot.getSequenceNumber()
+                && Objects.equals(wallet.getLastSequenceNumber(), ledgerSequence));
+        return result;
+    }
+
+    /**
+     * Reconcile every wallet that has a ledger
+     * Runs daily at 03:30; mismatches are logged for investigation. Each wallet
+     * is read in its own read-only transaction, so balance and ledger come from
+     * one consistent view.
+     */
+    @Scheduled(cron = "0 30 3 * * *")
+    public void reconcileAll() {
+        List<Long> walletIds = walletRepository.findIdsWithLedger();
+        int mismatches = 0;
+        for (Long walletId : walletIds) {
+            try {
+                ResWalletReconciliationDTO result = readOnlyTransaction.execute(status -> walletRepository
+                        .findById(walletId)
+                        .map(this::reconcile)
+                        .orElse(null));
+                if (result != null && !result.isConsistent()) {
+                    mismatches++;
+                    log.warn("⚠️ Wallet {} does not match its ledger: balance={} (seq {}), ledger={} (seq {})",
+                            walletId, result.getWalletBalance(), result.getWalletSequenceNumber(),
+                            result.getLedgerBalance(), result.getLedgerSequenceNumber());
+                }
+            } catch (Exception e) {
+                log.error("Failed to reconcile wallet {}", walletId, e);
+            }
+        }
+        log.info("🧾 Reconciled {} wallets against the ledger, {} mismatches", walletIds.size(), mismatches);
+    }
+
+    private void saveSnapshot(Wallet wallet, Long sequenceNumber, BigDecimal balance, Instant snapshotAt) {
+        WalletBalanceSnapshot snapshot = WalletBalanceSnapshot.builder()
+                .wallet(wallet)
+                .sequenceNumber(sequenceNumber)
+                .balance(balance)
+                .snapshotAt(snapshotAt != null ? snapshotAt : Instant.now())
+                .createdAt(Instant.now())
+                .build();
+        walletBalanceSnapshotRepository.save(snapshot);
+        log.debug("📸 Wallet {} snapshot at sequence {}: {}", wallet.getId(), sequenceNumber, balance);
+    }
+}
@@ -17,14 +17,19 @@ import com.example.FoodDelivery.domain.res.wallet.resWalletDTO;
 import com.example.FoodDelivery.repository.WalletRepository;
 import com.example.FoodDelivery.util.error.IdInvalidException;
 
+import jakarta.persistence.EntityManager;
+
 @Service
 public class WalletService {
     private final WalletRepository walletRepository;
     private final UserService userService;
+    private final EntityManager entityManager;
 
-    public WalletService(WalletRepository walletRepository, @Lazy UserService userService) {
+    public WalletService(WalletRepository walletRepository, @Lazy UserService userService,
+            EntityManager entityManager) {
         this.walletRepository = walletRepository;
         this.userService = userService;
+        this.entityManager = entityManager;
     }
 
     private resWalletDTO convertToDTO(Wallet wallet) {
@@ -87,6 +92,15 @@ public class WalletService {
 
     @Transactional
     public Wallet createWalletForUser(User user) {
+        return createWalletForUser(user, BigDecimal.ZERO);
+    }
+
+    /**
+     * Create a wallet with an opening balance (the balance before its first
+     * ledger entry); returns the existing wallet unchanged if there is one
+     */
+    @Transactional
+    public Wallet createWalletForUser(User user, BigDecimal openingBalance) {
         // check if wallet already exists
         if (this.existsByUserId(user.getId())) {
             return this.getWalletByUserId(user.getId());
@@ -94,7 +108,7 @@ public class WalletService {
 
         Wallet wallet = Wallet.builder()
                 .user(user)
-                .balance(BigDecimal.ZERO)
+                .balance(openingBalance)
                 .build();
 
         return walletRepository.save(wallet);
@@ -108,46 +122,61 @@ public class WalletService {
             throw new IdInvalidException("Wallet not found with id: " + wallet.getId());
         }
 
-        // update balance
-        if (wallet.getBalance() != null) {
-            currentWallet.setBalance(wallet.getBalance());
+        // The balance only changes through ledger entries (add-balance,
+        // subtract-balance, wallet transactions)
+        if (wallet.getBalance() != null && wallet.getBalance().compareTo(currentWallet.getBalance()) != 0) {
+            throw new IdInvalidException(
+                    "Wallet balance cannot be set directly; use add-balance or subtract-balance");
         }
 
-        return walletRepository.save(currentWallet);
+        return currentWallet;
     }
 
     @Transactional
     public Wallet addBalance(Long walletId, BigDecimal amount) throws IdInvalidException {
-        Wallet wallet = getWalletById(walletId);
-        if (wallet == null) {
-            throw new IdInvalidException("Wallet not found with id: " + walletId);
-        }
-
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IdInvalidException("Amount must be greater than 0");
         }
-
-        wallet.setBalance(wallet.getBalance().add(amount));
-        return walletRepository.save(wallet);
+        return applyBalanceChange(walletId, amount);
     }
 
     @Transactional
     public Wallet subtractBalance(Long walletId, BigDecimal amount) throws IdInvalidException {
-        Wallet wallet = getWalletById(walletId);
-        if (wallet == null) {
-            throw new IdInvalidException("Wallet not found with id: " + walletId);
-        }
-
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IdInvalidException("Amount must be greater than 0");
         }
+        return applyBalanceChange(walletId, amount.negate());
+    }
 
-        if (wallet.getBalance().compareTo(amount) < 0) {
+    /**
+     * Apply a signed amount to a wallet balance with a single conditional UPDATE
+     * The balance is never read first, so concurrent settlements on the same
+     * wallet cannot lose updates; a debit fails if it would make the balance
+     * negative. The row lock taken by the UPDATE is held until the surrounding
+     * transaction commits, so the returned balance is exactly this change's
+     * result.
+     *
+     * @param walletId Wallet ID
+     * @param amount   Positive to credit, negative to debit
+     * @return the wallet with its balance after the change
+     */
+    @Transactional
+    public Wallet applyBalanceChange(Long walletId, BigDecimal amount) throws IdInvalidException {
+        int updated = amount.signum() < 0
+                ? walletRepository.debitBalance(walletId, amount.negate())
+                : walletRepository.creditBalance(walletId, amount);
+
+        if (updated == 0) {
+            if (!walletRepository.existsById(walletId)) {
+                throw new IdInvalidException("Wallet not found with id: " + walletId);
+            }
             throw new IdInvalidException("Insufficient balance");
         }
 
-        wallet.setBalance(wallet.getBalance().subtract(amount));
-        return walletRepository.save(wallet);
+        // Bulk updates bypass the persistence context; reload the managed instance
+        Wallet wallet = getWalletById(walletId);
+        entityManager.refresh(wallet);
+        return wallet;
     }
 
     public ResultPaginationDTO getAllWallets(Specification<Wallet> spec, Pageable pageable) {
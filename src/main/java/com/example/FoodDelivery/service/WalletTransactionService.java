@@ -8,7 +8,9 @@ import java.util.stream.Collectors;
 
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,6 +19,7 @@ import com.example.FoodDelivery.domain.Order;
 import com.example.FoodDelivery.domain.Wallet;
 import com.example.FoodDelivery.domain.WalletTransaction;
 import com.example.FoodDelivery.domain.res.ResultPaginationDTO;
+import com.example.FoodDelivery.domain.res.wallet.ResWalletStatementDTO;
 import com.example.FoodDelivery.domain.res.walletTransaction.resWalletTransactionDTO;
 import com.example.FoodDelivery.repository.WalletTransactionRepository;
 import com.example.FoodDelivery.util.error.IdInvalidException;
@@ -26,13 +29,16 @@ public class WalletTransactionService {
     private final WalletTransactionRepository walletTransactionRepository;
     private final WalletService walletService;
     private final OrderService orderService;
+    private final WalletLedgerService walletLedgerService;
 
     public WalletTransactionService(WalletTransactionRepository walletTransactionRepository,
             WalletService walletService,
-            @Lazy OrderService orderService) {
+            @Lazy OrderService orderService,
+            WalletLedgerService walletLedgerService) {
         this.walletTransactionRepository = walletTransactionRepository;
         this.walletService = walletService;
         this.orderService = orderService;
+        this.walletLedgerService = walletLedgerService;
     }
 
     private resWalletTransactionDTO convertToDTO(WalletTransaction transaction) {
@@ -68,6 +74,7 @@ public class WalletTransactionService {
         dto.setDescription(transaction.getDescription());
         dto.setStatus(transaction.getStatus());
         dto.setBalanceAfter(transaction.getBalanceAfter());
+        dto.setSequenceNumber(transaction.getSequenceNumber());
         dto.setCreatedAt(transaction.getCreatedAt());
         dto.setTransactionDate(transaction.getTransactionDate());
         return dto;
@@ -138,14 +145,16 @@ public class WalletTransactionService {
         }
         walletTransaction.setCreatedAt(Instant.now());
 
-        // save transaction
-        WalletTransaction savedTransaction = walletTransactionRepository.save(walletTransaction);
-
-        // update wallet balance if transaction is successful
+        // update wallet balance first if transaction is successful, so the row
+        // records the balance this change actually produced
         if ("SUCCESS".equals(walletTransaction.getStatus())) {
             updateWalletBalance(walletTransaction);
         }
 
+        // save transaction
+        WalletTransaction savedTransaction = walletTransactionRepository.save(walletTransaction);
+        walletLedgerService.onEntryAppended(savedTransaction);
+
         return convertToDTO(savedTransaction);
     }
 
@@ -160,6 +169,12 @@ public class WalletTransactionService {
             throw new IdInvalidException("Wallet transaction not found with id: " + walletTransaction.getId());
         }
 
+        // Applied ledger entries are append-only; corrections are new transactions
+        if (currentTransaction.getSequenceNumber() != null) {
+            throw new IdInvalidException("Wallet transaction " + walletTransaction.getId()
+                    + " is already applied to the ledger and cannot be modified");
+        }
+
         String oldStatus = currentTransaction.getStatus();
 
         // update fields
@@ -170,27 +185,22 @@ public class WalletTransactionService {
             currentTransaction.setDescription(walletTransaction.getDescription());
         }
 
-        WalletTransaction updatedTransaction = walletTransactionRepository.save(currentTransaction);
-
         // update wallet balance if status changed to SUCCESS
         if (!"SUCCESS".equals(oldStatus) && "SUCCESS".equals(walletTransaction.getStatus())) {
             updateWalletBalance(currentTransaction);
         }
 
+        WalletTransaction updatedTransaction = walletTransactionRepository.save(currentTransaction);
+        walletLedgerService.onEntryAppended(updatedTransaction);
+
         return convertToDTO(updatedTransaction);
     }
 
     @Transactional
     public resWalletTransactionDTO depositToWallet(Long walletId, BigDecimal amount, String description)
             throws IdInvalidException {
-        Wallet wallet = this.walletService.getWalletById(walletId);
-        if (wallet == null) {
-            throw new IdInvalidException("Wallet not found with id: " + walletId);
-        }
-
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IdInvalidException("Amount must be greater than 0");
-        }
+        // update wallet balance (atomic; fails if the wallet does not exist)
+        Wallet wallet = walletService.addBalance(walletId, amount);
 
         WalletTransaction transaction = WalletTransaction.builder()
                 .wallet(wallet)
@@ -198,14 +208,14 @@ public class WalletTransactionService {
                 .transactionType("DEPOSIT")
                 .description(description != null ? description : "Deposit to wallet")
                 .status("SUCCESS")
+                .balanceAfter(wallet.getBalance())
+                .sequenceNumber(wallet.getLastSequenceNumber())
                 .createdAt(Instant.now())
                 .build();
 
         // save transaction
         WalletTransaction savedTransaction = walletTransactionRepository.save(transaction);
-
-        // update wallet balance
-        walletService.addBalance(walletId, amount);
+        walletLedgerService.onEntryAppended(savedTransaction);
 
         return convertToDTO(savedTransaction);
     }
@@ -213,18 +223,8 @@ public class WalletTransactionService {
     @Transactional
     public resWalletTransactionDTO withdrawFromWallet(Long walletId, BigDecimal amount, String description)
             throws IdInvalidException {
-        Wallet wallet = this.walletService.getWalletById(walletId);
-        if (wallet == null) {
-            throw new IdInvalidException("Wallet not found with id: " + walletId);
-        }
-
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IdInvalidException("Amount must be greater than 0");
-        }
-
-        if (wallet.getBalance().compareTo(amount) < 0) {
-            throw new IdInvalidException("Insufficient balance");
-        }
+        // update wallet balance (atomic; fails on insufficient balance)
+        Wallet wallet = walletService.subtractBalance(walletId, amount);
 
         WalletTransaction transaction = WalletTransaction.builder()
                 .wallet(wallet)
@@ -232,14 +232,14 @@ public class WalletTransactionService {
                 .transactionType("WITHDRAWAL")
                 .description(description != null ? description : "Withdrawal from wallet")
                 .status("SUCCESS")
+                .balanceAfter(wallet.getBalance())
+                .sequenceNumber(wallet.getLastSequenceNumber())
                 .createdAt(Instant.now())
                 .build();
 
         // save transaction
         WalletTransaction savedTransaction = walletTransactionRepository.save(transaction);
-
-        // update wallet balance
-        walletService.subtractBalance(walletId, amount);
+        walletLedgerService.onEntryAppended(savedTransaction);
 
         return convertToDTO(savedTransaction);
     }
@@ -247,23 +247,13 @@ public class WalletTransactionService {
     @Transactional
     public resWalletTransactionDTO paymentForOrder(Long walletId, Long orderId, BigDecimal amount)
             throws IdInvalidException {
-        Wallet wallet = this.walletService.getWalletById(walletId);
-        if (wallet == null) {
-            throw new IdInvalidException("Wallet not found with id: " + walletId);
-        }
-
         Order order = this.orderService.getOrderById(orderId);
         if (order == null) {
             throw new IdInvalidException("Order not found with id: " + orderId);
         }
 
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IdInvalidException("Amount must be greater than 0");
-        }
-
-        if (wallet.getBalance().compareTo(amount) < 0) {
-            throw new IdInvalidException("Insufficient balance");
-        }
+        // update wallet balance (atomic; fails on insufficient balance)
+        Wallet wallet = walletService.subtractBalance(walletId, amount);
 
         WalletTransaction transaction = WalletTransaction.builder()
                 .wallet(wallet)
@@ -272,14 +262,14 @@ public class WalletTransactionService {
                 .transactionType("PAYMENT")
                 .description("Payment for order #" + orderId)
                 .status("SUCCESS")
+                .balanceAfter(wallet.getBalance())
+                .sequenceNumber(wallet.getLastSequenceNumber())
                 .createdAt(Instant.now())
                 .build();
 
         // save transaction
         WalletTransaction savedTransaction = walletTransactionRepository.save(transaction);
-
-        // update wallet balance
-        walletService.subtractBalance(walletId, amount);
+        walletLedgerService.onEntryAppended(savedTransaction);
 
         return convertToDTO(savedTransaction);
     }
@@ -287,19 +277,13 @@ public class WalletTransactionService {
     @Transactional
     public resWalletTransactionDTO refundForOrder(Long walletId, Long orderId, BigDecimal amount)
             throws IdInvalidException {
-        Wallet wallet = this.walletService.getWalletById(walletId);
-        if (wallet == null) {
-            throw new IdInvalidException("Wallet not found with id: " + walletId);
-        }
-
         Order order = this.orderService.getOrderById(orderId);
         if (order == null) {
             throw new IdInvalidException("Order not found with id: " + orderId);
         }
 
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IdInvalidException("Amount must be greater than 0");
-        }
+        // update wallet balance (atomic; fails if the wallet does not exist)
+        Wallet wallet = walletService.addBalance(walletId, amount);
 
         WalletTransaction transaction = WalletTransaction.builder()
                 .wallet(wallet)
@@ -308,29 +292,27 @@ public class WalletTransactionService {
                 .transactionType("REFUND")
                 .description("Refund for order #" + orderId)
                 .status("SUCCESS")
+                .balanceAfter(wallet.getBalance())
+                .sequenceNumber(wallet.getLastSequenceNumber())
                 .createdAt(Instant.now())
                 .build();
 
         // save transaction
         WalletTransaction savedTransaction = walletTransactionRepository.save(transaction);
-
-        // update wallet balance
-        walletService.addBalance(walletId, amount);
+        walletLedgerService.onEntryAppended(savedTransaction);
 
         return convertToDTO(savedTransaction);
     }
 
+    /**
+     * Apply the transaction amount to its wallet atomically and record the
+     * resulting balance on the transaction
+     */
     private void updateWalletBalance(WalletTransaction transaction) throws IdInvalidException {
-        Wallet wallet = transaction.getWallet();
-        BigDecimal amount = transaction.getAmount();
-
-        if (amount.compareTo(BigDecimal.ZERO) > 0) {
-            // positive amount - add to balance
-            walletService.addBalance(wallet.getId(), amount);
-        } else if (amount.compareTo(BigDecimal.ZERO) < 0) {
-            // negative amount - subtract from balance
-            walletService.subtractBalance(wallet.getId(), amount.negate());
-        }
+        Wallet wallet = walletService.applyBalanceChange(transaction.getWallet().getId(), transaction.getAmount());
+        transaction.setWallet(wallet);
+        transaction.setBalanceAfter(wallet.getBalance());
+        transaction.setSequenceNumber(wallet.getLastSequenceNumber());
     }
 
     public ResultPaginationDTO getWalletTransactionsByWalletIdWithSpec(Long walletId,
@@ -378,7 +360,52 @@ public class WalletTransactionService {
         return result;
     }
 
-    public void deleteWalletTransaction(Long id) {
+    /**
+     * Wallet statement: ledger entries in a time range in sequence order, with
+     * the balance at the start and end of the range
+     */
+    @Transactional(readOnly = true)
+    public ResWalletStatementDTO getWalletStatement(Long walletId, Instant from, Instant to, Pageable pageable)
+            throws IdInvalidException {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IdInvalidException("A valid time range is required");
+        }
+
+        ResWalletStatementDTO statement = new ResWalletStatementDTO();
+        statement.setWalletId(walletId);
+        statement.setFrom(from);
+        statement.setTo(to);
+        try {
+            statement.setOpeningBalance(walletLedgerService.getBalanceAt(walletId, from));
+        } catch (IdInvalidException e) {
+            // Range starts before the wallet's ledger history
+            statement.setOpeningBalance(null);
+        }
+        statement.setClosingBalance(walletLedgerService.getBalanceAt(walletId, to));
+
+        Pageable bySequence = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                Sort.by("sequenceNumber"));
+        Page<WalletTransaction> page = walletTransactionRepository
+                .findByWalletIdAndSequenceNumberIsNotNullAndCreatedAtBetween(walletId, from, to, bySequence);
+
+        ResultPaginationDTO result = new ResultPaginationDTO();
+        ResultPaginationDTO.Meta meta = new ResultPaginationDTO.Meta();
+        meta.setPage(pageable.getPageNumber() + 1);
+        meta.setPageSize(pageable.getPageSize());
+        meta.setTotal(page.getTotalElements());
+        meta.setPages(page.getTotalPages());
+        result.setMeta(meta);
+        result.setResult(page.getContent().stream().map(this::convertToDTO).collect(Collectors.toList()));
+        statement.setTransactions(result);
+        return statement;
+    }
+
+    public void deleteWalletTransaction(Long id) throws IdInvalidException {
+        WalletTransaction transaction = this.walletTransactionRepository.findById(id).orElse(null);
+        if (transaction != null && transaction.getSequenceNumber() != null) {
+            throw new IdInvalidException("Wallet transaction " + id
+                    + " is already applied to the ledger and cannot be deleted");
+        }
         this.walletTransactionRepository.deleteById(id);
     }
 }
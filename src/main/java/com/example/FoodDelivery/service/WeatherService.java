@@ -1,28 +1,49 @@
 package com.example.FoodDelivery.service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import com.example.FoodDelivery.util.ProviderCallGuard;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Service to fetch weather data from OpenWeatherMap API with Redis caching.
  * Used for dynamic pricing - delivery fees increase during bad weather.
+ * Expired entries are served stale while a single background refresh per cache
+ * key fetches new data; a cell with no data at all returns null at once and is
+ * warmed in the background, so quotes never wait on the weather API.
  */
 @Service
 @Slf4j
 public class WeatherService {
 
     private static final String CACHE_PREFIX = "weather:";
-    private static final long CACHE_TTL_MINUTES = 10; // Cache weather data for 10 minutes
+    private static final long FRESH_TTL_MINUTES = 10; // Weather data is fresh for 10 minutes
+    private static final long STALE_TTL_MINUTES = 60; // Stale data is still served for up to 60 minutes
+    private static final int REFRESH_THREADS = 2;
+
+    // Outbound call limits: bulkhead size and circuit breaker
+    private static final int MAX_CONCURRENT_CALLS = 4;
+    private static final int CIRCUIT_FAILURE_THRESHOLD = 3;
+    private static final long CIRCUIT_OPEN_MILLIS = 60_000;
 
     @Value("${openweathermap.api-key}")
     private String apiKey;
@@ -32,21 +53,37 @@ public class WeatherService {
 
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
-    private final RedisCacheService redisCacheService;
+    private final RedisTemplate<String, WeatherData> weatherRedisTemplate;
+    private final ExecutorService refreshExecutor;
+    private final ProviderCallGuard weatherGuard;
+
+    // One in-flight API call per cache key
+    private final Map<String, CompletableFuture<WeatherData>> inFlightFetches = new ConcurrentHashMap<>();
+
+    public WeatherService(@Qualifier("weatherRestTemplate") RestTemplate restTemplate, ObjectMapper objectMapper,
+            RedisTemplate<String, WeatherData> weatherRedisTemplate) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.weatherRedisTemplate = weatherRedisTemplate;
+        this.refreshExecutor = Executors.newFixedThreadPool(REFRESH_THREADS);
+        this.weatherGuard = new ProviderCallGuard("OpenWeatherMap", MAX_CONCURRENT_CALLS, CIRCUIT_FAILURE_THRESHOLD,
+                CIRCUIT_OPEN_MILLIS);
+    }
 
-    public WeatherService(RedisCacheService redisCacheService) {
-        this.restTemplate = new RestTemplate();
-        this.objectMapper = new ObjectMapper();
-        this.redisCacheService = redisCacheService;
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdown();
     }
 
     /**
      * Get current weather for a location.
-     * Results are cached in Redis for 10 minutes.
+     * Results are fresh for 10 minutes; after that the cached value is returned
+     * immediately and refreshed in the background.
      * 
      * @param latitude  Location latitude
      * @param longitude Location longitude
-     * @return WeatherData object containing weather info, or null if API call fails
+     * @return WeatherData object containing weather info, or null if no data is
+     *         cached yet (a background fetch is started)
      */
     public WeatherData getCurrentWeather(BigDecimal latitude, BigDecimal longitude) {
         if (latitude == null || longitude == null) {
@@ -55,27 +92,70 @@ public class WeatherService {
         }
 
         // Round coordinates to 2 decimal places for cache key
-        String cacheKey = CACHE_PREFIX +
-                latitude.setScale(2, java.math.RoundingMode.HALF_UP) + ":" +
-                longitude.setScale(2, java.math.RoundingMode.HALF_UP);
+        BigDecimal roundedLat = latitude.setScale(2, RoundingMode.HALF_UP);
+        BigDecimal roundedLng = longitude.setScale(2, RoundingMode.HALF_UP);
+        String cacheKey = CACHE_PREFIX + roundedLat + ":" + roundedLng;
 
         // Try to get from cache first
+        WeatherData cachedData = null;
         try {
-            Object cachedData = redisCacheService.get(cacheKey);
-            if (cachedData != null) {
-                log.debug("Weather cache hit for key: {}", cacheKey);
-                if (cachedData instanceof WeatherData) {
-                    return (WeatherData) cachedData;
-                }
-                // Handle case where cached data is a Map (from JSON serialization)
-                String jsonStr = objectMapper.writeValueAsString(cachedData);
-                return objectMapper.readValue(jsonStr, WeatherData.class);
-            }
+            cachedData = weatherRedisTemplate.opsForValue().get(cacheKey);
         } catch (Exception e) {
             log.warn("Error reading weather from cache: {}", e.getMessage());
         }
 
-        // Fetch from OpenWeatherMap API
+        if (cachedData != null) {
+            long ageMillis = System.currentTimeMillis() - cachedData.getFetchedAt();
+            if (ageMillis > TimeUnit.MINUTES.toMillis(FRESH_TTL_MINUTES)) {
+                log.debug("Weather cache stale for key: {}, refreshing in background", cacheKey);
+                fetchOnce(cacheKey, roundedLat, roundedLng);
+            } else {
+                log.debug("Weather cache hit for key: {}", cacheKey);
+            }
+            return cachedData;
+        }
+
+        // Nothing cached: never wait on the API; warm the cell in the background and
+        // let the caller use its default
+        log.debug("Weather cache miss for key: {}, fetching in background", cacheKey);
+        fetchOnce(cacheKey, roundedLat, roundedLng);
+        return null;
+    }
+
+    /**
+     * Start a fetch for the cache key unless one is already running, and return
+     * the shared result
+     */
+    private CompletableFuture<WeatherData> fetchOnce(String cacheKey, BigDecimal latitude, BigDecimal longitude) {
+        CompletableFuture<WeatherData> created = new CompletableFuture<>();
+        CompletableFuture<WeatherData> existing = inFlightFetches.putIfAbsent(cacheKey, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    created.complete(fetchAndCache(cacheKey, latitude, longitude));
+                } catch (Exception e) {
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlightFetches.remove(cacheKey, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlightFetches.remove(cacheKey, created);
+            created.complete(null);
+        }
+        return created;
+    }
+
+    /**
+     * Fetch weather from OpenWeatherMap API and store it in Redis
+     *
+     * @return WeatherData, or null if the API call fails
+     */
+    private WeatherData fetchAndCache(String cacheKey, BigDecimal latitude, BigDecimal longitude) {
         try {
             String url = UriComponentsBuilder
                     .fromHttpUrl(baseUrl + "/weather")
@@ -86,7 +166,7 @@ public class WeatherService {
                     .toUriString();
 
             log.debug("Fetching weather from OpenWeatherMap: lat={}, lon={}", latitude, longitude);
-            String response = restTemplate.getForObject(url, String.class);
+            String response = weatherGuard.call(() -> restTemplate.getForObject(url, String.class));
 
             if (response == null) {
                 log.warn("OpenWeatherMap API returned null response");
@@ -96,9 +176,14 @@ public class WeatherService {
             // Parse response
             JsonNode root = objectMapper.readTree(response);
             WeatherData weatherData = parseWeatherResponse(root);
+            weatherData.setFetchedAt(System.currentTimeMillis());
 
-            // Cache the result
-            redisCacheService.set(cacheKey, weatherData, CACHE_TTL_MINUTES, TimeUnit.MINUTES);
+            // Cache the result; kept past the fresh window so it can be served stale
+            try {
+                weatherRedisTemplate.opsForValue().set(cacheKey, weatherData, STALE_TTL_MINUTES, TimeUnit.MINUTES);
+            } catch (Exception e) {
+                log.error("Error caching weather for key: {}", cacheKey, e);
+            }
             log.info("Weather fetched and cached: {} (code: {}) for location ({}, {})",
                     weatherData.getDescription(), weatherData.getWeatherCode(), latitude, longitude);
 
@@ -200,6 +285,7 @@ public class WeatherService {
         private double temperature;
         private int humidity;
         private double windSpeed;
+        private long fetchedAt; // Epoch millis when fetched from the API
 
         // Getters and Setters
         public int getWeatherCode() {
@@ -250,6 +336,14 @@ public class WeatherService {
             this.windSpeed = windSpeed;
         }
 
+        public long getFetchedAt() {
+            return fetchedAt;
+        }
+
+        public void setFetchedAt(long fetchedAt) {
+            this.fetchedAt = fetchedAt;
+        }
+
         @Override
         public String toString() {
             return "WeatherData{" +
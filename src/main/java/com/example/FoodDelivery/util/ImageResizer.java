@@ -0,0 +1,113 @@
+package com.example.FoodDelivery.util;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Set;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Downscales image files on disk.
+ * Dimensions are read from the header first: images above MAX_PIXELS are
+ * rejected, and larger images are decoded with source subsampling so the
+ * decoded raster's longest side is at most twice the target. Heap use therefore
+ * depends on the output size rather than the size of the uploaded image.
+ */
+public final class ImageResizer {
+
+    // 40 megapixels, e.g. 8000 x 5000
+    public static final long MAX_PIXELS = 40_000_000L;
+
+    private static final Set<String> SUPPORTED_EXTENSIONS = Set.of("jpg", "jpeg", "png");
+
+    private ImageResizer() {
+    }
+
+    public static boolean supports(String extension) {
+        return extension != null && SUPPORTED_EXTENSIONS.contains(extension.toLowerCase());
+    }
+
+    /**
+     * Write a copy of an image whose longest side is at most maxDimension
+     *
+     * @param extension jpg, jpeg or png; also the output format
+     * @return temp file with the resized image (caller deletes it), or null if the
+     *         image already fits or cannot be decoded
+     * @throws ImageTooLargeException if the header declares more than MAX_PIXELS
+     */
+    public static Path fitWithin(Path source, String extension, int maxDimension) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                if ((long) sourceWidth * sourceHeight > MAX_PIXELS) {
+                    throw new ImageTooLargeException(sourceWidth, sourceHeight);
+                }
+                int longest = Math.max(sourceWidth, sourceHeight);
+                if (longest <= maxDimension) {
+                    return null;
+                }
+
+                // Subsample to at most twice the target (rounding the factor up),
+                // then scale smoothly
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, (longest + 2 * maxDimension - 1) / (2 * maxDimension));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+
+                double scale = (double) maxDimension / Math.max(decoded.getWidth(), decoded.getHeight());
+                int width = Math.max(1, (int) Math.round(decoded.getWidth() * scale));
+                int height = Math.max(1, (int) Math.round(decoded.getHeight() * scale));
+                boolean png = "png".equalsIgnoreCase(extension);
+
+                BufferedImage scaled = new BufferedImage(width, height,
+                        png ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+                Graphics2D graphics = scaled.createGraphics();
+                try {
+                    graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                            RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                    graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                    graphics.drawImage(decoded, 0, 0, width, height, null);
+                } finally {
+                    graphics.dispose();
+                }
+                decoded.flush();
+
+                Path target = Files.createTempFile("resized-", "." + extension.toLowerCase());
+                if (!ImageIO.write(scaled, png ? "png" : "jpg", target.toFile())) {
+                    Files.deleteIfExists(target);
+                    return null;
+                }
+                return target;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * The image header declares more pixels than MAX_PIXELS
+     */
+    public static class ImageTooLargeException extends IOException {
+        public ImageTooLargeException(int width, int height) {
+            super("Image is too large (" + width + "x" + height + " pixels, at most " + MAX_PIXELS + " allowed)");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.FoodDelivery.util;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Bulkhead and circuit breaker for calls to one external provider.
+ * At most maxConcurrentCalls run at once; after failureThreshold consecutive
+ * failures the circuit opens and calls fail fast for openMillis, then a single
+ * trial call decides whether it closes again. Only timeouts, I/O errors and 5xx
+ * responses count as failures; a 4xx response means the provider is up.
+ */
+public class ProviderCallGuard {
+
+    private final String providerName;
+    private final Semaphore permits;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private volatile long openUntil = 0;
+
+    public ProviderCallGuard(String providerName, int maxConcurrentCalls, int failureThreshold, long openMillis) {
+        this.providerName = providerName;
+        this.permits = new Semaphore(maxConcurrentCalls);
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Run a provider call through the bulkhead and circuit breaker
+     *
+     * @throws ProviderUnavailableException if the circuit is open, a trial call is
+     *                                      already running or the bulkhead is full
+     */
+    public <T> T call(Callable<T> call) throws Exception {
+        boolean trial = false;
+        if (openUntil != 0) {
+            if (System.currentTimeMillis() < openUntil) {
+                throw new ProviderUnavailableException(providerName + " circuit is open");
+            }
+            // Open window over: exactly one caller gets to try the provider
+            if (!trialInFlight.compareAndSet(false, true)) {
+                throw new ProviderUnavailableException(providerName + " circuit is half-open, trial call in flight");
+            }
+            trial = true;
+        }
+        if (!permits.tryAcquire()) {
+            if (trial) {
+                trialInFlight.set(false);
+            }
+            throw new ProviderUnavailableException(providerName + " has too many calls in flight");
+        }
+
+        try {
+            T result = call.call();
+            close();
+            return result;
+        } catch (Exception e) {
+            if (!isProviderFailure(e)) {
+                // The provider answered (e.g. 4xx): it is healthy
+                close();
+            } else if (trial || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+                // A failed trial call reopens the circuit at once
+                openUntil = System.currentTimeMillis() + openMillis;
+                consecutiveFailures.set(0);
+            }
+            throw e;
+        } finally {
+            permits.release();
+            if (trial) {
+                trialInFlight.set(false);
+            }
+        }
+    }
+
+    /**
+     * Whether calls are currently short-circuited
+     */
+    public boolean isOpen() {
+        return System.currentTimeMillis() < openUntil;
+    }
+
+    private void close() {
+        consecutiveFailures.set(0);
+        openUntil = 0;
+    }
+
+    /**
+     * Timeouts, I/O errors and 5xx responses; anything else is the caller's or
+     * the request's fault
+     */
+    static boolean isProviderFailure(Throwable e) {
+        if (e instanceof HttpStatusCodeException statusException) {
+            return statusException.getStatusCode().is5xxServerError();
+        }
+        return e instanceof ResourceAccessException
+                || e instanceof IOException
+                || e instanceof TimeoutException;
+    }
+
+    public static class ProviderUnavailableException extends RuntimeException {
+        public ProviderUnavailableException(String message) {
+            super(message);
+        }
+    }
+}
@@ -36,6 +36,7 @@ public class SecurityUtil {
     }
 
     public static final MacAlgorithm JWT_ALGORITHM = MacAlgorithm.HS512;
+    public static final String ROLE_ID_CLAIM = "role_id";
 
     @Value("${foodDelivery.jwt.base64-secret}")
     private String jwtKey;
@@ -62,13 +63,17 @@ public class SecurityUtil {
         listAuthority.add("ROLE_USER_UPDATE");
 
         // @formatter:off
-        JwtClaimsSet claims = JwtClaimsSet.builder()
+        JwtClaimsSet.Builder claimsBuilder = JwtClaimsSet.builder()
             .issuedAt(now)
             .expiresAt(validity)
             .subject(email)
             .claim("user", userInsideToken)
-            .claim("permission", listAuthority)
-            .build();
+            .claim("permission", listAuthority);
+        if (dto.getUser() != null && dto.getUser().getRole() != null) {
+            // Lets the permission interceptor authorize without loading the user
+            claimsBuilder.claim(ROLE_ID_CLAIM, dto.getUser().getRole().getId());
+        }
+        JwtClaimsSet claims = claimsBuilder.build();
 
         JwsHeader jwsHeader = JwsHeader.with(JWT_ALGORITHM).build();
         return this.jwtEncoder.encode(JwtEncoderParameters.from(jwsHeader,claims)).getTokenValue();
@@ -135,6 +140,22 @@ public class SecurityUtil {
         return null;
     }
 
+    /**
+     * Get the role ID of the current user from the access token.
+     *
+     * @return the role ID, or empty if the token has no role claim.
+     */
+    public static Optional<Long> getCurrentUserRoleId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof Jwt jwt) {
+            Object roleId = jwt.getClaim(ROLE_ID_CLAIM);
+            if (roleId instanceof Number number) {
+                return Optional.of(number.longValue());
+            }
+        }
+        return Optional.empty();
+    }
+
     /**
      * Get the JWT of the current user.
      *
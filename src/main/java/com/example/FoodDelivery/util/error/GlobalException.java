@@ -80,6 +80,16 @@ public class GlobalException {
                                 .body(res);
         }
 
+        @ExceptionHandler(value = { StorageUnavailableException.class })
+        public ResponseEntity<RestResponse<Object>> handleStorageUnavailableException(Exception ex) {
+                RestResponse<Object> res = new RestResponse<Object>();
+                res.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE.value());
+                res.setMessage(ex.getMessage());
+                res.setError("File upload service busy...");
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .body(res);
+        }
+
         @ExceptionHandler(value = { PermissionException.class })
         public ResponseEntity<RestResponse<Object>> handlePermissionException(Exception ex) {
                 RestResponse<Object> res = new RestResponse<Object>();
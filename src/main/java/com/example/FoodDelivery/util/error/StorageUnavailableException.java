@@ -0,0 +1,11 @@
+package com.example.FoodDelivery.util.error;
+
+/**
+ * The upload could not be accepted right now (queue full or shutting down);
+ * answered with 503 so clients retry later
+ */
+public class StorageUnavailableException extends StorageException {
+    public StorageUnavailableException(String message) {
+        super(message);
+    }
+}
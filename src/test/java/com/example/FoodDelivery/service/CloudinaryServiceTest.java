@@ -0,0 +1,354 @@
+package com.example.FoodDelivery.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import com.example.FoodDelivery.domain.res.file.ResUploadTicketDTO;
+import com.example.FoodDelivery.util.ImageResizer;
+import com.example.FoodDelivery.util.error.StorageException;
+import com.example.FoodDelivery.util.error.StorageUnavailableException;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Runs the upload pipeline with the real Cloudinary SDK against a local stub
+ * upload API whose latency is controlled per test
+ */
+class CloudinaryServiceTest {
+
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+)");
+
+    private HttpServer server;
+    private String uploadPrefix;
+    private CloudinaryService cloudinaryService;
+
+    private final List<StubRequest> requests = new CopyOnWriteArrayList<>();
+    private volatile int status = 200;
+    // When set, every request waits for it before answering
+    private volatile CountDownLatch release;
+    private final CountDownLatch arrived = new CountDownLatch(1);
+    private boolean stopped;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.add(new StubRequest(exchange.getRequestURI().getPath(),
+                    exchange.getRequestHeaders().getFirst("Content-Type"),
+                    exchange.getRequestHeaders().getFirst("Content-Range"),
+                    exchange.getRequestBody().readAllBytes()));
+            arrived.countDown();
+            CountDownLatch gate = release;
+            if (gate != null) {
+                try {
+                    gate.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            String json = status == 200
+                    ? "{\"public_id\":\"stub\",\"secure_url\":\"https://stub.local/file-" + requests.size() + "\"}"
+                    : "{\"error\":{\"message\":\"stub failure\"}}";
+            byte[] body = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        uploadPrefix = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopStub() {
+        CountDownLatch gate = release;
+        if (gate != null) {
+            gate.countDown();
+        }
+        if (cloudinaryService != null) {
+            cloudinaryService.shutdown();
+        }
+        if (!stopped) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void syncUploadSendsMultipartFileAndFolder() throws Exception {
+        cloudinaryService = newService(2, 30000, 4);
+        byte[] content = "%PDF-1.4 test".getBytes(StandardCharsets.UTF_8);
+
+        ResUploadTicketDTO result = cloudinaryService.uploadFile(
+                new MockMultipartFile("file", "menu.pdf", "application/pdf", content), "docs", false);
+
+        assertThat(result.getStatus()).isEqualTo("COMPLETED");
+        assertThat(result.getFileName()).startsWith("https://stub.local/");
+        assertThat(requests).hasSize(1);
+        StubRequest request = requests.get(0);
+        assertThat(request.path()).isEqualTo("/v1_1/demo/auto/upload");
+        Map<String, byte[]> parts = request.parts();
+        assertThat(parts.get("file")).isEqualTo(content);
+        assertThat(new String(parts.get("folder"), StandardCharsets.UTF_8)).isEqualTo("docs");
+    }
+
+    @Test
+    void largeFileIsUploadedInChunks() throws Exception {
+        cloudinaryService = newService(2, 30000, 4);
+        // Just above the 20 MB chunked upload threshold: 6 MB chunks
+        byte[] content = new byte[21 * 1024 * 1024];
+        new Random(1).nextBytes(content);
+
+        cloudinaryService.uploadFile(new MockMultipartFile("file", "video.pdf", "application/pdf", content),
+                "docs", false);
+
+        assertThat(requests).hasSize(4);
+        long expectedStart = 0;
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        for (StubRequest request : requests) {
+            Matcher range = CONTENT_RANGE.matcher(Objects.requireNonNull(request.contentRange()));
+            assertThat(range.matches()).isTrue();
+            assertThat(Long.parseLong(range.group(1))).isEqualTo(expectedStart);
+            assertThat(Long.parseLong(range.group(3))).isEqualTo(content.length);
+            expectedStart = Long.parseLong(range.group(2)) + 1;
+            received.write(request.parts().get("file"));
+        }
+        assertThat(expectedStart).isEqualTo(content.length);
+        assertThat(received.toByteArray()).isEqualTo(content);
+    }
+
+    @Test
+    void oversizedImageIsDownscaledWithThumbnail() throws Exception {
+        cloudinaryService = newService(2, 30000, 4);
+
+        ResUploadTicketDTO result = cloudinaryService.uploadFile(png("dish", 4000, 2000), "dishes", true);
+
+        assertThat(result.getThumbnailUrl()).isNotNull();
+        assertThat(requests).hasSize(2);
+        BufferedImage main = ImageIO.read(new ByteArrayInputStream(requests.get(0).parts().get("file")));
+        assertThat(main.getWidth()).isEqualTo(1600);
+        assertThat(main.getHeight()).isEqualTo(800);
+        BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(requests.get(1).parts().get("file")));
+        assertThat(thumbnail.getWidth()).isEqualTo(320);
+        assertThat(thumbnail.getHeight()).isEqualTo(160);
+        assertThat(new String(requests.get(1).parts().get("folder"), StandardCharsets.UTF_8))
+                .isEqualTo("dishes/thumbnails");
+    }
+
+    @Test
+    void imageAbovePixelCapIsRejectedWithoutUploading() throws Exception {
+        cloudinaryService = newService(2, 30000, 4);
+        // 1-bit image so the test itself stays small
+        BufferedImage image = new BufferedImage(8000, 6000, BufferedImage.TYPE_BYTE_BINARY);
+        assertThat((long) image.getWidth() * image.getHeight()).isGreaterThan(ImageResizer.MAX_PIXELS);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", bytes);
+
+        assertThatThrownBy(() -> cloudinaryService.uploadFile(
+                new MockMultipartFile("file", "bomb.png", "image/png", bytes.toByteArray()), "dishes", false))
+                .isInstanceOf(StorageException.class)
+                .hasMessageContaining("too large");
+        assertThat(requests).isEmpty();
+    }
+
+    @Test
+    void syncUploadGivesUpAfterPermitWait() throws Exception {
+        cloudinaryService = newService(1, 100, 4);
+        release = new CountDownLatch(1);
+
+        CompletableFuture<ResUploadTicketDTO> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return cloudinaryService.uploadFile(pdf("a"), "docs", false);
+            } catch (StorageException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(arrived.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> cloudinaryService.uploadFile(pdf("b"), "docs", false))
+                .isInstanceOf(StorageException.class)
+                .hasMessageContaining("Too many uploads");
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo("COMPLETED");
+        assertThat(requests).hasSize(1);
+    }
+
+    @Test
+    void asyncUploadCompletes() throws Exception {
+        cloudinaryService = newService(2, 30000, 4);
+
+        ResUploadTicketDTO ticket = cloudinaryService.submitUpload(pdf("a"), "docs", false);
+
+        ResUploadTicketDTO finished = awaitFinished(ticket.getTicketId());
+        assertThat(finished.getStatus()).isEqualTo("COMPLETED");
+        assertThat(finished.getFileName()).startsWith("https://stub.local/");
+    }
+
+    @Test
+    void providerErrorFailsTheTicket() throws Exception {
+        cloudinaryService = newService(2, 30000, 4);
+        status = 500;
+
+        ResUploadTicketDTO ticket = cloudinaryService.submitUpload(pdf("a"), "docs", false);
+
+        ResUploadTicketDTO finished = awaitFinished(ticket.getTicketId());
+        assertThat(finished.getStatus()).isEqualTo("FAILED");
+        assertThat(finished.getError()).isNotBlank();
+    }
+
+    @Test
+    void unreachableProviderFailsTheTicket() throws Exception {
+        cloudinaryService = newService(2, 30000, 4);
+        server.stop(0);
+        stopped = true;
+
+        ResUploadTicketDTO ticket = cloudinaryService.submitUpload(pdf("a"), "docs", false);
+
+        ResUploadTicketDTO finished = awaitFinished(ticket.getTicketId());
+        assertThat(finished.getStatus()).isEqualTo("FAILED");
+        assertThat(finished.getError()).startsWith("Failed to upload file to Cloudinary");
+    }
+
+    @Test
+    void fullQueueRejectsBeforeSpooling() throws Exception {
+        cloudinaryService = newService(1, 30000, 1);
+        release = new CountDownLatch(1);
+
+        // One running (held by the stub), one queued
+        ResUploadTicketDTO running = cloudinaryService.submitUpload(pdf("a"), "docs", false);
+        ResUploadTicketDTO queued = cloudinaryService.submitUpload(pdf("b"), "docs", false);
+        assertThat(arrived.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MultipartFile rejected = mock(MultipartFile.class);
+        when(rejected.isEmpty()).thenReturn(false);
+        when(rejected.getOriginalFilename()).thenReturn("c.pdf");
+        assertThatThrownBy(() -> cloudinaryService.submitUpload(rejected, "docs", false))
+                .isInstanceOf(StorageUnavailableException.class);
+        verify(rejected, never()).transferTo(any(Path.class));
+
+        release.countDown();
+        assertThat(awaitFinished(running.getTicketId()).getStatus()).isEqualTo("COMPLETED");
+        assertThat(awaitFinished(queued.getTicketId()).getStatus()).isEqualTo("COMPLETED");
+
+        // Slots are released just after the ticket is marked done
+        ResUploadTicketDTO later = await().atMost(Duration.ofSeconds(5))
+                .ignoreException(StorageUnavailableException.class)
+                .until(() -> cloudinaryService.submitUpload(pdf("d"), "docs", false), Objects::nonNull);
+        assertThat(awaitFinished(later.getTicketId()).getStatus()).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void queuedUploadOutlivesPermitWait() throws Exception {
+        // Permit wait far shorter than the time the first upload is held
+        cloudinaryService = newService(1, 50, 2);
+        release = new CountDownLatch(1);
+
+        ResUploadTicketDTO first = cloudinaryService.submitUpload(pdf("a"), "docs", false);
+        ResUploadTicketDTO second = cloudinaryService.submitUpload(pdf("b"), "docs", false);
+        assertThat(arrived.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(300);
+        release.countDown();
+
+        assertThat(awaitFinished(first.getTicketId()).getStatus()).isEqualTo("COMPLETED");
+        assertThat(awaitFinished(second.getTicketId()).getStatus()).isEqualTo("COMPLETED");
+        assertThat(requests).hasSize(2);
+    }
+
+    private CloudinaryService newService(int maxConcurrent, long permitWaitMillis, int queueCapacity) {
+        Cloudinary cloudinary = new Cloudinary(ObjectUtils.asMap(
+                "cloud_name", "demo",
+                "api_key", "key",
+                "api_secret", "secret",
+                "upload_prefix", uploadPrefix));
+        return new CloudinaryService(cloudinary, maxConcurrent, permitWaitMillis, queueCapacity);
+    }
+
+    private ResUploadTicketDTO awaitFinished(String ticketId) {
+        return await().atMost(Duration.ofSeconds(10))
+                .until(() -> cloudinaryService.getUploadTicket(ticketId), ticket -> ticket.getCompletedAt() != null);
+    }
+
+    private static MockMultipartFile pdf(String name) {
+        return new MockMultipartFile("file", name + ".pdf", "application/pdf",
+                "%PDF-1.4 test".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MockMultipartFile png(String name, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", bytes);
+        return new MockMultipartFile("file", name + ".png", "image/png", bytes.toByteArray());
+    }
+
+    /**
+     * One request received by the stub
+     */
+    private record StubRequest(String path, String contentType, String contentRange, byte[] body) {
+
+        /**
+         * Multipart form fields by name
+         */
+        Map<String, byte[]> parts() {
+            Matcher boundaryMatcher = Pattern.compile("boundary=\"?([^\";]+)\"?").matcher(contentType);
+            assertThat(boundaryMatcher.find()).isTrue();
+            String delimiter = "--" + boundaryMatcher.group(1);
+
+            // ISO-8859-1 maps every byte to one char, so binary parts survive
+            String raw = new String(body, StandardCharsets.ISO_8859_1);
+            Map<String, byte[]> parts = new HashMap<>();
+            for (String section : raw.split(Pattern.quote(delimiter))) {
+                int headerEnd = section.indexOf("\r\n\r\n");
+                if (headerEnd < 0) {
+                    continue;
+                }
+                Matcher name = Pattern.compile("name=\"([^\"]+)\"").matcher(section.substring(0, headerEnd));
+                if (!name.find()) {
+                    continue;
+                }
+                // Content runs up to the CRLF before the next delimiter
+                String content = section.substring(headerEnd + 4, section.length() - 2);
+                parts.put(name.group(1), content.getBytes(StandardCharsets.ISO_8859_1));
+            }
+            return parts;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.FoodDelivery.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.testcontainers.containers.MariaDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.FoodDelivery.domain.Dish;
+import com.example.FoodDelivery.domain.MenuOption;
+import com.example.FoodDelivery.domain.Order;
+import com.example.FoodDelivery.domain.OrderItem;
+import com.example.FoodDelivery.domain.OrderItemOption;
+import com.example.FoodDelivery.domain.Restaurant;
+import com.example.FoodDelivery.domain.User;
+import com.example.FoodDelivery.domain.Voucher;
+import com.example.FoodDelivery.domain.res.ResultPaginationDTO;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * The order list endpoints must issue the same number of SQL statements no
+ * matter how many orders (and items, options and vouchers) are on the page
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(OrderService.class)
+class OrderListStatementCountTest {
+
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Container
+    @ServiceConnection
+    static MariaDBContainer<?> mariadb = new MariaDBContainer<>("mariadb:10.11");
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Everything OrderService needs besides repositories; list rendering only
+    // touches RedisGeoService, whose mock returns no driver locations
+    @MockBean
+    private UserService userService;
+    @MockBean
+    private RestaurantService restaurantService;
+    @MockBean
+    private VoucherService voucherService;
+    @MockBean
+    private DishService dishService;
+    @MockBean
+    private OrderEarningsSummaryService orderEarningsSummaryService;
+    @MockBean
+    private PaymentService paymentService;
+    @MockBean
+    private VNPayService vnPayService;
+    @MockBean
+    private WebSocketService webSocketService;
+    @MockBean
+    private SystemConfigurationService systemConfigurationService;
+    @MockBean
+    private MapboxService mapboxService;
+    @MockBean
+    private DriverProfileService driverProfileService;
+    @MockBean
+    private RedisGeoService redisGeoService;
+    @MockBean
+    private RedisRejectionService redisRejectionService;
+    @MockBean
+    private UserScoringService userScoringService;
+    @MockBean
+    private DynamicPricingService dynamicPricingService;
+    @MockBean
+    private OrderChatParticipantService orderChatParticipantService;
+    @MockBean
+    private RestaurantRevenueRollupService restaurantRevenueRollupService;
+    @MockBean
+    private DishSalesService dishSalesService;
+
+    private Statistics statistics;
+    private User customer;
+    private User driver;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        customer = persistUser("customer");
+        driver = persistUser("driver");
+    }
+
+    @Test
+    void restaurantOrderListUsesConstantStatementCount() {
+        long oneOrder = statementsToList(1);
+        long tenOrders = statementsToList(10);
+        long fortyOrders = statementsToList(40);
+
+        assertThat(tenOrders).isEqualTo(fortyOrders);
+        assertThat(oneOrder).isLessThanOrEqualTo(tenOrders);
+    }
+
+    /**
+     * Create a restaurant with the given number of orders and count the
+     * statements run to render its order list
+     */
+    private long statementsToList(int orderCount) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setName("Restaurant " + orderCount);
+        restaurant.setStatus("ACTIVE");
+        entityManager.persist(restaurant);
+
+        for (int i = 0; i < orderCount; i++) {
+            persistOrder(restaurant, i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics.clear();
+        ResultPaginationDTO result = orderService.getOrdersDTOByRestaurantIdWithSpec(restaurant.getId(), null,
+                PageRequest.of(0, 100));
+        long statements = statistics.getPrepareStatementCount();
+
+        assertThat((List<?>) result.getResult()).hasSize(orderCount);
+        entityManager.clear();
+        return statements;
+    }
+
+    private void persistOrder(Restaurant restaurant, int index) {
+        Voucher voucher = new Voucher();
+        voucher.setCode("CODE-" + restaurant.getName() + "-" + index);
+        entityManager.persist(voucher);
+
+        Order order = new Order();
+        order.setRestaurant(restaurant);
+        order.setCustomer(customer);
+        order.setDriver(driver);
+        order.setOrderStatus("DELIVERED");
+        order.setSubtotal(BigDecimal.valueOf(100));
+        order.setVouchers(new ArrayList<>(List.of(voucher)));
+        entityManager.persist(order);
+
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            Dish dish = new Dish();
+            dish.setRestaurant(restaurant);
+            dish.setName("Dish " + index + "-" + i);
+            dish.setPrice(BigDecimal.TEN);
+            entityManager.persist(dish);
+
+            MenuOption menuOption = new MenuOption();
+            menuOption.setName("Extra " + index + "-" + i);
+            menuOption.setPriceAdjustment(BigDecimal.ONE);
+            entityManager.persist(menuOption);
+
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setDish(dish);
+            item.setQuantity(1);
+            item.setPriceAtPurchase(BigDecimal.TEN);
+            entityManager.persist(item);
+
+            OrderItemOption option = new OrderItemOption();
+            option.setOrderItem(item);
+            option.setMenuOption(menuOption);
+            option.setOptionName(menuOption.getName());
+            option.setPriceAtPurchase(BigDecimal.ONE);
+            entityManager.persist(option);
+        }
+    }
+
+    private User persistUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("secret");
+        entityManager.persist(user);
+        return user;
+    }
+}
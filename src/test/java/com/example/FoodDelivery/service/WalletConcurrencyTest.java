@@ -0,0 +1,121 @@
+package com.example.FoodDelivery.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MariaDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.FoodDelivery.domain.Wallet;
+import com.example.FoodDelivery.repository.WalletRepository;
+import com.example.FoodDelivery.util.error.IdInvalidException;
+
+/**
+ * Parallel credits and debits against one wallet must neither lose an update
+ * nor take the balance below zero
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ WalletTransactionService.class, WalletService.class, WalletLedgerService.class })
+class WalletConcurrencyTest {
+
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("300.00");
+    private static final BigDecimal CREDIT = new BigDecimal("10.00");
+    private static final BigDecimal DEBIT = new BigDecimal("15.00");
+    private static final int CREDITS = 50;
+    private static final int DEBITS = 50;
+    private static final int THREADS = 16;
+
+    @Container
+    @ServiceConnection
+    static MariaDBContainer<?> mariadb = new MariaDBContainer<>("mariadb:10.11");
+
+    @Autowired
+    private WalletTransactionService walletTransactionService;
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @MockBean
+    private UserService userService;
+    @MockBean
+    private OrderService orderService;
+
+    @Test
+    void parallelCreditsAndDebitsKeepBalanceConsistent() throws Exception {
+        Wallet wallet = new Wallet();
+        wallet.setBalance(OPENING_BALANCE);
+        wallet.setLastSequenceNumber(0L);
+        Long walletId = walletRepository.save(wallet).getId();
+
+        // true = a debit that was applied
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < CREDITS; i++) {
+            tasks.add(() -> {
+                walletTransactionService.depositToWallet(walletId, CREDIT, "stress credit");
+                return false;
+            });
+        }
+        for (int i = 0; i < DEBITS; i++) {
+            tasks.add(() -> {
+                try {
+                    walletTransactionService.withdrawFromWallet(walletId, DEBIT, "stress debit");
+                    return true;
+                } catch (IdInvalidException e) {
+                    // Insufficient balance at that moment
+                    return false;
+                }
+            });
+        }
+        Collections.shuffle(tasks);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (Callable<Boolean> task : tasks) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+
+        int successfulDebits = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(60, TimeUnit.SECONDS)) {
+                successfulDebits++;
+            }
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        Wallet reloaded = walletRepository.findById(walletId).orElseThrow();
+        BigDecimal expectedBalance = OPENING_BALANCE
+                .add(CREDIT.multiply(BigDecimal.valueOf(CREDITS)))
+                .subtract(DEBIT.multiply(BigDecimal.valueOf(successfulDebits)));
+        assertThat(reloaded.getBalance()).isEqualByComparingTo(expectedBalance);
+        assertThat(reloaded.getBalance().signum()).isGreaterThanOrEqualTo(0);
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.FoodDelivery.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.FoodDelivery.util.ProviderCallGuard.ProviderUnavailableException;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Runs the guard against a local stub provider whose status and latency are
+ * switched per test
+ */
+class ProviderCallGuardTest {
+
+    private static final int FAILURE_THRESHOLD = 3;
+    private static final long OPEN_MILLIS = 200;
+
+    private HttpServer server;
+    private RestTemplate restTemplate;
+    private String url;
+
+    private volatile int status = 200;
+    private volatile long delayMillis = 0;
+    private final AtomicInteger hits = new AtomicInteger();
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            hits.incrementAndGet();
+            try {
+                if (delayMillis > 0) {
+                    Thread.sleep(delayMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(500);
+        factory.setReadTimeout(300);
+        restTemplate = new RestTemplate(factory);
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void serverErrorsOpenTheCircuitAfterThreshold() {
+        ProviderCallGuard guard = new ProviderCallGuard("stub", 4, FAILURE_THRESHOLD, OPEN_MILLIS);
+        status = 503;
+
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            assertThatThrownBy(() -> guard.call(this::get)).isInstanceOf(HttpServerErrorException.class);
+        }
+
+        assertThat(guard.isOpen()).isTrue();
+        int hitsWhenOpened = hits.get();
+        assertThatThrownBy(() -> guard.call(this::get)).isInstanceOf(ProviderUnavailableException.class);
+        assertThat(hits.get()).isEqualTo(hitsWhenOpened);
+    }
+
+    @Test
+    void clientErrorsDoNotOpenTheCircuit() {
+        ProviderCallGuard guard = new ProviderCallGuard("stub", 4, FAILURE_THRESHOLD, OPEN_MILLIS);
+        status = 404;
+
+        for (int i = 0; i < FAILURE_THRESHOLD * 3; i++) {
+            assertThatThrownBy(() -> guard.call(this::get)).isInstanceOf(HttpClientErrorException.class);
+        }
+
+        assertThat(guard.isOpen()).isFalse();
+        assertThat(hits.get()).isEqualTo(FAILURE_THRESHOLD * 3);
+    }
+
+    @Test
+    void clientErrorResetsConsecutiveFailures() throws Exception {
+        ProviderCallGuard guard = new ProviderCallGuard("stub", 4, FAILURE_THRESHOLD, OPEN_MILLIS);
+
+        status = 500;
+        for (int i = 0; i < FAILURE_THRESHOLD - 1; i++) {
+            assertThatThrownBy(() -> guard.call(this::get)).isInstanceOf(HttpServerErrorException.class);
+        }
+        status = 400;
+        assertThatThrownBy(() -> guard.call(this::get)).isInstanceOf(HttpClientErrorException.class);
+        status = 500;
+        assertThatThrownBy(() -> guard.call(this::get)).isInstanceOf(HttpServerErrorException.class);
+
+        assertThat(guard.isOpen()).isFalse();
+    }
+
+    @Test
+    void timeoutsCountAsFailures() {
+        ProviderCallGuard guard = new ProviderCallGuard("stub", 4, FAILURE_THRESHOLD, OPEN_MILLIS);
+        delayMillis = 1000;
+
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            assertThatThrownBy(() -> guard.call(this::get)).isInstanceOf(ResourceAccessException.class);
+        }
+
+        assertThat(guard.isOpen()).isTrue();
+    }
+
+    @Test
+    void onlyOneTrialCallAfterOpenWindow() throws Exception {
+        ProviderCallGuard guard = new ProviderCallGuard("stub", 16, FAILURE_THRESHOLD, OPEN_MILLIS);
+        status = 500;
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            assertThatThrownBy(() -> guard.call(this::get)).isInstanceOf(HttpServerErrorException.class);
+        }
+        assertThat(guard.isOpen()).isTrue();
+
+        // Provider recovers but answers slowly, so all callers overlap the trial
+        status = 200;
+        delayMillis = 150;
+        Thread.sleep(OPEN_MILLIS + 50);
+        int hitsBefore = hits.get();
+
+        int callers = 10;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    guard.call(this::get);
+                    return true;
+                } catch (ProviderUnavailableException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int admitted = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(5, TimeUnit.SECONDS)) {
+                admitted++;
+            }
+        }
+        pool.shutdown();
+
+        assertThat(admitted).isEqualTo(1);
+        assertThat(hits.get() - hitsBefore).isEqualTo(1);
+        // The successful trial closed the circuit
+        delayMillis = 0;
+        assertThat(guard.call(this::get)).isEqualTo("{}");
+    }
+
+    @Test
+    void failedTrialReopensTheCircuit() throws Exception {
+        ProviderCallGuard guard = new ProviderCallGuard("stub", 4, FAILURE_THRESHOLD, OPEN_MILLIS);
+        status = 502;
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            assertThatThrownBy(() -> guard.call(this::get)).isInstanceOf(HttpServerErrorException.class);
+        }
+        Thread.sleep(OPEN_MILLIS + 50);
+
+        assertThatThrownBy(() -> guard.call(this::get)).isInstanceOf(HttpServerErrorException.class);
+
+        assertThat(guard.isOpen()).isTrue();
+    }
+
+    @Test
+    void bulkheadRejectsWhenFull() throws Exception {
+        int maxConcurrentCalls = 2;
+        ProviderCallGuard guard = new ProviderCallGuard("stub", maxConcurrentCalls, FAILURE_THRESHOLD, OPEN_MILLIS);
+        delayMillis = 250;
+
+        ExecutorService pool = Executors.newFixedThreadPool(maxConcurrentCalls);
+        CountDownLatch inFlight = new CountDownLatch(maxConcurrentCalls);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < maxConcurrentCalls; i++) {
+            results.add(pool.submit(() -> guard.call(() -> {
+                inFlight.countDown();
+                return get();
+            })));
+        }
+        assertThat(inFlight.await(2, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> guard.call(this::get)).isInstanceOf(ProviderUnavailableException.class);
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("{}");
+        }
+        pool.shutdown();
+        // Rejections are not provider failures
+        assertThat(guard.isOpen()).isFalse();
+    }
+
+    private String get() {
+        return restTemplate.getForObject(url, String.class);
+    }
+}